@@ -0,0 +1,90 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+
+/**
+ * Fast {@code double} approximations of {@link BigFraction} values, used as sort keys.
+ * <p>
+ * A key is calculated from the leading 62 bits of numerator and denominator, without any {@link java.math.BigDecimal} division. Its
+ * relative error is below {@code 2^-50}. Keys are clamped to the range {@code [2^-960, 2^960]} in magnitude, so they never overflow nor
+ * lose precision as subnormal numbers. As clamping is monotonic, the order of two keys always agrees with the exact order of their values,
+ * unless the keys are {@link #ambiguous(double, double)}. Only then an exact {@link BigFraction#compareTo(BigFraction)} is necessary.
+ */
+final class ApproximateKeys {
+
+  /**
+   * The relative distance up to which two keys are considered ambiguous, far above the relative error of a key
+   */
+  static final double TOLERANCE = 0x1p-40;
+
+  /**
+   * The bit length used from numerator and denominator
+   */
+  private static final int PRECISION = 62;
+
+  /**
+   * The maximum binary exponent of a key
+   */
+  private static final int MAX_EXPONENT = 960;
+
+  /**
+   * No instances
+   */
+  private ApproximateKeys() {
+  }
+
+  /**
+   * Calculate the approximate key of a value.
+   *
+   * @param value The value
+   * @return the key, exactly {@code 0.0} for {@link BigFraction#ZERO}
+   */
+  static double key(BigFraction value) {
+    BigInteger numerator = value.getNumerator();
+    if (numerator.signum() == 0) {
+      return 0.0;
+    }
+    BigInteger denominator = value.getDenominator();
+    int numeratorShift = Math.max(numerator.bitLength() - PRECISION, 0);
+    int denominatorShift = Math.max(denominator.bitLength() - PRECISION, 0);
+    long numeratorBits = numerator.shiftRight(numeratorShift).longValue();
+    long denominatorBits = denominator.shiftRight(denominatorShift).longValue();
+    double quotient = (double) numeratorBits / (double) denominatorBits;
+    long exponent = (long) Math.getExponent(quotient) + numeratorShift - denominatorShift;
+    if (exponent > MAX_EXPONENT) {
+      return Math.copySign(0x1p960, quotient);
+    }
+    if (exponent < -MAX_EXPONENT) {
+      return Math.copySign(0x1p-960, quotient);
+    }
+    return Math.scalb(quotient, numeratorShift - denominatorShift);
+  }
+
+  /**
+   * Determine if two keys are too close to decide the order of their values.
+   *
+   * @param key1 The first key
+   * @param key2 The second key
+   * @return {@code true} if an exact comparison is required, {@code false} otherwise.
+   */
+  static boolean ambiguous(double key1, double key2) {
+    return Math.abs(key1 - key2) <= TOLERANCE * Math.max(Math.abs(key1), Math.abs(key2));
+  }
+
+  /**
+   * Compare two values, using their keys if possible, and an exact comparison otherwise.
+   *
+   * @param value1 The first value
+   * @param key1 The key of the first value
+   * @param value2 The second value
+   * @param key2 The key of the second value
+   * @return {@code -1}, {@code 0} or {@code 1} as {@code value1} is numerically less than, equal to, or greater than {@code value2}.
+   */
+  static int compare(BigFraction value1, double key1, BigFraction value2, double key2) {
+    if (ambiguous(key1, key2)) {
+      return value1.compareTo(value2);
+    }
+    return key1 < key2 ? -1 : 1;
+  }
+
+}
@@ -8,6 +8,9 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Immutable arbitrary precision fractions.
@@ -104,6 +107,11 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    */
   public static final BigFraction ZERO = new BigFraction(BigInteger.ZERO, BigInteger.ONE);
 
+  /**
+   * The array length from which on {@link #ofAll(BigInteger[], BigInteger[])} works in parallel
+   */
+  private static final int BATCH_PARALLEL_THRESHOLD = 1 << 12;
+
   /**
    * The pattern a decimal input String has to match
    */
@@ -195,24 +203,65 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    * <p>
    * A {@link BigFraction} is always cancelled on construction, for example:<br>
    * {@code 4/6} will be cancelled into {@code 2/3}.
+   * <p>
+   * The cancelled values are checked against the current {@link SizePolicy}.
    * 
    * @param numerator The numerator
    * @param denominator The denominator
+   * 
+   * @throws ArithmeticException if the denominator is zero, or if the {@link SizePolicy} rejects the value
    */
   public BigFraction(BigInteger numerator, BigInteger denominator) {
-    if (BigInteger.ZERO.equals(denominator)) {
-      throw new ArithmeticException("division by zero is not allowed.");
-    }
-    // always keep the denominator positive
-    if (denominator.signum() < 0) {
-      numerator = numerator.negate();
-      denominator = denominator.negate();
+    this(numerator, denominator, false);
+  }
+
+  /**
+   * Create a {@link BigFraction} from a {@link BigInteger} numerator and denominator, optionally skipping the cancellation.
+   * 
+   * @param numerator The numerator
+   * @param denominator The denominator
+   * @param cancelled if {@code true}, the caller guarantees that numerator and denominator are coprime, and that the denominator is
+   * positive
+   */
+  private BigFraction(BigInteger numerator, BigInteger denominator, boolean cancelled) {
+    this(numerator, denominator, cancelled, true);
+  }
+
+  /**
+   * Create a {@link BigFraction} from a {@link BigInteger} numerator and denominator, optionally skipping the cancellation and the
+   * {@link SizePolicy}.
+   * 
+   * @param numerator The numerator
+   * @param denominator The denominator
+   * @param cancelled if {@code true}, the caller guarantees that numerator and denominator are coprime, and that the denominator is
+   * positive
+   * @param checked if {@code true}, the value is checked against the current {@link SizePolicy}
+   */
+  private BigFraction(BigInteger numerator, BigInteger denominator, boolean cancelled, boolean checked) {
+    if (!cancelled) {
+      if (BigInteger.ZERO.equals(denominator)) {
+        throw new ArithmeticException("division by zero is not allowed.");
+      }
+      // always keep the denominator positive
+      if (denominator.signum() < 0) {
+        numerator = numerator.negate();
+        denominator = denominator.negate();
+      }
+      // always cancel if necessary
+      BigInteger gcd = numerator.gcd(denominator);
+      if (gcd.compareTo(BigInteger.ONE) > 0) {
+        numerator = numerator.divide(gcd);
+        denominator = denominator.divide(gcd);
+      }
     }
-    // always cancel if necessary
-    BigInteger gcd = numerator.gcd(denominator);
-    if (gcd.compareTo(BigInteger.ONE) > 0) {
-      numerator = numerator.divide(gcd);
-      denominator = denominator.divide(gcd);
+    SizePolicy policy = SizePolicy.current();
+    if (checked && policy.exceeds(numerator, denominator)) {
+      BigInteger[] enforced = policy.enforce(numerator, denominator);
+      numerator = enforced[0];
+      denominator = enforced[1];
+      if (denominator.signum() == 0) {
+        throw new ArithmeticException("division by zero is not allowed.");
+      }
     }
     this.numerator = numerator;
     this.denominator = denominator;
@@ -346,13 +395,26 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
     return hash;
   }
 
+  /**
+   * Return a canonical instance of this {@code BigFraction}, similar to {@link String#intern()}.
+   * <p>
+   * Equal values return the same instance, taken from a pool shared by the whole application. The pool only holds weak references, so
+   * canonical instances no longer in use are garbage collected. Use a separate {@link BigFractionInterner} to control the lifetime of the
+   * pool.
+   * 
+   * @return the canonical instance equal to this {@code BigFraction}
+   */
+  public BigFraction intern() {
+    return BigFractionInterner.SHARED.intern(this);
+  }
+
   /**
    * Create a {@link BigFraction} with the reciprocal value of this {@code BigFraction}.
    * 
    * @return a new {@code BigFraction} with the reciprocal value of this {@code BigFraction}.
    */
   public BigFraction reciprocal() {
-    return new BigFraction(denominator, numerator);
+    return of(denominator, numerator);
   }
 
   /**
@@ -418,6 +480,10 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    * @return a {@code BigFraction} instance representing {@code i}.
    */
   public static BigFraction valueOf(int i) {
+    BigFraction cached = SmallValueCache.lookup(i, 1);
+    if (cached != null) {
+      return cached;
+    }
     return new BigFraction(BigInteger.valueOf(i), BigInteger.ONE);
   }
 
@@ -428,6 +494,12 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    * @return a {@code BigFraction} instance representing {@code l}.
    */
   public static BigFraction valueOf(long l) {
+    if (l >= SmallValueCache.LOW && l <= SmallValueCache.HIGH) {
+      BigFraction cached = SmallValueCache.lookup(l, 1);
+      if (cached != null) {
+        return cached;
+      }
+    }
     return new BigFraction(BigInteger.valueOf(l), BigInteger.ONE);
   }
 
@@ -462,7 +534,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
       return valueOf(((BigDecimal) number).toPlainString());
     }
     if (number instanceof Integer || number instanceof Long) {
-      return new BigFraction(BigInteger.valueOf(number.longValue()), BigInteger.ONE);
+      return valueOf(number.longValue());
     }
     if (number instanceof BigFraction) {
       BigFraction other = (BigFraction) number;
@@ -517,6 +589,67 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
     }
   }
 
+  /**
+   * Create many {@code BigFraction}s from pairs of numerators and denominators at once, in parallel for long arrays.
+   * <p>
+   * The result is the same as calling {@link #BigFraction(BigInteger, BigInteger)} for every pair, but the pairs are split across the
+   * common {@link java.util.concurrent.ForkJoinPool}, and pairs which are obviously cancelled (a zero numerator, or a denominator of
+   * {@code 1} or {@code -1}) skip the gcd.
+   * 
+   * @param numerators The numerators
+   * @param denominators The denominators, in the same order as {@code numerators}
+   * @return a new array holding the cancelled fractions
+   * 
+   * @throws IllegalArgumentException if the arrays differ in length
+   * @throws ArithmeticException if a denominator is zero, or if the {@link SizePolicy} rejects a value
+   */
+  public static BigFraction[] ofAll(BigInteger[] numerators, BigInteger[] denominators) {
+    if (numerators.length != denominators.length) {
+      throw new IllegalArgumentException("numerators and denominators differ in length.");
+    }
+    BigFraction[] result = new BigFraction[numerators.length];
+    IntStream indexes = IntStream.range(0, result.length);
+    if (result.length >= BATCH_PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    indexes.forEach(i -> result[i] = ofPair(numerators[i], denominators[i]));
+    return result;
+  }
+
+  /**
+   * Create a sequential stream of the values from {@code start} (inclusive) to {@code endExclusive} (exclusive), by {@code step}.
+   * <p>
+   * The value at position {@code i} is calculated directly as {@code start + i * step} over a common denominator, so there is no
+   * dependency between the values. The stream is {@link java.util.Spliterator#SIZED} and {@link java.util.Spliterator#SUBSIZED}, and
+   * splits evenly if made parallel.
+   * 
+   * @param start The first value
+   * @param endExclusive The exclusive upper (or lower, for a negative {@code step}) bound
+   * @param step The difference between two neighbouring values
+   * @return a stream of the values of the range, empty if {@code endExclusive} cannot be reached from {@code start} by {@code step}
+   * @throws IllegalArgumentException if {@code step} is zero, or if the range has more than {@link Long#MAX_VALUE} values
+   */
+  public static Stream<BigFraction> range(BigFraction start, BigFraction endExclusive, BigFraction step) {
+    long count = BigFractionRangeSpliterator.count(start, endExclusive, step, false);
+    return StreamSupport.stream(BigFractionRangeSpliterator.of(start, step, count), false);
+  }
+
+  /**
+   * Create a sequential stream of the values from {@code start} (inclusive) to {@code endInclusive} (inclusive, if reached exactly), by
+   * {@code step}.
+   * 
+   * @param start The first value
+   * @param endInclusive The inclusive upper (or lower, for a negative {@code step}) bound
+   * @param step The difference between two neighbouring values
+   * @return a stream of the values of the range, empty if {@code endInclusive} cannot be reached from {@code start} by {@code step}
+   * @throws IllegalArgumentException if {@code step} is zero, or if the range has more than {@link Long#MAX_VALUE} values
+   * @see #range(BigFraction, BigFraction, BigFraction)
+   */
+  public static Stream<BigFraction> rangeClosed(BigFraction start, BigFraction endInclusive, BigFraction step) {
+    long count = BigFractionRangeSpliterator.count(start, endInclusive, step, true);
+    return StreamSupport.stream(BigFractionRangeSpliterator.of(start, step, count), false);
+  }
+
   /**
    * Convert this {@code BigFraction } into a {@link BigDecimal} value, using the {@link BigFraction#DEFAULT_MATH_CONTEXT}.<br>
    * The default {@link MathContext} uses precision {@code 500} and {@link RoundingMode#HALF_UP}
@@ -560,11 +693,14 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
     if (cancelUpperLeftLowerRight && cancelLowerLeftUpperRight) {
       return ONE;
     } else if (cancelUpperLeftLowerRight) {
-      return new BigFraction(value.numerator, denominator);
+      return of(value.numerator, denominator);
     } else if (cancelLowerLeftUpperRight) {
-      return new BigFraction(numerator, value.denominator);
+      return of(numerator, value.denominator);
     } else {
-      return new BigFraction(numerator.multiply(value.numerator), denominator.multiply(value.denominator));
+      long predictedBitLength = Math.max(numerator.bitLength() + (long) value.numerator.bitLength(),
+          denominator.bitLength() + (long) value.denominator.bitLength());
+      SizePolicy.current().checkPrediction(predictedBitLength, "multiply");
+      return of(numerator.multiply(value.numerator), denominator.multiply(value.denominator));
     }
   }
 
@@ -586,7 +722,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    */
   public BigFraction add(BigFraction value) {
     if (denominator.equals(value.denominator)) {
-      return new BigFraction(numerator.add(value.numerator), denominator);
+      return of(numerator.add(value.numerator), denominator);
     }
     return addOrSubtract(value, true);
   }
@@ -599,7 +735,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    */
   public BigFraction subtract(BigFraction value) {
     if (denominator.equals(value.denominator)) {
-      return new BigFraction(numerator.subtract(value.numerator), denominator);
+      return of(numerator.subtract(value.numerator), denominator);
     }
     return addOrSubtract(value, false);
   }
@@ -610,7 +746,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    * @return a new {@code BigFraction} representing the product of this {@code BigFraction} and {@code -1}.
    */
   public BigFraction negate() {
-    return new BigFraction(numerator.negate(), denominator);
+    return of(numerator.negate(), denominator);
   }
 
   /**
@@ -619,7 +755,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    * @return a new {@code BigFraction} representing the absolute value of this {@code BigFraction}.
    */
   public BigFraction abs() {
-    return new BigFraction(numerator.abs(), denominator);
+    return of(numerator.abs(), denominator);
   }
 
   /**
@@ -638,7 +774,99 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
     if (exponent < 0) {
       return reciprocal().pow(-exponent);
     }
-    return new BigFraction(numerator.pow(exponent), denominator.pow(exponent));
+    SizePolicy policy = SizePolicy.current();
+    long predictedBitLength = (long) Math.max(numerator.bitLength(), denominator.bitLength()) * exponent;
+    policy.checkPrediction(predictedBitLength, "pow");
+    if (policy.approximates(predictedBitLength)) {
+      return approximatedPow(exponent, policy);
+    }
+    return of(numerator.pow(exponent), denominator.pow(exponent));
+  }
+
+  /**
+   * Calculate the power of this {@code BigFraction} by squaring and multiplying, approximating every intermediate result according to the
+   * given {@link SizePolicy}.
+   * 
+   * @param exponent The positive exponent
+   * @param policy The {@link SizePolicy} used for the approximation
+   * @return a new {@code BigFraction} approximating {@code this}<sup>{@code exponent}</sup>.
+   */
+  private BigFraction approximatedPow(int exponent, SizePolicy policy) {
+    BigInteger[] result = { BigInteger.ONE, BigInteger.ONE };
+    BigInteger[] square = { numerator, denominator };
+    while (true) {
+      if ((exponent & 1) != 0) {
+        result = policy.approximate(result[0].multiply(square[0]), result[1].multiply(square[1]));
+      }
+      exponent >>>= 1;
+      if (exponent == 0) {
+        return new BigFraction(result[0], result[1]);
+      }
+      square = policy.approximate(square[0].multiply(square[0]), square[1].multiply(square[1]));
+    }
+  }
+
+  /**
+   * Create a new {@code BigFraction} from an already cancelled numerator and denominator, without calculating the gcd again.
+   * 
+   * @param numerator The numerator, coprime to {@code denominator}
+   * @param denominator The denominator, has to be positive
+   * @return a new {@code BigFraction} with the value {@code numerator/denominator}
+   */
+  static BigFraction ofCancelled(BigInteger numerator, BigInteger denominator) {
+    return new BigFraction(numerator, denominator, true);
+  }
+
+  /**
+   * Create a {@code BigFraction} from a numerator and a denominator, skipping the gcd where the pair is obviously cancelled.
+   * 
+   * @param numerator The numerator
+   * @param denominator The denominator
+   * @return a new {@code BigFraction} with the value {@code numerator/denominator}
+   */
+  private static BigFraction ofPair(BigInteger numerator, BigInteger denominator) {
+    if (denominator.signum() != 0) {
+      if (numerator.signum() == 0) {
+        return ofCancelled(BigInteger.ZERO, BigInteger.ONE);
+      }
+      if (denominator.equals(BigInteger.ONE)) {
+        return ofCancelled(numerator, denominator);
+      }
+      if (denominator.bitLength() == 0 && denominator.signum() < 0) {
+        // the denominator is -1
+        return ofCancelled(numerator.negate(), BigInteger.ONE);
+      }
+    }
+    return new BigFraction(numerator, denominator);
+  }
+
+  /**
+   * Create a new {@code BigFraction} from an already cancelled numerator and denominator, without checking the {@link SizePolicy}.
+   * <p>
+   * Only intended for the {@link SmallValueCache}, which checks the policy on every lookup instead.
+   * 
+   * @param numerator The numerator, coprime to {@code denominator}
+   * @param denominator The denominator, has to be positive
+   * @return a new {@code BigFraction} with the value {@code numerator/denominator}
+   */
+  static BigFraction unchecked(BigInteger numerator, BigInteger denominator) {
+    return new BigFraction(numerator, denominator, true, false);
+  }
+
+  /**
+   * Return the cached instance for a fraction if there is one, or create a new {@code BigFraction} otherwise.
+   * 
+   * @param numerator The numerator
+   * @param denominator The denominator
+   * @return a {@code BigFraction} with the value {@code numerator/denominator}
+   * @throws ArithmeticException if the denominator is zero, or if the {@link SizePolicy} rejects the value
+   */
+  private static BigFraction of(BigInteger numerator, BigInteger denominator) {
+    if (numerator.bitLength() < Integer.SIZE && denominator.bitLength() < Integer.SIZE) {
+      // the pair is cancelled only once, by the long gcd of the lookup
+      return SmallValueCache.valueOf(numerator.longValue(), denominator.longValue());
+    }
+    return new BigFraction(numerator, denominator);
   }
 
   /**
@@ -672,7 +900,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
     String[] values = decimalString.split("\\.");
     String integerPart = values[0];
     if (values.length == 1) {
-      return new BigFraction(new BigInteger(integerPart), BigInteger.ONE);
+      return of(new BigInteger(integerPart), BigInteger.ONE);
     } else {
       String decimalPart = values[1];
       StringBuilder numerator = new StringBuilder(integerPart);
@@ -683,7 +911,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
       for (int i = 0; i < decimals; i++) {
         denominator.append(STRING_ZERO);
       }
-      return new BigFraction(numerator.toString(), denominator.toString());
+      return of(new BigInteger(numerator.toString()), new BigInteger(denominator.toString()));
     }
   }
 
@@ -693,7 +921,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
    */
   private static BigFraction valueOfFractionString(String fractionString) {
     String[] values = fractionString.split("/");
-    return new BigFraction(values[0], values[1]);
+    return of(new BigInteger(values[0]), new BigInteger(values[1]));
   }
 
   /**
@@ -724,7 +952,7 @@ public final class BigFraction extends Number implements Comparable<BigFraction>
     } else {
       resultNumerator = expansion.multiply(numerator).subtract(valueExpansion.multiply(value.numerator));
     }
-    return new BigFraction(resultNumerator, expansion.multiply(denominator));
+    return of(resultNumerator, expansion.multiply(denominator));
   }
 
 }
\ No newline at end of file
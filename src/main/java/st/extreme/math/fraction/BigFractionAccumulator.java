@@ -0,0 +1,234 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+
+/**
+ * Mutable accumulator for sums of {@link BigFraction} values.
+ * <p>
+ * Summing up values by {@code sum = sum.add(value)} creates a new {@link BigFraction} and calculates a gcd on every step. A
+ * {@code BigFractionAccumulator} instead keeps a running numerator over a common denominator:
+ * <ul>
+ * <li>a value with the same denominator (or a divisor of it) is merged by plain integer addition,
+ * <li>any other value extends the common denominator,
+ * <li>the running fraction is cancelled only every {@link #getReductionInterval()} extensions of the common denominator, and on
+ * {@link #toBigFraction()}.
+ * </ul>
+ * <p>
+ * <strong>This class is not thread safe.</strong> For concurrent updates, use one accumulator per thread and merge them with
+ * {@link #add(BigFractionAccumulator)}.
+ */
+public final class BigFractionAccumulator {
+
+  /**
+   * The default number of denominator extensions after which the running fraction is cancelled
+   */
+  static final int DEFAULT_REDUCTION_INTERVAL = 64;
+
+  /**
+   * The number of denominator extensions after which the running fraction is cancelled
+   */
+  private final int reductionInterval;
+
+  /**
+   * The running numerator
+   */
+  private BigInteger numerator;
+
+  /**
+   * The running common denominator, always positive
+   */
+  private BigInteger denominator;
+
+  /**
+   * The number of denominator extensions since the last cancellation
+   */
+  private int extensions;
+
+  /**
+   * Create a new {@code BigFractionAccumulator} with the value {@code 0}, using the default reduction interval.
+   */
+  public BigFractionAccumulator() {
+    this(DEFAULT_REDUCTION_INTERVAL);
+  }
+
+  /**
+   * Create a new {@code BigFractionAccumulator} with the value {@code 0}.
+   *
+   * @param reductionInterval The number of denominator extensions after which the running fraction is cancelled. Has to be positive.
+   */
+  public BigFractionAccumulator(int reductionInterval) {
+    if (reductionInterval < 1) {
+      throw new IllegalArgumentException("the reduction interval has to be positive.");
+    }
+    this.reductionInterval = reductionInterval;
+    reset();
+  }
+
+  /**
+   * Add a {@link BigFraction} value.
+   *
+   * @param value The value to be added
+   */
+  public void add(BigFraction value) {
+    accumulate(value.getNumerator(), value.getDenominator());
+  }
+
+  /**
+   * Add a {@code long} value.
+   * <p>
+   * Integers never extend the common denominator.
+   *
+   * @param value The value to be added
+   */
+  public void add(long value) {
+    if (value != 0) {
+      numerator = numerator.add(BigInteger.valueOf(value).multiply(denominator));
+    }
+  }
+
+  /**
+   * Add the current value of another {@code BigFractionAccumulator}.
+   * <p>
+   * {@code other} remains unchanged.
+   *
+   * @param other The accumulator whose value is to be added
+   */
+  public void add(BigFractionAccumulator other) {
+    accumulate(other.numerator, other.denominator);
+  }
+
+  /**
+   * Subtract a {@link BigFraction} value.
+   *
+   * @param value The value to be subtracted
+   */
+  public void subtract(BigFraction value) {
+    accumulate(value.getNumerator().negate(), value.getDenominator());
+  }
+
+  /**
+   * Add the product of two {@link BigFraction} values, without creating the product as an intermediate {@code BigFraction}.
+   *
+   * @param factor1 The first factor
+   * @param factor2 The second factor
+   */
+  public void addProduct(BigFraction factor1, BigFraction factor2) {
+    accumulate(factor1.getNumerator().multiply(factor2.getNumerator()), factor1.getDenominator().multiply(factor2.getDenominator()));
+  }
+
+  /**
+   * Reset this accumulator to the value {@code 0}.
+   */
+  public void reset() {
+    numerator = BigInteger.ZERO;
+    denominator = BigInteger.ONE;
+    extensions = 0;
+  }
+
+  /**
+   * Return the {@code signum} function of the current value.
+   *
+   * @return {@code -1}, {@code 0} or {@code 1} as the current value is negative, zero, or positive.
+   */
+  public int signum() {
+    return numerator.signum();
+  }
+
+  /**
+   * Return the number of denominator extensions after which the running fraction is cancelled.
+   *
+   * @return the reduction interval
+   */
+  public int getReductionInterval() {
+    return reductionInterval;
+  }
+
+  /**
+   * Cancel the running fraction, and return its value.
+   *
+   * @return a {@link BigFraction} representing the current value of this accumulator.
+   */
+  public BigFraction toBigFraction() {
+    reduce();
+    return BigFraction.ofCancelled(numerator, denominator);
+  }
+
+  /**
+   * Return a fractional representation of the current value, such as {@code -2/3}.
+   *
+   * @see BigFraction#toString()
+   */
+  @Override
+  public String toString() {
+    return toBigFraction().toString();
+  }
+
+  /**
+   * Return the running numerator, which is not necessarily cancelled.
+   *
+   * @return the numerator
+   */
+  BigInteger getNumerator() {
+    return numerator;
+  }
+
+  /**
+   * Return the running common denominator, which is not necessarily cancelled.
+   *
+   * @return the denominator
+   */
+  BigInteger getDenominator() {
+    return denominator;
+  }
+
+  /**
+   * Add the fraction {@code addendNumerator/addendDenominator} to the running fraction.
+   *
+   * @param addendNumerator The numerator of the value to be added
+   * @param addendDenominator The denominator of the value to be added, has to be positive
+   */
+  void accumulate(BigInteger addendNumerator, BigInteger addendDenominator) {
+    if (addendNumerator.signum() == 0) {
+      return;
+    }
+    if (addendDenominator.equals(denominator)) {
+      numerator = numerator.add(addendNumerator);
+      return;
+    }
+    if (numerator.signum() == 0) {
+      // adopt the denominator of the addend
+      numerator = addendNumerator;
+      denominator = addendDenominator;
+      return;
+    }
+    BigInteger gcd = denominator.gcd(addendDenominator);
+    if (gcd.equals(addendDenominator)) {
+      // the addend denominator divides the common denominator
+      numerator = numerator.add(addendNumerator.multiply(denominator.divide(gcd)));
+      return;
+    }
+    BigInteger expansion = addendDenominator.divide(gcd);
+    numerator = numerator.multiply(expansion).add(addendNumerator.multiply(denominator.divide(gcd)));
+    denominator = denominator.multiply(expansion);
+    if (++extensions >= reductionInterval) {
+      reduce();
+    }
+  }
+
+  /**
+   * Cancel the running fraction.
+   */
+  private void reduce() {
+    if (numerator.signum() == 0) {
+      denominator = BigInteger.ONE;
+    } else {
+      BigInteger gcd = numerator.gcd(denominator);
+      if (gcd.compareTo(BigInteger.ONE) > 0) {
+        numerator = numerator.divide(gcd);
+        denominator = denominator.divide(gcd);
+      }
+    }
+    extensions = 0;
+  }
+
+}
@@ -0,0 +1,212 @@
+package st.extreme.math.fraction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread safe, striped running total of {@link BigFraction} values, in the spirit of {@link java.util.concurrent.atomic.LongAdder}.
+ * <p>
+ * Holding an immutable {@link BigFraction} in an {@link java.util.concurrent.atomic.AtomicReference} forces concurrent writers into
+ * compare-and-set loops which retry the expensive {@link BigFraction#add(BigFraction)} under contention. A {@code BigFractionAdder}
+ * instead spreads the updates over a number of cells, each holding a partial sum in a {@link BigFractionAccumulator}. Every thread has a
+ * probe selecting its preferred cell; if that cell is busy, the probe moves on to another cell. The partial sums are only merged on
+ * {@link #sum()}.
+ * <p>
+ * {@link #sum()} is not an atomic snapshot: updates happening concurrently to the calculation of the sum might or might not be
+ * incorporated.
+ */
+public final class BigFractionAdder {
+
+  /**
+   * The increment of the probe seeds, spreading the initial cells of new threads
+   */
+  private static final int PROBE_INCREMENT = 0x9e3779b9;
+
+  /**
+   * The generator for the probe seeds of new threads
+   */
+  private static final AtomicInteger PROBE_GENERATOR = new AtomicInteger();
+
+  /**
+   * The probe of the current thread, selecting its preferred cell
+   */
+  private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[] { PROBE_GENERATOR.addAndGet(PROBE_INCREMENT) });
+
+  /**
+   * The cells, the length is always a power of two
+   */
+  private final Cell[] cells;
+
+  /**
+   * Create a new {@code BigFractionAdder} with the initial value {@code 0}, striped by the number of available processors.
+   */
+  public BigFractionAdder() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Create a new {@code BigFractionAdder} with the initial value {@code 0}.
+   *
+   * @param stripes the expected number of concurrently writing threads, rounded up to the next power of two
+   */
+  public BigFractionAdder(int stripes) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("the number of stripes has to be positive.");
+    }
+    int length = Integer.highestOneBit(Math.min(stripes, 1 << 16));
+    if (length < stripes) {
+      length <<= 1;
+    }
+    cells = new Cell[length];
+    for (int i = 0; i < length; i++) {
+      cells[i] = new Cell();
+    }
+  }
+
+  /**
+   * Add a {@link BigFraction} value.
+   *
+   * @param value the value to be added
+   */
+  public void add(BigFraction value) {
+    Cell cell = acquire();
+    try {
+      cell.accumulator.add(value);
+    } finally {
+      cell.lock.unlock();
+    }
+  }
+
+  /**
+   * Add a {@code long} value.
+   *
+   * @param value the value to be added
+   */
+  public void add(long value) {
+    Cell cell = acquire();
+    try {
+      cell.accumulator.add(value);
+    } finally {
+      cell.lock.unlock();
+    }
+  }
+
+  /**
+   * Return the current sum, by merging the partial sums of all cells.
+   *
+   * @return the sum
+   */
+  public BigFraction sum() {
+    BigFractionAccumulator sum = new BigFractionAccumulator();
+    for (Cell cell : cells) {
+      cell.lock.lock();
+      try {
+        sum.add(cell.accumulator);
+      } finally {
+        cell.lock.unlock();
+      }
+    }
+    return sum.toBigFraction();
+  }
+
+  /**
+   * Reset the sum to {@code 0}.
+   */
+  public void reset() {
+    for (Cell cell : cells) {
+      cell.lock.lock();
+      try {
+        cell.accumulator.reset();
+      } finally {
+        cell.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Return the current sum, and reset the sum to {@code 0}.
+   * <p>
+   * Every update is incorporated either in the returned sum, or in the sum after the reset.
+   *
+   * @return the sum before the reset
+   */
+  public BigFraction sumThenReset() {
+    BigFractionAccumulator sum = new BigFractionAccumulator();
+    for (Cell cell : cells) {
+      cell.lock.lock();
+      try {
+        sum.add(cell.accumulator);
+        cell.accumulator.reset();
+      } finally {
+        cell.lock.unlock();
+      }
+    }
+    return sum.toBigFraction();
+  }
+
+  /**
+   * Return a fractional representation of the current {@link #sum()}.
+   *
+   * @see BigFraction#toString()
+   */
+  @Override
+  public String toString() {
+    return sum().toString();
+  }
+
+  /**
+   * Lock a cell for the current thread.
+   * <p>
+   * Starting with the cell selected by the probe of the current thread, every cell is tried once without blocking. The probe is advanced
+   * on every failed attempt, so contending threads spread over the cells. If all cells are busy, the thread blocks on the last one tried.
+   *
+   * @return a locked cell, to be unlocked by the caller
+   */
+  private Cell acquire() {
+    int[] probe = PROBE.get();
+    int hash = probe[0];
+    int mask = cells.length - 1;
+    for (int attempt = 0; attempt < cells.length; attempt++) {
+      Cell cell = cells[hash & mask];
+      if (cell.lock.tryLock()) {
+        probe[0] = hash;
+        return cell;
+      }
+      hash = advanceProbe(hash);
+    }
+    probe[0] = hash;
+    Cell cell = cells[hash & mask];
+    cell.lock.lock();
+    return cell;
+  }
+
+  /**
+   * Advance a probe by a xorshift step.
+   *
+   * @param probe the current probe
+   * @return the next probe
+   */
+  private static int advanceProbe(int probe) {
+    probe ^= probe << 13;
+    probe ^= probe >>> 17;
+    probe ^= probe << 5;
+    return probe;
+  }
+
+  /**
+   * A cell holding a partial sum.
+   */
+  private static final class Cell {
+
+    /**
+     * The lock guarding the partial sum
+     */
+    final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The partial sum
+     */
+    final BigFractionAccumulator accumulator = new BigFractionAccumulator();
+  }
+
+}
@@ -0,0 +1,481 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk operations on arrays of {@link BigFraction} values.
+ * <p>
+ * Comparisons of {@link BigFraction} values are exact cross multiplications. The operations of this class therefore first calculate a
+ * {@code double} approximation of every value once, and decide most comparisons on these approximations. Only values whose
+ * approximations are too close to be ordered reliably are compared exactly. The results are always the same as with
+ * {@link BigFraction#compareTo(BigFraction)}.
+ * <p>
+ * {@code null} values are not supported.
+ */
+public final class BigFractionArrays {
+
+  /**
+   * The array length from which on the approximations are calculated in parallel
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  /**
+   * The range length up to which selection falls back to insertion sort
+   */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  /**
+   * No instances
+   */
+  private BigFractionArrays() {
+  }
+
+  /**
+   * Select the {@code k}-th smallest value (counting from {@code 0}) of an array.
+   * <p>
+   * Uses introselect, which takes {@code O(n)} comparisons on average, mostly of {@code double} approximations.
+   *
+   * @param values The values, the array is not modified
+   * @param k The rank of the value to be selected
+   * @return the value which would be at index {@code k} if the array was sorted
+   * @throws IndexOutOfBoundsException if {@code k} is not a valid index of {@code values}
+   */
+  public static BigFraction select(BigFraction[] values, int k) {
+    if (k < 0 || k >= values.length) {
+      throw new IndexOutOfBoundsException("k: " + k + ", length: " + values.length);
+    }
+    Keyed keyed = new Keyed(values);
+    keyed.select(0, values.length, k);
+    return keyed.values[k];
+  }
+
+  /**
+   * Calculate the exact median of an array. For an even number of values, this is the arithmetic mean of the two middle values.
+   *
+   * @param values The values, the array is not modified
+   * @return the median
+   * @throws IllegalArgumentException if the array is empty
+   */
+  public static BigFraction median(BigFraction[] values) {
+    checkNotEmpty(values);
+    Keyed keyed = new Keyed(values);
+    int upper = values.length / 2;
+    keyed.select(0, values.length, upper);
+    if (values.length % 2 == 1) {
+      return keyed.values[upper];
+    }
+    // after the selection, the lower middle value is the maximum of the lower half
+    BigFraction lower = keyed.values[0];
+    double lowerKey = keyed.keys[0];
+    for (int i = 1; i < upper; i++) {
+      if (ApproximateKeys.compare(keyed.values[i], keyed.keys[i], lower, lowerKey) > 0) {
+        lower = keyed.values[i];
+        lowerKey = keyed.keys[i];
+      }
+    }
+    return lower.add(keyed.values[upper]).divide(BigFraction.valueOf(2));
+  }
+
+  /**
+   * Calculate percentiles of an array, using the nearest rank method: the {@code p}-th percentile is the smallest value which is greater
+   * than or equal to {@code p} percent of all values.
+   *
+   * @param values The values, the array is not modified
+   * @param percentiles The percentiles to calculate, each in the range {@code [0, 100]}
+   * @return an array holding the value of each requested percentile, in the order of {@code percentiles}
+   * @throws IllegalArgumentException if the array is empty, or if a percentile is out of range
+   */
+  public static BigFraction[] percentiles(BigFraction[] values, double... percentiles) {
+    checkNotEmpty(values);
+    int[] ranks = new int[percentiles.length];
+    for (int i = 0; i < percentiles.length; i++) {
+      double percentile = percentiles[i];
+      if (!(percentile >= 0 && percentile <= 100)) {
+        throw new IllegalArgumentException("percentile " + percentile + " is not in the range [0, 100].");
+      }
+      // multiplying first keeps the rank exact for integral percentiles
+      ranks[i] = Math.max((int) Math.ceil(percentile * values.length / 100), 1) - 1;
+    }
+    int[] sortedRanks = ranks.clone();
+    Arrays.sort(sortedRanks);
+    Keyed keyed = new Keyed(values);
+    // every selection partitions the array, so the next (higher) rank only has to be searched to the right of the previous one
+    int from = 0;
+    for (int rank : sortedRanks) {
+      keyed.select(from, values.length, rank);
+      from = rank;
+    }
+    BigFraction[] result = new BigFraction[percentiles.length];
+    for (int i = 0; i < ranks.length; i++) {
+      result[i] = keyed.values[ranks[i]];
+    }
+    return result;
+  }
+
+  /**
+   * Sort an array into ascending numerical order, in parallel.
+   * <p>
+   * The approximation of every value is calculated once. The values are then sorted by {@link Arrays#parallelSort(Object[],
+   * java.util.Comparator)}, comparing nothing but the {@code double} approximations. Finally, only the runs of neighbours whose
+   * approximations are too close to be ordered reliably are sorted again, using exact comparisons where necessary. The result is the
+   * same as with {@link Arrays#sort(Object[])}.
+   *
+   * @param values The array to be sorted
+   */
+  public static void parallelSort(BigFraction[] values) {
+    parallelSort(values, 0, values.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an array into ascending numerical order, in parallel.
+   *
+   * @param values The array to be sorted
+   * @param fromIndex The inclusive start of the range
+   * @param toIndex The exclusive end of the range
+   * @see #parallelSort(BigFraction[])
+   */
+  public static void parallelSort(BigFraction[] values, int fromIndex, int toIndex) {
+    checkRange(values.length, fromIndex, toIndex);
+    int length = toIndex - fromIndex;
+    if (length < 2) {
+      return;
+    }
+    Entry[] entries = new Entry[length];
+    indexes(length).forEach(i -> entries[i] = new Entry(values[fromIndex + i]));
+    Arrays.parallelSort(entries, (entry1, entry2) -> Double.compare(entry1.key, entry2.key));
+    // a value can only be out of place within a run of neighbours with close approximations
+    List<int[]> runs = new ArrayList<>();
+    int runStart = 0;
+    for (int i = 1; i <= length; i++) {
+      if (i == length || !closeForSorting(entries[i - 1].key, entries[i].key)) {
+        if (i - runStart > 1) {
+          runs.add(new int[] { runStart, i });
+        }
+        runStart = i;
+      }
+    }
+    runs.parallelStream().forEach(run -> Arrays.sort(entries, run[0], run[1],
+        (entry1, entry2) -> ApproximateKeys.compare(entry1.value, entry1.key, entry2.value, entry2.key)));
+    indexes(length).forEach(i -> values[fromIndex + i] = entries[i].value);
+  }
+
+  /**
+   * Replace every value of an array by the sum of all values up to and including it (the inclusive prefix sums).
+   * <p>
+   * Long arrays are scanned in parallel blocks: the totals of all blocks are calculated in parallel first, then the sums of all preceding
+   * blocks are added up sequentially, and finally every block emits its prefix sums in parallel. The running sums are kept in
+   * {@link BigFractionAccumulator}s over a common denominator, so every result is cancelled exactly once.
+   *
+   * @param values The array to be replaced by its prefix sums
+   */
+  public static void parallelPrefix(BigFraction[] values) {
+    int length = values.length;
+    int blockCount = Math.min(length / PARALLEL_THRESHOLD, 4 * ForkJoinPool.getCommonPoolParallelism());
+    if (blockCount < 2) {
+      emitPrefixSums(values, 0, length, new BigFractionAccumulator());
+      return;
+    }
+    int blockLength = (length + blockCount - 1) / blockCount;
+    BigFractionAccumulator[] totals = new BigFractionAccumulator[blockCount];
+    IntStream.range(0, blockCount).parallel().forEach(block -> {
+      BigFractionAccumulator total = new BigFractionAccumulator();
+      for (int i = block * blockLength, to = Math.min(i + blockLength, length); i < to; i++) {
+        total.add(values[i]);
+      }
+      totals[block] = total;
+    });
+    // turn the block totals into the sums of all preceding blocks
+    BigFraction[] offsets = new BigFraction[blockCount];
+    BigFractionAccumulator running = new BigFractionAccumulator();
+    for (int block = 0; block < blockCount; block++) {
+      offsets[block] = running.toBigFraction();
+      running.add(totals[block]);
+    }
+    IntStream.range(0, blockCount).parallel().forEach(block -> {
+      BigFractionAccumulator sum = new BigFractionAccumulator();
+      sum.add(offsets[block]);
+      int from = block * blockLength;
+      emitPrefixSums(values, from, Math.min(from + blockLength, length), sum);
+    });
+  }
+
+  /**
+   * Replace every value of an array by the result of an associative operator applied to all values up to and including it, in parallel.
+   * <p>
+   * This is a shortcut for {@link Arrays#parallelPrefix(Object[], BinaryOperator)}, for operators such as the maximum or
+   * {@link BigFraction#multiply}. Use {@link #parallelPrefix(BigFraction[])} for sums.
+   *
+   * @param values The array to be replaced by its prefix results
+   * @param operator An associative, side effect free operator
+   */
+  public static void parallelPrefix(BigFraction[] values, BinaryOperator<BigFraction> operator) {
+    Arrays.parallelPrefix(values, operator);
+  }
+
+  /**
+   * Rescale all values of an array onto their least common denominator.
+   * <p>
+   * The distinct denominators are collected first, and their least common multiple is calculated by a parallel reduction, which combines
+   * them in a balanced tree. Each numerator is then scaled by a single multiplication, with one multiplier per distinct denominator.
+   * This is cheapest if the values share few distinct denominators.
+   *
+   * @param values The values, the array is not modified
+   * @return the common denominator and the scaled numerators
+   */
+  public static CommonDenominator commonDenominator(BigFraction[] values) {
+    Map<BigInteger, BigInteger> multipliers = new HashMap<>();
+    for (BigFraction value : values) {
+      multipliers.put(value.getDenominator(), null);
+    }
+    BigInteger denominator = multipliers.keySet().parallelStream()
+        .reduce(BigInteger.ONE, (denominator1, denominator2) -> denominator1.divide(denominator1.gcd(denominator2)).multiply(denominator2));
+    multipliers.replaceAll((key, multiplier) -> denominator.divide(key));
+    BigInteger[] numerators = new BigInteger[values.length];
+    indexes(values.length).forEach(i -> numerators[i] = values[i].getNumerator().multiply(multipliers.get(values[i].getDenominator())));
+    return new CommonDenominator(denominator, numerators);
+  }
+
+  /**
+   * Replace the values of a block of an array by their running sums.
+   *
+   * @param values The array
+   * @param from The inclusive start of the block
+   * @param to The exclusive end of the block
+   * @param sum The accumulator holding the sum of all values before the block
+   */
+  private static void emitPrefixSums(BigFraction[] values, int from, int to, BigFractionAccumulator sum) {
+    for (int i = from; i < to; i++) {
+      sum.add(values[i]);
+      values[i] = sum.toBigFraction();
+    }
+  }
+
+  /**
+   * Determine if two neighbouring keys after sorting by key might belong to values in the wrong order.
+   * <p>
+   * This uses twice the tolerance of {@link ApproximateKeys#ambiguous(double, double)}, so that every pair of neighbours between two
+   * ambiguous keys is detected as well.
+   *
+   * @param key1 The first key
+   * @param key2 The second key
+   * @return {@code true} if the neighbours have to be ordered again, {@code false} otherwise.
+   */
+  private static boolean closeForSorting(double key1, double key2) {
+    return Math.abs(key1 - key2) <= 2 * ApproximateKeys.TOLERANCE * Math.max(Math.abs(key1), Math.abs(key2));
+  }
+
+  /**
+   * @param length The number of indexes
+   * @return the indexes {@code [0, length)}, parallel for long arrays
+   */
+  private static IntStream indexes(int length) {
+    IntStream indexes = IntStream.range(0, length);
+    if (length >= PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    return indexes;
+  }
+
+  /**
+   * @param length The length of the array
+   * @param fromIndex The inclusive start of the range
+   * @param toIndex The exclusive end of the range
+   */
+  private static void checkRange(int length, int fromIndex, int toIndex) {
+    if (fromIndex > toIndex) {
+      throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+    }
+    if (fromIndex < 0) {
+      throw new ArrayIndexOutOfBoundsException(fromIndex);
+    }
+    if (toIndex > length) {
+      throw new ArrayIndexOutOfBoundsException(toIndex);
+    }
+  }
+
+  /**
+   * @param values The array to be checked
+   */
+  private static void checkNotEmpty(BigFraction[] values) {
+    if (values.length == 0) {
+      throw new IllegalArgumentException("the array is empty.");
+    }
+  }
+
+  /**
+   * A value together with its approximate key.
+   */
+  private static final class Entry {
+
+    /**
+     * The value
+     */
+    final BigFraction value;
+
+    /**
+     * The approximate key of the value
+     */
+    final double key;
+
+    /**
+     * @param value The value
+     */
+    Entry(BigFraction value) {
+      this.value = value;
+      this.key = ApproximateKeys.key(value);
+    }
+  }
+
+  /**
+   * A copy of an array of values, together with their approximate keys.
+   */
+  private static final class Keyed {
+
+    /**
+     * The values
+     */
+    final BigFraction[] values;
+
+    /**
+     * The approximate key of each value
+     */
+    final double[] keys;
+
+    /**
+     * @param values The values to be copied
+     */
+    Keyed(BigFraction[] values) {
+      this.values = values.clone();
+      this.keys = new double[values.length];
+      indexes(values.length).forEach(i -> keys[i] = ApproximateKeys.key(this.values[i]));
+    }
+
+    /**
+     * Partially order the range {@code [from, to)} so that index {@code k} holds the value it would hold if the range was sorted, all
+     * values before are less than or equal, and all values after are greater than or equal.
+     *
+     * @param from The inclusive start of the range
+     * @param to The exclusive end of the range
+     * @param k The index to be selected
+     */
+    void select(int from, int to, int k) {
+      int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+      while (to - from > INSERTION_SORT_THRESHOLD) {
+        if (depthLimit-- == 0) {
+          sort(from, to);
+          return;
+        }
+        int pivot = medianOfThree(from, from + (to - from) / 2, to - 1);
+        BigFraction pivotValue = values[pivot];
+        double pivotKey = keys[pivot];
+        // three way partition: [from, less) < pivot, [less, i) == pivot, (greater, to) > pivot
+        int less = from;
+        int greater = to - 1;
+        int i = from;
+        while (i <= greater) {
+          int comparison = compare(i, pivotValue, pivotKey);
+          if (comparison < 0) {
+            swap(less++, i++);
+          } else if (comparison > 0) {
+            swap(i, greater--);
+          } else {
+            i++;
+          }
+        }
+        if (k < less) {
+          to = less;
+        } else if (k > greater) {
+          from = greater + 1;
+        } else {
+          return;
+        }
+      }
+      insertionSort(from, to);
+    }
+
+    /**
+     * Sort the range {@code [from, to)} completely.
+     *
+     * @param from The inclusive start of the range
+     * @param to The exclusive end of the range
+     */
+    void sort(int from, int to) {
+      Integer[] order = new Integer[to - from];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = from + i;
+      }
+      Arrays.sort(order, (index1, index2) -> ApproximateKeys.compare(values[index1], keys[index1], values[index2], keys[index2]));
+      BigFraction[] sortedValues = new BigFraction[order.length];
+      double[] sortedKeys = new double[order.length];
+      for (int i = 0; i < order.length; i++) {
+        sortedValues[i] = values[order[i]];
+        sortedKeys[i] = keys[order[i]];
+      }
+      System.arraycopy(sortedValues, 0, values, from, order.length);
+      System.arraycopy(sortedKeys, 0, keys, from, order.length);
+    }
+
+    /**
+     * @param from The inclusive start of the range
+     * @param to The exclusive end of the range
+     */
+    private void insertionSort(int from, int to) {
+      for (int i = from + 1; i < to; i++) {
+        for (int j = i; j > from && compare(j - 1, values[j], keys[j]) > 0; j--) {
+          swap(j - 1, j);
+        }
+      }
+    }
+
+    /**
+     * @param a The first index
+     * @param b The second index
+     * @param c The third index
+     * @return the index holding the median of the three values
+     */
+    private int medianOfThree(int a, int b, int c) {
+      if (compare(a, values[b], keys[b]) < 0) {
+        if (compare(b, values[c], keys[c]) < 0) {
+          return b;
+        }
+        return compare(a, values[c], keys[c]) < 0 ? c : a;
+      }
+      if (compare(a, values[c], keys[c]) < 0) {
+        return a;
+      }
+      return compare(b, values[c], keys[c]) < 0 ? c : b;
+    }
+
+    /**
+     * @param index The index of the first value
+     * @param value The second value
+     * @param key The key of the second value
+     * @return the result of the comparison of the first and the second value
+     */
+    private int compare(int index, BigFraction value, double key) {
+      return ApproximateKeys.compare(values[index], keys[index], value, key);
+    }
+
+    /**
+     * @param i The first index
+     * @param j The second index
+     */
+    private void swap(int i, int j) {
+      BigFraction value = values[i];
+      values[i] = values[j];
+      values[j] = value;
+      double key = keys[i];
+      keys[i] = keys[j];
+      keys[j] = key;
+    }
+  }
+
+}
@@ -0,0 +1,254 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.stream.Collector;
+import java.util.stream.Collector.Characteristics;
+
+/**
+ * {@link Collector} implementations for exact aggregations of {@link BigFraction} values.
+ * <p>
+ * All collectors use mutable containers, so no intermediate {@link BigFraction} is created per element. The partial results of a parallel
+ * stream are merged pairwise by the combiner:
+ *
+ * <pre>
+ * BigFraction total = amounts.parallelStream().collect(BigFractionCollectors.summing());
+ * BigFraction totalPrice = orders.parallelStream().collect(BigFractionCollectors.summing(Order::getPrice));
+ * </pre>
+ */
+public final class BigFractionCollectors {
+
+  /**
+   * No instances
+   */
+  private BigFractionCollectors() {
+  }
+
+  /**
+   * Return a {@link Collector} producing the exact sum of {@link BigFraction} values.
+   *
+   * @return a {@code Collector} producing the sum, {@link BigFraction#ZERO} if there are no elements.
+   */
+  public static Collector<BigFraction, ?, BigFraction> summing() {
+    return summing(value -> value);
+  }
+
+  /**
+   * Return a {@link Collector} producing the exact sum of a {@link BigFraction} valued function applied to the input elements.
+   *
+   * @param <T> the type of the input elements
+   * @param mapper a function extracting the value to be summed
+   * @return a {@code Collector} producing the sum, {@link BigFraction#ZERO} if there are no elements.
+   */
+  public static <T> Collector<T, ?, BigFraction> summing(ToBigFractionFunction<? super T> mapper) {
+    return Collector.of(BigFractionAccumulator::new, (accumulator, element) -> accumulator.add(mapper.applyAsBigFraction(element)),
+        (accumulator1, accumulator2) -> {
+          accumulator1.add(accumulator2);
+          return accumulator1;
+        }, BigFractionAccumulator::toBigFraction, Characteristics.UNORDERED);
+  }
+
+  /**
+   * Return a {@link Collector} producing the exact arithmetic mean of {@link BigFraction} values.
+   *
+   * @return a {@code Collector} producing the arithmetic mean, {@link BigFraction#ZERO} if there are no elements.
+   */
+  public static Collector<BigFraction, ?, BigFraction> averaging() {
+    return averaging(value -> value);
+  }
+
+  /**
+   * Return a {@link Collector} producing the exact arithmetic mean of a {@link BigFraction} valued function applied to the input
+   * elements.
+   *
+   * @param <T> the type of the input elements
+   * @param mapper a function extracting the value to be averaged
+   * @return a {@code Collector} producing the arithmetic mean, {@link BigFraction#ZERO} if there are no elements.
+   */
+  public static <T> Collector<T, ?, BigFraction> averaging(ToBigFractionFunction<? super T> mapper) {
+    return Collector.of(Average::new, (average, element) -> average.add(mapper.applyAsBigFraction(element)), Average::combine,
+        Average::toBigFraction, Characteristics.UNORDERED);
+  }
+
+  /**
+   * Return a {@link Collector} producing the exact product of {@link BigFraction} values.
+   * <p>
+   * Numerators and denominators are multiplied separately, and cancelled only once at the end.
+   *
+   * @return a {@code Collector} producing the product, {@link BigFraction#ONE} if there are no elements.
+   */
+  public static Collector<BigFraction, ?, BigFraction> multiplying() {
+    return multiplying(value -> value);
+  }
+
+  /**
+   * Return a {@link Collector} producing the exact product of a {@link BigFraction} valued function applied to the input elements.
+   * <p>
+   * Numerators and denominators are multiplied separately, and cancelled only once at the end.
+   *
+   * @param <T> the type of the input elements
+   * @param mapper a function extracting the value to be multiplied
+   * @return a {@code Collector} producing the product, {@link BigFraction#ONE} if there are no elements.
+   */
+  public static <T> Collector<T, ?, BigFraction> multiplying(ToBigFractionFunction<? super T> mapper) {
+    return Collector.of(Product::new, (product, element) -> product.multiply(mapper.applyAsBigFraction(element)), Product::combine,
+        Product::toBigFraction, Characteristics.UNORDERED);
+  }
+
+  /**
+   * Return a {@link Collector} producing count, sum, minimum, maximum and average of {@link BigFraction} values.
+   *
+   * @return a {@code Collector} producing {@link BigFractionSummaryStatistics}
+   */
+  public static Collector<BigFraction, ?, BigFractionSummaryStatistics> summarizing() {
+    return summarizing(value -> value);
+  }
+
+  /**
+   * Return a {@link Collector} producing count, sum, minimum, maximum and average of a {@link BigFraction} valued function applied to
+   * the input elements.
+   *
+   * @param <T> the type of the input elements
+   * @param mapper a function extracting the value to be summarized
+   * @return a {@code Collector} producing {@link BigFractionSummaryStatistics}
+   */
+  public static <T> Collector<T, ?, BigFractionSummaryStatistics> summarizing(ToBigFractionFunction<? super T> mapper) {
+    return Collector.of(BigFractionSummaryStatistics::new, (statistics, element) -> statistics.accept(mapper.applyAsBigFraction(element)),
+        (statistics1, statistics2) -> {
+          statistics1.combine(statistics2);
+          return statistics1;
+        }, Characteristics.IDENTITY_FINISH, Characteristics.UNORDERED);
+  }
+
+  /**
+   * Return a {@link Collector} producing exact descriptive statistics of {@link BigFraction} values.
+   *
+   * @return a {@code Collector} producing {@link BigFractionStatistics}
+   */
+  public static Collector<BigFraction, ?, BigFractionStatistics> statistics() {
+    return Collector.of(BigFractionStatistics::new, BigFractionStatistics::accept, (statistics1, statistics2) -> {
+      statistics1.combine(statistics2);
+      return statistics1;
+    }, Characteristics.IDENTITY_FINISH, Characteristics.UNORDERED);
+  }
+
+  /**
+   * Return a {@link Collector} producing exact descriptive statistics, including covariance and regression, of pairs of
+   * {@link BigFraction} valued functions applied to the input elements.
+   *
+   * @param <T> the type of the input elements
+   * @param mapperX a function extracting the observation of the independent variable {@code x}
+   * @param mapperY a function extracting the observation of the dependent variable {@code y}
+   * @return a {@code Collector} producing {@link BigFractionStatistics}
+   */
+  public static <T> Collector<T, ?, BigFractionStatistics> statistics(ToBigFractionFunction<? super T> mapperX,
+      ToBigFractionFunction<? super T> mapperY) {
+    return Collector.of(BigFractionStatistics::new,
+        (statistics, element) -> statistics.accept(mapperX.applyAsBigFraction(element), mapperY.applyAsBigFraction(element)),
+        (statistics1, statistics2) -> {
+          statistics1.combine(statistics2);
+          return statistics1;
+        }, Characteristics.IDENTITY_FINISH, Characteristics.UNORDERED);
+  }
+
+  /**
+   * Mutable container for the arithmetic mean.
+   */
+  private static final class Average {
+
+    /**
+     * The sum of the values
+     */
+    private final BigFractionAccumulator sum = new BigFractionAccumulator();
+
+    /**
+     * The number of values
+     */
+    private long count;
+
+    /**
+     * @param value The value to be added
+     */
+    void add(BigFraction value) {
+      sum.add(value);
+      count++;
+    }
+
+    /**
+     * @param other The partial result to be merged into this one
+     * @return this container
+     */
+    Average combine(Average other) {
+      sum.add(other.sum);
+      count += other.count;
+      return this;
+    }
+
+    /**
+     * @return the arithmetic mean
+     */
+    BigFraction toBigFraction() {
+      if (count == 0) {
+        return BigFraction.ZERO;
+      }
+      return new BigFraction(sum.getNumerator(), sum.getDenominator().multiply(BigInteger.valueOf(count)));
+    }
+  }
+
+  /**
+   * Mutable container for the product, keeping numerator and denominator uncancelled.
+   */
+  private static final class Product {
+
+    /**
+     * The product of all numerators
+     */
+    private BigInteger numerator = BigInteger.ONE;
+
+    /**
+     * The product of all denominators
+     */
+    private BigInteger denominator = BigInteger.ONE;
+
+    /**
+     * @param value The value to be multiplied
+     */
+    void multiply(BigFraction value) {
+      multiply(value.getNumerator(), value.getDenominator());
+    }
+
+    /**
+     * @param other The partial result to be merged into this one
+     * @return this container
+     */
+    Product combine(Product other) {
+      multiply(other.numerator, other.denominator);
+      return this;
+    }
+
+    /**
+     * @param factorNumerator The numerator of the factor
+     * @param factorDenominator The denominator of the factor
+     */
+    private void multiply(BigInteger factorNumerator, BigInteger factorDenominator) {
+      if (numerator.signum() == 0) {
+        // zero stays zero
+        return;
+      }
+      if (factorNumerator.signum() == 0) {
+        numerator = BigInteger.ZERO;
+        denominator = BigInteger.ONE;
+        return;
+      }
+      numerator = numerator.multiply(factorNumerator);
+      denominator = denominator.multiply(factorDenominator);
+    }
+
+    /**
+     * @return the cancelled product
+     */
+    BigFraction toBigFraction() {
+      return new BigFraction(numerator, denominator);
+    }
+  }
+
+}
@@ -0,0 +1,613 @@
+package st.extreme.math.fraction;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * A read-only column of {@link BigFraction} values in a file, which is memory mapped instead of being deserialized onto the heap.
+ * <p>
+ * A column is written once by a {@link Writer}, and opened any number of times afterwards:
+ *
+ * <pre>
+ * try (BigFractionColumn.Writer writer = BigFractionColumn.writer(file)) {
+ *   prices.forEach(writer::add);
+ * }
+ * BigFractionColumn column = BigFractionColumn.open(file);
+ * BigFraction total = column.sum();
+ * </pre>
+ *
+ * The file consists of
+ * <ul>
+ * <li>a header of {@value #HEADER_SIZE} bytes: a magic number, the format version, the number of values and the length of the overflow
+ * region,
+ * <li>a fixed width slot of {@value #SLOT_SIZE} bytes per value: the numerator and the denominator as {@code long}s, for all values whose
+ * numerator and denominator fit into a {@code long},
+ * <li>the overflow region holding the larger values, as the lengths and bytes of {@link BigInteger#toByteArray()} of numerator and
+ * denominator. The slot of such a value holds the position within the overflow region and the denominator {@code 0}.
+ * </ul>
+ * So the slot of any value is found by its index, and the values can be scanned sequentially or in parallel. The aggregates
+ * {@link #sum()}, {@link #min()}, {@link #max()} and {@link #toDoubleArray()} decode the slots on the fly, without creating
+ * {@code BigFraction}s for the inline values.
+ * <p>
+ * The file is mapped in segments of up to 1 GiB, so columns may be far larger than 2 GiB. After {@link #open(Path)}, the column no longer
+ * holds a file handle; the mapping is released when the column is garbage collected. A column is immutable, and safe for concurrent
+ * use.
+ */
+public final class BigFractionColumn {
+
+  /**
+   * The size of the file header in bytes
+   */
+  public static final int HEADER_SIZE = 32;
+
+  /**
+   * The size of a slot in bytes
+   */
+  public static final int SLOT_SIZE = 16;
+
+  /**
+   * The magic number at the start of the file, {@code "BFCL"}
+   */
+  private static final int MAGIC = 0x4246_434C;
+
+  /**
+   * The version of the file format
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * The default size of a mapped segment in bytes, a multiple of {@link #SLOT_SIZE}
+   */
+  private static final int SEGMENT_SIZE = 1 << 30;
+
+  /**
+   * The number of values from which on aggregates run in parallel
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+  /**
+   * The largest magnitude for which {@code long} cross products cannot overflow
+   */
+  private static final long SMALL = 1L << 31;
+
+  /**
+   * The mapped segments of the file
+   */
+  private final MappedByteBuffer[] segments;
+
+  /**
+   * The size of every segment but the last one
+   */
+  private final int segmentSize;
+
+  /**
+   * The number of values
+   */
+  private final long size;
+
+  /**
+   * The position of the overflow region in the file
+   */
+  private final long overflowPosition;
+
+  /**
+   * @param segments The mapped segments
+   * @param segmentSize The size of every segment but the last one
+   * @param size The number of values
+   */
+  private BigFractionColumn(MappedByteBuffer[] segments, int segmentSize, long size) {
+    this.segments = segments;
+    this.segmentSize = segmentSize;
+    this.size = size;
+    this.overflowPosition = HEADER_SIZE + SLOT_SIZE * size;
+  }
+
+  /**
+   * Create a writer for a new column file, replacing an existing file.
+   *
+   * @param file The file
+   * @return a new writer, which has to be closed to complete the file
+   * @throws IOException if the file cannot be created
+   */
+  public static Writer writer(Path file) throws IOException {
+    return new Writer(file);
+  }
+
+  /**
+   * Open a column file, by mapping it into memory.
+   *
+   * @param file The file, written by a {@link Writer}
+   * @return the column
+   * @throws IOException if the file cannot be read, or is not a complete column file
+   */
+  public static BigFractionColumn open(Path file) throws IOException {
+    return open(file, SEGMENT_SIZE);
+  }
+
+  /**
+   * @param file The file
+   * @param segmentSize The size of the mapped segments, a positive multiple of {@link #SLOT_SIZE}
+   * @return the column
+   * @throws IOException if the file cannot be read, or is not a complete column file
+   */
+  static BigFractionColumn open(Path file, int segmentSize) throws IOException {
+    if (segmentSize <= 0 || segmentSize % SLOT_SIZE != 0) {
+      throw new IllegalArgumentException("the segment size has to be a positive multiple of " + SLOT_SIZE + ".");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+        // read the complete header
+      }
+      header.flip();
+      if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+        throw new IOException("the file " + file + " is not a BigFraction column.");
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new IOException("the version " + version + " of the file " + file + " is not supported.");
+      }
+      long size = header.getLong();
+      long overflowLength = header.getLong();
+      if (size < 0 || overflowLength < 0 || fileSize != HEADER_SIZE + SLOT_SIZE * size + overflowLength) {
+        throw new IOException("the file " + file + " is incomplete.");
+      }
+      int segmentCount = (int) ((fileSize + segmentSize - 1) / segmentSize);
+      MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+        long position = (long) i * segmentSize;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, fileSize - position));
+      }
+      return new BigFractionColumn(segments, segmentSize, size);
+    }
+  }
+
+  /**
+   * Return the number of values.
+   *
+   * @return the number of values
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Decode the value at an index.
+   *
+   * @param index The index
+   * @return the value at that index
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public BigFraction get(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+    long slot = HEADER_SIZE + SLOT_SIZE * index;
+    long numerator = getLong(slot);
+    long denominator = getLong(slot + Long.BYTES);
+    if (denominator != 0) {
+      return BigFraction.ofCancelled(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+    BigInteger[] overflow = overflow(numerator);
+    return BigFraction.ofCancelled(overflow[0], overflow[1]);
+  }
+
+  /**
+   * Return a sequential stream of all values, decoded on demand.
+   *
+   * @return a stream of the values in the order of the column
+   */
+  public Stream<BigFraction> stream() {
+    return LongStream.range(0, size).mapToObj(this::get);
+  }
+
+  /**
+   * Return a parallel stream of all values, decoded on demand.
+   *
+   * @return a parallel stream of the values
+   */
+  public Stream<BigFraction> parallelStream() {
+    return stream().parallel();
+  }
+
+  /**
+   * Calculate the exact sum of all values, in parallel for long columns.
+   * <p>
+   * Runs of inline values with the same denominator are added up in {@code long} arithmetic.
+   *
+   * @return the sum, {@link BigFraction#ZERO} if the column is empty
+   */
+  public BigFraction sum() {
+    if (size < PARALLEL_THRESHOLD) {
+      return sum(0, size).toBigFraction();
+    }
+    int blockCount = (int) Math.min(size / PARALLEL_THRESHOLD, 4 * Runtime.getRuntime().availableProcessors());
+    BigFractionAccumulator total = new BigFractionAccumulator();
+    IntStream.range(0, blockCount).parallel()
+        .mapToObj(block -> sum(blockStart(block, blockCount), blockStart(block + 1, blockCount)))
+        .forEachOrdered(total::add);
+    return total.toBigFraction();
+  }
+
+  /**
+   * Find the minimum value, in parallel for long columns, and only decode that one into a {@link BigFraction}.
+   *
+   * @return the minimum, or an empty {@link Optional} if the column is empty
+   */
+  public Optional<BigFraction> min() {
+    return extreme(-1);
+  }
+
+  /**
+   * Find the maximum value, in parallel for long columns, and only decode that one into a {@link BigFraction}.
+   *
+   * @return the maximum, or an empty {@link Optional} if the column is empty
+   */
+  public Optional<BigFraction> max() {
+    return extreme(1);
+  }
+
+  /**
+   * Convert all values to {@code double}, in parallel for long columns.
+   *
+   * @return a new array holding the nearest {@code double} of every value
+   * @throws IllegalStateException if the column has too many values for an array
+   */
+  public double[] toDoubleArray() {
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("the column has too many values for an array: " + size + ".");
+    }
+    double[] result = new double[(int) size];
+    IntStream indexes = IntStream.range(0, result.length);
+    if (size >= PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    indexes.forEach(i -> result[i] = doubleValueAt(i));
+    return result;
+  }
+
+  /**
+   * @param block The index of a block
+   * @param blockCount The number of blocks
+   * @return the index of the first value of the block
+   */
+  private long blockStart(int block, int blockCount) {
+    return size / blockCount * block + Math.min(block, size % blockCount);
+  }
+
+  /**
+   * @param from The first index, inclusive
+   * @param to The last index, exclusive
+   * @return an accumulator holding the sum of the values in that range
+   */
+  private BigFractionAccumulator sum(long from, long to) {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    long runNumerator = 0;
+    long runDenominator = 0;
+    for (long i = from; i < to; i++) {
+      long slot = HEADER_SIZE + SLOT_SIZE * i;
+      long numerator = getLong(slot);
+      long denominator = getLong(slot + Long.BYTES);
+      if (denominator == 0) {
+        BigInteger[] overflow = overflow(numerator);
+        accumulator.accumulate(overflow[0], overflow[1]);
+        continue;
+      }
+      if (denominator == runDenominator) {
+        long sum = runNumerator + numerator;
+        // no overflow unless both summands have the same sign, and the sum has the other one
+        if (((runNumerator ^ sum) & (numerator ^ sum)) >= 0) {
+          runNumerator = sum;
+          continue;
+        }
+      }
+      if (runDenominator != 0) {
+        accumulator.accumulate(BigInteger.valueOf(runNumerator), BigInteger.valueOf(runDenominator));
+      }
+      runNumerator = numerator;
+      runDenominator = denominator;
+    }
+    if (runDenominator != 0) {
+      accumulator.accumulate(BigInteger.valueOf(runNumerator), BigInteger.valueOf(runDenominator));
+    }
+    return accumulator;
+  }
+
+  /**
+   * @param direction {@code -1} for the minimum, {@code 1} for the maximum
+   * @return the extreme value, or an empty {@link Optional}
+   */
+  private Optional<BigFraction> extreme(int direction) {
+    LongStream indexes = LongStream.range(0, size);
+    if (size >= PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    OptionalLong extreme = indexes.reduce((i, j) -> direction * compareAt(i, j) >= 0 ? i : j);
+    return extreme.isPresent() ? Optional.of(get(extreme.getAsLong())) : Optional.empty();
+  }
+
+  /**
+   * @param index1 The index of the first value
+   * @param index2 The index of the second value
+   * @return the comparison of the two values
+   */
+  private int compareAt(long index1, long index2) {
+    long slot1 = HEADER_SIZE + SLOT_SIZE * index1;
+    long slot2 = HEADER_SIZE + SLOT_SIZE * index2;
+    long numerator1 = getLong(slot1);
+    long denominator1 = getLong(slot1 + Long.BYTES);
+    long numerator2 = getLong(slot2);
+    long denominator2 = getLong(slot2 + Long.BYTES);
+    if (denominator1 != 0 && denominator2 != 0) {
+      if (denominator1 == denominator2) {
+        return Long.compare(numerator1, numerator2);
+      }
+      if (isSmall(numerator1) && isSmall(numerator2) && denominator1 < SMALL && denominator2 < SMALL) {
+        return Long.compare(numerator1 * denominator2, numerator2 * denominator1);
+      }
+    }
+    BigInteger[] value1 = denominator1 != 0 ? new BigInteger[] { BigInteger.valueOf(numerator1), BigInteger.valueOf(denominator1) }
+        : overflow(numerator1);
+    BigInteger[] value2 = denominator2 != 0 ? new BigInteger[] { BigInteger.valueOf(numerator2), BigInteger.valueOf(denominator2) }
+        : overflow(numerator2);
+    return value1[0].multiply(value2[1]).compareTo(value2[0].multiply(value1[1]));
+  }
+
+  /**
+   * @param value A value
+   * @return {@code true} if the magnitude of the value is less than {@link #SMALL}
+   */
+  private static boolean isSmall(long value) {
+    return value > -SMALL && value < SMALL;
+  }
+
+  /**
+   * @param index The index of a value
+   * @return the nearest {@code double} of the value
+   */
+  private double doubleValueAt(long index) {
+    long slot = HEADER_SIZE + SLOT_SIZE * index;
+    long numerator = getLong(slot);
+    long denominator = getLong(slot + Long.BYTES);
+    if (denominator != 0 && numerator > -(1L << 53) && numerator < 1L << 53 && denominator < 1L << 53) {
+      // both are exact doubles, so the quotient is correctly rounded
+      return (double) numerator / denominator;
+    }
+    return get(index).doubleValue();
+  }
+
+  /**
+   * @param position The position of an entry within the overflow region
+   * @return the numerator and denominator of the entry
+   */
+  private BigInteger[] overflow(long position) {
+    long at = overflowPosition + position;
+    byte[] numerator = new byte[getInt(at)];
+    at += Integer.BYTES;
+    read(at, numerator);
+    at += numerator.length;
+    byte[] denominator = new byte[getInt(at)];
+    at += Integer.BYTES;
+    read(at, denominator);
+    return new BigInteger[] { new BigInteger(numerator), new BigInteger(denominator) };
+  }
+
+  /**
+   * @param position The position of a slot field in the file, never crossing a segment
+   * @return the {@code long} at that position
+   */
+  private long getLong(long position) {
+    return segments[(int) (position / segmentSize)].getLong((int) (position % segmentSize));
+  }
+
+  /**
+   * @param position The position in the file
+   * @return the {@code int} at that position, which may cross a segment
+   */
+  private int getInt(long position) {
+    byte[] bytes = new byte[Integer.BYTES];
+    read(position, bytes);
+    return ByteBuffer.wrap(bytes).getInt();
+  }
+
+  /**
+   * Read bytes, which may cross segments.
+   *
+   * @param position The position in the file
+   * @param target The array to be filled
+   */
+  private void read(long position, byte[] target) {
+    int done = 0;
+    while (done < target.length) {
+      ByteBuffer segment = segments[(int) (position / segmentSize)].duplicate();
+      segment.position((int) (position % segmentSize));
+      int length = Math.min(segment.remaining(), target.length - done);
+      segment.get(target, done, length);
+      done += length;
+      position += length;
+    }
+  }
+
+  /**
+   * Writes a new column file.
+   * <p>
+   * The slots are written to the file directly, the overflow region to a temporary file next to it, which is appended on
+   * {@link #close()}. The file is only a valid column after the writer has been closed.
+   * <p>
+   * <strong>This class is not thread safe.</strong>
+   */
+  public static final class Writer implements Closeable {
+
+    /**
+     * The size of the slot buffer in bytes
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The column file
+     */
+    private final FileChannel channel;
+
+    /**
+     * The temporary file of the overflow region
+     */
+    private final Path overflowFile;
+
+    /**
+     * The overflow region
+     */
+    private final DataOutputStream overflow;
+
+    /**
+     * The buffered slots
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * The number of values written
+     */
+    private long size;
+
+    /**
+     * The length of the overflow region
+     */
+    private long overflowLength;
+
+    /**
+     * {@code true} once the writer is closed
+     */
+    private boolean closed;
+
+    /**
+     * @param file The column file
+     * @throws IOException if a file cannot be created
+     */
+    Writer(Path file) throws IOException {
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      Path temporary = null;
+      try {
+        channel.position(HEADER_SIZE);
+        temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".overflow");
+        overflow = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        if (temporary != null) {
+          Files.deleteIfExists(temporary);
+        }
+        throw e;
+      }
+      overflowFile = temporary;
+    }
+
+    /**
+     * Append a value.
+     *
+     * @param value The value
+     * @throws IllegalStateException if the writer is closed
+     * @throws UncheckedIOException if writing fails
+     */
+    public void add(BigFraction value) {
+      if (value == null) {
+        throw new NullPointerException("value");
+      }
+      if (closed) {
+        throw new IllegalStateException("the writer is closed.");
+      }
+      try {
+        BigInteger numerator = value.getNumerator();
+        BigInteger denominator = value.getDenominator();
+        if (numerator.bitLength() < Long.SIZE && denominator.bitLength() < Long.SIZE) {
+          buffer.putLong(numerator.longValue());
+          buffer.putLong(denominator.longValue());
+        } else {
+          buffer.putLong(overflowLength);
+          buffer.putLong(0);
+          byte[] numeratorBytes = numerator.toByteArray();
+          byte[] denominatorBytes = denominator.toByteArray();
+          overflow.writeInt(numeratorBytes.length);
+          overflow.write(numeratorBytes);
+          overflow.writeInt(denominatorBytes.length);
+          overflow.write(denominatorBytes);
+          overflowLength += 2 * Integer.BYTES + numeratorBytes.length + denominatorBytes.length;
+        }
+        size++;
+        if (!buffer.hasRemaining()) {
+          flushBuffer();
+        }
+      } catch (IOException ioe) {
+        throw new UncheckedIOException(ioe);
+      }
+    }
+
+    /**
+     * Return the number of values written so far.
+     *
+     * @return the number of values
+     */
+    public long size() {
+      return size;
+    }
+
+    /**
+     * Complete the file: append the overflow region, and write the header.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try (FileChannel target = channel) {
+        flushBuffer();
+        overflow.close();
+        try (FileChannel source = FileChannel.open(overflowFile, StandardOpenOption.READ)) {
+          long position = HEADER_SIZE + SLOT_SIZE * size;
+          long transferred = 0;
+          while (transferred < overflowLength) {
+            transferred += source.transferTo(transferred, overflowLength - transferred, target.position(position + transferred));
+          }
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(size).putLong(overflowLength).putLong(0);
+        header.flip();
+        while (header.hasRemaining()) {
+          target.write(header, header.position());
+        }
+      } finally {
+        Files.deleteIfExists(overflowFile);
+      }
+    }
+
+    /**
+     * Write the buffered slots to the file.
+     *
+     * @throws IOException if writing fails
+     */
+    private void flushBuffer() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+}
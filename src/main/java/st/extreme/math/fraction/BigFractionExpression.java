@@ -0,0 +1,581 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+/**
+ * An immutable, lazily evaluated arithmetic expression over {@link BigFraction} values.
+ * <p>
+ * The operations of a {@code BigFraction} are evaluated eagerly, each one creating a cancelled result, in the order the code is written.
+ * A {@code BigFractionExpression} only records the operations. On evaluation, it plans the calculation:
+ * <ul>
+ * <li>chains of additions and subtractions are flattened into one list of terms, and added up in a balanced tree,
+ * <li>chains of multiplications, divisions and powers are flattened into one list of factors with integer exponents. Factors occurring
+ * in both numerator and denominator (the same value, or the same subexpression) cancel out symbolically. The remaining numerators and
+ * denominators are multiplied in balanced product trees,
+ * <li>intermediate results are not cancelled, the gcd is calculated only once for the final result,
+ * <li>with {@link #parallelEvaluate()}, independent subexpressions are evaluated in parallel.
+ * </ul>
+ *
+ * <pre>
+ * BigFractionExpression x = BigFractionExpression.of(BigFraction.valueOf("2/3"));
+ * BigFractionExpression y = x.multiply(BigFraction.valueOf("7/5")).add(BigFraction.ONE).divide(x).pow(3);
+ * BigFraction result = y.evaluate();
+ * </pre>
+ */
+public final class BigFractionExpression {
+
+  /**
+   * The nesting level up to which operands are evaluated in parallel, deeper operands are evaluated by the calling thread
+   */
+  private static final int MAX_PARALLEL_LEVEL = 8;
+
+  /**
+   * The kinds of expression nodes
+   */
+  private enum Kind {
+    VALUE, ADD, SUBTRACT, NEGATE, MULTIPLY, DIVIDE, POWER
+  }
+
+  /**
+   * The kind of this node
+   */
+  private final Kind kind;
+
+  /**
+   * The value of a {@link Kind#VALUE} node, {@code null} otherwise
+   */
+  private final BigFraction value;
+
+  /**
+   * The left (or only) operand, {@code null} for a {@link Kind#VALUE} node
+   */
+  private final BigFractionExpression left;
+
+  /**
+   * The right operand of a binary operation, {@code null} otherwise
+   */
+  private final BigFractionExpression right;
+
+  /**
+   * The exponent of a {@link Kind#POWER} node
+   */
+  private final int exponent;
+
+  /**
+   * @param kind The kind of the node
+   * @param value The value of a {@link Kind#VALUE} node
+   * @param left The left (or only) operand
+   * @param right The right operand
+   * @param exponent The exponent of a {@link Kind#POWER} node
+   */
+  private BigFractionExpression(Kind kind, BigFraction value, BigFractionExpression left, BigFractionExpression right, int exponent) {
+    this.kind = kind;
+    this.value = value;
+    this.left = left;
+    this.right = right;
+    this.exponent = exponent;
+  }
+
+  /**
+   * Create an expression holding a single value.
+   *
+   * @param value The value
+   * @return a new expression
+   */
+  public static BigFractionExpression of(BigFraction value) {
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    return new BigFractionExpression(Kind.VALUE, value, null, null, 0);
+  }
+
+  /**
+   * @param addend The expression to be added
+   * @return the expression {@code this + addend}
+   */
+  public BigFractionExpression add(BigFractionExpression addend) {
+    return binary(Kind.ADD, addend);
+  }
+
+  /**
+   * @param addend The value to be added
+   * @return the expression {@code this + addend}
+   */
+  public BigFractionExpression add(BigFraction addend) {
+    return add(of(addend));
+  }
+
+  /**
+   * @param subtrahend The expression to be subtracted
+   * @return the expression {@code this - subtrahend}
+   */
+  public BigFractionExpression subtract(BigFractionExpression subtrahend) {
+    return binary(Kind.SUBTRACT, subtrahend);
+  }
+
+  /**
+   * @param subtrahend The value to be subtracted
+   * @return the expression {@code this - subtrahend}
+   */
+  public BigFractionExpression subtract(BigFraction subtrahend) {
+    return subtract(of(subtrahend));
+  }
+
+  /**
+   * @param factor The expression to multiply with
+   * @return the expression {@code this * factor}
+   */
+  public BigFractionExpression multiply(BigFractionExpression factor) {
+    return binary(Kind.MULTIPLY, factor);
+  }
+
+  /**
+   * @param factor The value to multiply with
+   * @return the expression {@code this * factor}
+   */
+  public BigFractionExpression multiply(BigFraction factor) {
+    return multiply(of(factor));
+  }
+
+  /**
+   * @param divisor The expression to divide by
+   * @return the expression {@code this / divisor}
+   */
+  public BigFractionExpression divide(BigFractionExpression divisor) {
+    return binary(Kind.DIVIDE, divisor);
+  }
+
+  /**
+   * @param divisor The value to divide by
+   * @return the expression {@code this / divisor}
+   */
+  public BigFractionExpression divide(BigFraction divisor) {
+    return divide(of(divisor));
+  }
+
+  /**
+   * @return the expression {@code -this}
+   */
+  public BigFractionExpression negate() {
+    return new BigFractionExpression(Kind.NEGATE, null, this, null, 0);
+  }
+
+  /**
+   * @param exponent The exponent, may be negative
+   * @return the expression {@code this^exponent}
+   */
+  public BigFractionExpression pow(int exponent) {
+    return new BigFractionExpression(Kind.POWER, null, this, null, exponent);
+  }
+
+  /**
+   * Evaluate this expression sequentially.
+   *
+   * @return the exact, cancelled value of this expression
+   * @throws ArithmeticException if a divisor evaluates to zero
+   */
+  public BigFraction evaluate() {
+    BigInteger[] result = evaluate(false, 0);
+    return new BigFraction(result[0], result[1]);
+  }
+
+  /**
+   * Evaluate this expression, evaluating independent subexpressions in parallel.
+   *
+   * @return the exact, cancelled value of this expression
+   * @throws ArithmeticException if a divisor evaluates to zero
+   */
+  public BigFraction parallelEvaluate() {
+    BigInteger[] result = evaluate(true, 0);
+    return new BigFraction(result[0], result[1]);
+  }
+
+  /**
+   * Return an infix representation of this expression, such as {@code ((1/2 + 2) * 3)}.
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    // holds the expressions still to be written, and the strings between them
+    Deque<Object> parts = new ArrayDeque<>();
+    parts.push(this);
+    while (!parts.isEmpty()) {
+      Object part = parts.pop();
+      if (part instanceof String) {
+        builder.append(part);
+        continue;
+      }
+      BigFractionExpression expression = (BigFractionExpression) part;
+      String operator;
+      switch (expression.kind) {
+      case VALUE:
+        builder.append(expression.value);
+        continue;
+      case NEGATE:
+        builder.append('-');
+        parts.push(expression.left);
+        continue;
+      case POWER:
+        parts.push("^" + expression.exponent);
+        parts.push(expression.left);
+        continue;
+      case ADD:
+        operator = " + ";
+        break;
+      case SUBTRACT:
+        operator = " - ";
+        break;
+      case MULTIPLY:
+        operator = " * ";
+        break;
+      default:
+        operator = " / ";
+      }
+      builder.append('(');
+      parts.push(")");
+      parts.push(expression.right);
+      parts.push(operator);
+      parts.push(expression.left);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * @param kind The kind of the operation
+   * @param operand The right operand
+   * @return a new binary node
+   */
+  private BigFractionExpression binary(Kind kind, BigFractionExpression operand) {
+    if (operand == null) {
+      throw new NullPointerException("operand");
+    }
+    return new BigFractionExpression(kind, null, this, operand, 0);
+  }
+
+  /**
+   * Evaluate this expression into a numerator and a positive denominator, which are not necessarily coprime.
+   * <p>
+   * The nested chains are evaluated with an explicit stack of plans, so that deep expressions do not overflow the call stack.
+   *
+   * @param parallel {@code true} if independent subexpressions should be evaluated in parallel
+   * @param level The nesting level of parallel evaluations
+   * @return an array holding numerator and denominator
+   */
+  private BigInteger[] evaluate(boolean parallel, int level) {
+    if (kind == Kind.VALUE) {
+      return new BigInteger[] { value.getNumerator(), value.getDenominator() };
+    }
+    Deque<Plan> plans = new ArrayDeque<>();
+    plans.push(plan());
+    while (true) {
+      Plan plan = plans.peek();
+      int next = plan.values.size();
+      if (next < plan.operands.size()) {
+        BigFractionExpression operand = plan.operands.get(next);
+        if (operand.kind == Kind.VALUE) {
+          plan.values.add(new BigInteger[] { operand.value.getNumerator(), operand.value.getDenominator() });
+        } else if (parallel && level < MAX_PARALLEL_LEVEL && plan.operands.size() - next > 1) {
+          plan.operands.subList(next, plan.operands.size()).parallelStream().map(expression -> expression.evaluate(true, level + 1))
+              .forEachOrdered(plan.values::add);
+        } else {
+          plans.push(operand.plan());
+        }
+      } else {
+        plans.pop();
+        BigInteger[] result = plan.sum ? plan.evaluateSum(parallel) : plan.evaluateProduct(parallel);
+        if (plans.isEmpty()) {
+          return result;
+        }
+        plans.peek().values.add(result);
+      }
+    }
+  }
+
+  /**
+   * Plan the evaluation of a chain of additions, subtractions and negations, or of a chain of multiplications, divisions and powers.
+   *
+   * @return the plan holding the operands to be evaluated
+   */
+  private Plan plan() {
+    if (kind == Kind.ADD || kind == Kind.SUBTRACT || kind == Kind.NEGATE) {
+      Plan plan = new Plan(true);
+      collectTerms(plan.operands, plan.negated);
+      return plan;
+    }
+    Plan plan = new Plan(false);
+    Map<Object, Factor> factors = new LinkedHashMap<>();
+    plan.negative = collectFactors(factors);
+    for (Factor factor : factors.values()) {
+      // a cancelled out factor is only evaluated to check that it is no zero divisor
+      if (factor.exponent != 0 || factor.divisor && factor.expression.kind != Kind.VALUE) {
+        plan.factors.add(factor);
+        plan.operands.add(factor.expression);
+      } else if (factor.divisor && factor.expression.value.signum() == 0) {
+        throw new ArithmeticException("division by zero is not allowed.");
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Flatten a chain of additions, subtractions and negations.
+   *
+   * @param terms The list collecting the terms
+   * @param negated The list collecting the signs of the terms
+   */
+  private void collectTerms(List<BigFractionExpression> terms, List<Boolean> negated) {
+    Deque<BigFractionExpression> nodes = new ArrayDeque<>();
+    Deque<Boolean> signs = new ArrayDeque<>();
+    nodes.push(this);
+    signs.push(Boolean.FALSE);
+    while (!nodes.isEmpty()) {
+      BigFractionExpression node = nodes.pop();
+      boolean negative = signs.pop();
+      switch (node.kind) {
+      case ADD:
+      case SUBTRACT:
+        // the right operand is pushed first, so that the terms are collected from left to right
+        nodes.push(node.right);
+        signs.push(node.kind == Kind.SUBTRACT ? !negative : negative);
+        nodes.push(node.left);
+        signs.push(negative);
+        break;
+      case NEGATE:
+        nodes.push(node.left);
+        signs.push(!negative);
+        break;
+      default:
+        terms.add(node);
+        negated.add(negative);
+      }
+    }
+  }
+
+  /**
+   * Flatten a chain of multiplications, divisions and powers, summing up the exponents of equal factors.
+   * <p>
+   * Values are equal factors if they are equal, subexpressions only if they are the same instance.
+   *
+   * @param factors The map collecting the factors by value or by subexpression
+   * @return {@code true} if the sign of the product has to be inverted, {@code false} otherwise.
+   */
+  private boolean collectFactors(Map<Object, Factor> factors) {
+    boolean negative = false;
+    Deque<BigFractionExpression> nodes = new ArrayDeque<>();
+    Deque<Integer> powers = new ArrayDeque<>();
+    nodes.push(this);
+    powers.push(1);
+    while (!nodes.isEmpty()) {
+      BigFractionExpression node = nodes.pop();
+      int power = powers.pop();
+      switch (node.kind) {
+      case MULTIPLY:
+      case DIVIDE:
+        // the right operand is pushed first, so that the factors are collected from left to right
+        nodes.push(node.right);
+        powers.push(node.kind == Kind.DIVIDE ? Math.negateExact(power) : power);
+        nodes.push(node.left);
+        powers.push(power);
+        break;
+      case POWER:
+        nodes.push(node.left);
+        powers.push(Math.multiplyExact(power, node.exponent));
+        break;
+      case NEGATE:
+        negative ^= power % 2 != 0;
+        nodes.push(node.left);
+        powers.push(power);
+        break;
+      default:
+        Factor factor = factors.computeIfAbsent(node.kind == Kind.VALUE ? node.value : node, key -> new Factor(node));
+        factor.exponent = Math.addExact(factor.exponent, power);
+        factor.divisor |= power < 0;
+      }
+    }
+    return negative;
+  }
+
+  /**
+   * Combine a non-empty list of operands by an associative operator in a balanced tree, so that operands of similar size are combined.
+   *
+   * @param <T> the type of the operands
+   * @param operands The operands
+   * @param operator The associative operator
+   * @param parallel {@code true} if the tree should be evaluated in parallel
+   * @return the result
+   */
+  private static <T> T balanced(List<T> operands, BinaryOperator<T> operator, boolean parallel) {
+    if (parallel) {
+      // the reduction of an ordered parallel stream splits the list into halves
+      return operands.parallelStream().reduce(operator).get();
+    }
+    return balanced(operands, 0, operands.size(), operator);
+  }
+
+  /**
+   * @param <T> the type of the operands
+   * @param operands The operands
+   * @param from The inclusive start index
+   * @param to The exclusive end index
+   * @param operator The associative operator
+   * @return the result for the operands in {@code [from, to)}
+   */
+  private static <T> T balanced(List<T> operands, int from, int to, BinaryOperator<T> operator) {
+    if (to - from == 1) {
+      return operands.get(from);
+    }
+    int middle = (from + to) >>> 1;
+    return operator.apply(balanced(operands, from, middle, operator), balanced(operands, middle, to, operator));
+  }
+
+  /**
+   * Add two fractions without cancelling them.
+   *
+   * @param fraction1 The numerator and positive denominator of the first fraction
+   * @param fraction2 The numerator and positive denominator of the second fraction
+   * @return the numerator and positive denominator of the sum
+   */
+  private static BigInteger[] addFractions(BigInteger[] fraction1, BigInteger[] fraction2) {
+    if (fraction1[1].equals(fraction2[1])) {
+      return new BigInteger[] { fraction1[0].add(fraction2[0]), fraction1[1] };
+    }
+    BigInteger numerator = fraction1[0].multiply(fraction2[1]).add(fraction2[0].multiply(fraction1[1]));
+    return new BigInteger[] { numerator, fraction1[1].multiply(fraction2[1]) };
+  }
+
+  /**
+   * A factor of a flattened product, with its summed up exponent.
+   */
+  private static final class Factor {
+
+    /**
+     * The expression of the factor
+     */
+    final BigFractionExpression expression;
+
+    /**
+     * The summed up exponent
+     */
+    int exponent;
+
+    /**
+     * {@code true} if the factor occurs as a divisor at least once, so that it must not be zero
+     */
+    boolean divisor;
+
+    /**
+     * @param expression The expression of the factor
+     */
+    Factor(BigFractionExpression expression) {
+      this.expression = expression;
+    }
+  }
+
+
+  /**
+   * The flattened operands of a chain of additions, subtractions and negations, or of a chain of multiplications, divisions and powers,
+   * together with the values of the operands evaluated so far.
+   */
+  private static final class Plan {
+
+    /**
+     * {@code true} for a chain of additions, {@code false} for a chain of multiplications
+     */
+    final boolean sum;
+
+    /**
+     * The operands to be evaluated
+     */
+    final List<BigFractionExpression> operands = new ArrayList<>();
+
+    /**
+     * The values of the operands evaluated so far, in the order of {@link #operands}
+     */
+    final List<BigInteger[]> values = new ArrayList<>();
+
+    /**
+     * The signs of the terms of a sum
+     */
+    final List<Boolean> negated = new ArrayList<>();
+
+    /**
+     * The factors of a product, in the order of {@link #operands}
+     */
+    final List<Factor> factors = new ArrayList<>();
+
+    /**
+     * {@code true} if the sign of a product has to be inverted
+     */
+    boolean negative;
+
+    /**
+     * @param sum {@code true} for a chain of additions, {@code false} for a chain of multiplications
+     */
+    Plan(boolean sum) {
+      this.sum = sum;
+    }
+
+    /**
+     * Add up the evaluated terms.
+     *
+     * @param parallel {@code true} if the terms should be added in parallel
+     * @return an array holding numerator and denominator
+     */
+    BigInteger[] evaluateSum(boolean parallel) {
+      List<BigInteger[]> terms = new ArrayList<>(values.size());
+      for (BigInteger[] term : values) {
+        terms.add(negated.get(terms.size()) ? new BigInteger[] { term[0].negate(), term[1] } : term);
+      }
+      return balanced(terms, BigFractionExpression::addFractions, parallel);
+    }
+
+    /**
+     * Multiply the evaluated factors.
+     *
+     * @param parallel {@code true} if the factors should be multiplied in parallel
+     * @return an array holding numerator and denominator
+     */
+    BigInteger[] evaluateProduct(boolean parallel) {
+      List<BigInteger> numerators = new ArrayList<>();
+      List<BigInteger> denominators = new ArrayList<>();
+      for (int i = 0; i < factors.size(); i++) {
+        Factor factor = factors.get(i);
+        BigInteger numerator = values.get(i)[0];
+        BigInteger denominator = values.get(i)[1];
+        if (factor.divisor && numerator.signum() == 0) {
+          throw new ArithmeticException("division by zero is not allowed.");
+        }
+        int power = factor.exponent;
+        if (power < 0) {
+          BigInteger swap = numerator;
+          numerator = denominator;
+          denominator = swap;
+          power = -power;
+        }
+        if (power != 0) {
+          numerators.add(numerator.pow(power));
+          denominators.add(denominator.pow(power));
+        }
+      }
+      if (numerators.isEmpty()) {
+        // everything cancelled out
+        return new BigInteger[] { negative ? BigInteger.ONE.negate() : BigInteger.ONE, BigInteger.ONE };
+      }
+      BigInteger numerator = balanced(numerators, BigInteger::multiply, parallel);
+      BigInteger denominator = balanced(denominators, BigInteger::multiply, parallel);
+      if (denominator.signum() < 0) {
+        numerator = numerator.negate();
+        denominator = denominator.negate();
+      }
+      return new BigInteger[] { negative ? numerator.negate() : numerator, denominator };
+    }
+  }
+
+}
@@ -0,0 +1,256 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A Fenwick tree (binary indexed tree) for exact range sums over a mutable array of {@link BigFraction} values.
+ * <p>
+ * Both point updates and range sums take {@code O(log n)} operations. The nodes of the tree hold partial sums as uncancelled
+ * numerator/denominator pairs, so an update does not calculate a gcd per node. A node is only cancelled when its denominator has grown
+ * considerably, and a range sum is cancelled once, when the resulting {@link BigFraction} is created.
+ * <p>
+ * <strong>This class is not thread safe.</strong>
+ */
+public final class BigFractionFenwickTree {
+
+  /**
+   * The bit length a node denominator has to exceed before the node is cancelled, unless the denominators of the values are bigger
+   */
+  private static final int CANCELLATION_BIT_LENGTH = 512;
+
+  /**
+   * The current values
+   */
+  private final BigFraction[] values;
+
+  /**
+   * The uncancelled numerators of the nodes, 1-based
+   */
+  private final BigInteger[] numerators;
+
+  /**
+   * The uncancelled, positive denominators of the nodes, 1-based
+   */
+  private final BigInteger[] denominators;
+
+  /**
+   * Create a new {@code BigFractionFenwickTree} with all values being {@code 0}.
+   *
+   * @param size The number of values
+   */
+  public BigFractionFenwickTree(int size) {
+    this(filledWithZero(size));
+  }
+
+  /**
+   * Create a new {@code BigFractionFenwickTree} holding the given values, in {@code O(n)} operations.
+   *
+   * @param values The initial values, the array is not modified
+   */
+  public BigFractionFenwickTree(BigFraction[] values) {
+    int size = values.length;
+    this.values = values.clone();
+    this.numerators = new BigInteger[size + 1];
+    this.denominators = new BigInteger[size + 1];
+    numerators[0] = BigInteger.ZERO;
+    denominators[0] = BigInteger.ONE;
+    for (int i = 1; i <= size; i++) {
+      BigFraction value = this.values[i - 1];
+      if (value == null) {
+        throw new NullPointerException("value at index " + (i - 1));
+      }
+      numerators[i] = value.getNumerator();
+      denominators[i] = value.getDenominator();
+    }
+    for (int i = 1; i <= size; i++) {
+      int parent = i + (i & -i);
+      if (parent <= size) {
+        addToNode(parent, numerators[i], denominators[i]);
+      }
+    }
+  }
+
+  /**
+   * Return the number of values.
+   *
+   * @return the size
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Return the value at an index.
+   *
+   * @param index The index
+   * @return the current value
+   */
+  public BigFraction get(int index) {
+    checkIndex(index);
+    return values[index];
+  }
+
+  /**
+   * Replace the value at an index.
+   *
+   * @param index The index
+   * @param value The new value
+   */
+  public void set(int index, BigFraction value) {
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    checkIndex(index);
+    BigFraction old = values[index];
+    values[index] = value;
+    if (old.getDenominator().equals(value.getDenominator())) {
+      update(index, value.getNumerator().subtract(old.getNumerator()), value.getDenominator());
+    } else {
+      update(index, value.getNumerator().multiply(old.getDenominator()).subtract(old.getNumerator().multiply(value.getDenominator())),
+          value.getDenominator().multiply(old.getDenominator()));
+    }
+  }
+
+  /**
+   * Add a delta to the value at an index.
+   *
+   * @param index The index
+   * @param delta The value to be added
+   */
+  public void add(int index, BigFraction delta) {
+    checkIndex(index);
+    values[index] = values[index].add(delta);
+    update(index, delta.getNumerator(), delta.getDenominator());
+  }
+
+  /**
+   * Return the sum of the values in the range {@code [0, toIndex)}.
+   *
+   * @param toIndex The exclusive end of the range
+   * @return the exact sum
+   */
+  public BigFraction prefixSum(int toIndex) {
+    if (toIndex < 0 || toIndex > values.length) {
+      throw new IndexOutOfBoundsException("toIndex: " + toIndex + ", size: " + values.length);
+    }
+    BigInteger[] sum = prefix(toIndex);
+    return new BigFraction(sum[0], sum[1]);
+  }
+
+  /**
+   * Return the sum of the values in the range {@code [fromIndex, toIndex)}.
+   *
+   * @param fromIndex The inclusive start of the range
+   * @param toIndex The exclusive end of the range
+   * @return the exact sum
+   */
+  public BigFraction sum(int fromIndex, int toIndex) {
+    if (fromIndex < 0 || fromIndex > toIndex || toIndex > values.length) {
+      throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + values.length);
+    }
+    BigInteger[] upper = prefix(toIndex);
+    BigInteger[] lower = prefix(fromIndex);
+    if (upper[1].equals(lower[1])) {
+      return new BigFraction(upper[0].subtract(lower[0]), upper[1]);
+    }
+    return new BigFraction(upper[0].multiply(lower[1]).subtract(lower[0].multiply(upper[1])), upper[1].multiply(lower[1]));
+  }
+
+  /**
+   * Add an uncancelled delta to all nodes covering an index.
+   *
+   * @param index The 0-based index
+   * @param deltaNumerator The numerator of the delta
+   * @param deltaDenominator The positive denominator of the delta
+   */
+  private void update(int index, BigInteger deltaNumerator, BigInteger deltaDenominator) {
+    if (deltaNumerator.signum() == 0) {
+      return;
+    }
+    for (int i = index + 1; i <= values.length; i += i & -i) {
+      addToNode(i, deltaNumerator, deltaDenominator);
+    }
+  }
+
+  /**
+   * Sum up the nodes covering the range {@code [0, toIndex)}, without cancellation.
+   *
+   * @param toIndex The exclusive end of the range
+   * @return an array holding the uncancelled numerator and denominator
+   */
+  private BigInteger[] prefix(int toIndex) {
+    BigInteger numerator = BigInteger.ZERO;
+    BigInteger denominator = BigInteger.ONE;
+    for (int i = toIndex; i > 0; i -= i & -i) {
+      if (denominators[i].equals(denominator)) {
+        numerator = numerator.add(numerators[i]);
+      } else if (numerator.signum() == 0) {
+        numerator = numerators[i];
+        denominator = denominators[i];
+      } else {
+        numerator = numerator.multiply(denominators[i]).add(numerators[i].multiply(denominator));
+        denominator = denominator.multiply(denominators[i]);
+      }
+    }
+    return new BigInteger[] { numerator, denominator };
+  }
+
+  /**
+   * Add an uncancelled value to a node.
+   *
+   * @param node The 1-based node index
+   * @param addendNumerator The numerator of the value
+   * @param addendDenominator The positive denominator of the value
+   */
+  private void addToNode(int node, BigInteger addendNumerator, BigInteger addendDenominator) {
+    BigInteger denominator = denominators[node];
+    if (denominator.equals(addendDenominator)) {
+      numerators[node] = numerators[node].add(addendNumerator);
+    } else if (BigInteger.ONE.equals(addendDenominator)) {
+      numerators[node] = numerators[node].add(addendNumerator.multiply(denominator));
+    } else if (numerators[node].signum() == 0) {
+      numerators[node] = addendNumerator;
+      denominators[node] = addendDenominator;
+    } else {
+      numerators[node] = numerators[node].multiply(addendDenominator).add(addendNumerator.multiply(denominator));
+      denominators[node] = denominator.multiply(addendDenominator);
+      if (denominators[node].bitLength() > Math.max(CANCELLATION_BIT_LENGTH, 4 * addendDenominator.bitLength())) {
+        cancelNode(node);
+      }
+    }
+  }
+
+  /**
+   * Cancel the fraction held by a node.
+   *
+   * @param node The 1-based node index
+   */
+  private void cancelNode(int node) {
+    BigInteger gcd = numerators[node].gcd(denominators[node]);
+    if (gcd.compareTo(BigInteger.ONE) > 0) {
+      numerators[node] = numerators[node].divide(gcd);
+      denominators[node] = denominators[node].divide(gcd);
+    }
+  }
+
+  /**
+   * @param index The index to be checked
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= values.length) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + values.length);
+    }
+  }
+
+  /**
+   * @param size The size
+   * @return an array of the given size, filled with {@link BigFraction#ZERO}
+   */
+  private static BigFraction[] filledWithZero(int size) {
+    BigFraction[] zeros = new BigFraction[size];
+    Arrays.fill(zeros, BigFraction.ZERO);
+    return zeros;
+  }
+
+}
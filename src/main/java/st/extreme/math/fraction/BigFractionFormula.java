@@ -0,0 +1,643 @@
+package st.extreme.math.fraction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * A compiled rational formula, such as {@code (a + 1/3) * b - c/7}, for repeated evaluation over many bindings of its variables.
+ * <p>
+ * The grammar extends the number formats of {@link BigFraction#valueOf(String)}:
+ * <ul>
+ * <li>numbers like {@code 123} or {@code 0.25},
+ * <li>variables, starting with a letter or {@code _}, followed by letters, digits or {@code _},
+ * <li>the binary operators {@code +}, {@code -}, {@code *}, {@code /}, and {@code ^} with an integer exponent like {@code x^-2},
+ * <li>unary {@code +} and {@code -}, and parentheses.
+ * </ul>
+ * The usual precedence rules apply, {@code ^} binds strongest, and {@code -x^2} is {@code -(x^2)}. A fraction like {@code 1/3} is just a
+ * division of two constants.
+ * <p>
+ * Parsing happens once, in {@link #compile(String)}. Subexpressions without variables are folded into cancelled constants, and the rest
+ * is flattened into a register program. Evaluating a row of values then only executes the remaining arithmetic operations:
+ *
+ * <pre>
+ * BigFractionFormula formula = BigFractionFormula.compile("(a + 1/3) * b - c/7");
+ * BigFraction[] results = formula.parallelEvaluateAll(rows); // every row holds the values of a, b, c
+ * </pre>
+ *
+ * Instances are immutable and thread safe.
+ */
+public final class BigFractionFormula {
+
+  /**
+   * The number of rows from which on {@link #parallelEvaluateAll(BigFraction[][])} works in parallel
+   */
+  private static final int PARALLEL_THRESHOLD = 64;
+
+  /**
+   * The operation codes of the register program
+   */
+  private enum Op {
+    ADD, SUBTRACT, MULTIPLY, DIVIDE, NEGATE, POWER
+  }
+
+  /**
+   * The source of the formula
+   */
+  private final String source;
+
+  /**
+   * The names of the variables, in the order of their first occurrence
+   */
+  private final List<String> variables;
+
+  /**
+   * The initial registers: the (empty) variable slots, followed by the constants
+   */
+  private final BigFraction[] constants;
+
+  /**
+   * The operation of each instruction
+   */
+  private final Op[] ops;
+
+  /**
+   * The register of the first operand of each instruction
+   */
+  private final int[] operands1;
+
+  /**
+   * The register of the second operand of each instruction, or the exponent of a {@link Op#POWER} instruction
+   */
+  private final int[] operands2;
+
+  /**
+   * The total number of registers; instruction {@code i} writes to register {@code constants.length + i}
+   */
+  private final int registerCount;
+
+  /**
+   * The register holding the result
+   */
+  private final int result;
+
+  /**
+   * @param source The source of the formula
+   * @param variables The names of the variables
+   * @param program The compiled program
+   */
+  private BigFractionFormula(String source, List<String> variables, Compiler program) {
+    this.source = source;
+    this.variables = Collections.unmodifiableList(variables);
+    this.constants = program.registers.toArray(new BigFraction[program.registers.size()]);
+    int size = program.ops.size();
+    this.ops = program.ops.toArray(new Op[size]);
+    this.operands1 = new int[size];
+    this.operands2 = new int[size];
+    for (int i = 0; i < size; i++) {
+      operands1[i] = resolve(program.operands1.get(i));
+      operands2[i] = ops[i] == Op.POWER ? program.operands2.get(i) : resolve(program.operands2.get(i));
+    }
+    this.registerCount = constants.length + size;
+    this.result = resolve(program.result);
+  }
+
+  /**
+   * @param register The register as emitted by the {@link Compiler}, negative for the result of an instruction
+   * @return the index of the register
+   */
+  private int resolve(int register) {
+    return register < 0 ? constants.length - register - 1 : register;
+  }
+
+  /**
+   * Parse and compile a formula.
+   *
+   * @param formula The formula
+   * @return the compiled formula
+   * @throws IllegalArgumentException if the formula is not valid
+   * @throws ArithmeticException if a constant subexpression divides by zero
+   */
+  public static BigFractionFormula compile(String formula) {
+    if (formula == null) {
+      throw new NullPointerException("formula");
+    }
+    Parser parser = new Parser(formula);
+    Node root = parser.parse();
+    Compiler compiler = new Compiler(parser.variables.size());
+    compiler.result = compiler.emit(root);
+    return new BigFractionFormula(formula, parser.variables, compiler);
+  }
+
+  /**
+   * Return the names of the variables, in the order of their first occurrence in the formula.
+   * <p>
+   * This is the order of the values expected by {@link #evaluate(BigFraction...)}.
+   *
+   * @return an unmodifiable list of variable names
+   */
+  public List<String> getVariables() {
+    return variables;
+  }
+
+  /**
+   * Evaluate the formula for values in the order of {@link #getVariables()}.
+   *
+   * @param values The values of the variables
+   * @return the exact result
+   * @throws IllegalArgumentException if the number of values does not match the number of variables
+   * @throws ArithmeticException if the formula divides by zero
+   */
+  public BigFraction evaluate(BigFraction... values) {
+    if (values.length != variables.size()) {
+      throw new IllegalArgumentException("expected " + variables.size() + " values, but got " + values.length + ".");
+    }
+    BigFraction[] registers = Arrays.copyOf(constants, registerCount);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        throw new NullPointerException(variables.get(i));
+      }
+      registers[i] = values[i];
+    }
+    int target = constants.length;
+    for (int i = 0; i < ops.length; i++, target++) {
+      BigFraction operand = registers[operands1[i]];
+      switch (ops[i]) {
+      case ADD:
+        registers[target] = operand.add(registers[operands2[i]]);
+        break;
+      case SUBTRACT:
+        registers[target] = operand.subtract(registers[operands2[i]]);
+        break;
+      case MULTIPLY:
+        registers[target] = operand.multiply(registers[operands2[i]]);
+        break;
+      case DIVIDE:
+        registers[target] = operand.divide(registers[operands2[i]]);
+        break;
+      case NEGATE:
+        registers[target] = operand.negate();
+        break;
+      default:
+        registers[target] = pow(operand, operands2[i]);
+      }
+    }
+    return registers[result];
+  }
+
+  /**
+   * Evaluate the formula for named values.
+   *
+   * @param bindings The values of the variables by name, additional entries are ignored
+   * @return the exact result
+   * @throws IllegalArgumentException if a variable has no value
+   * @throws ArithmeticException if the formula divides by zero
+   */
+  public BigFraction evaluate(Map<String, BigFraction> bindings) {
+    BigFraction[] values = new BigFraction[variables.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = bindings.get(variables.get(i));
+      if (values[i] == null) {
+        throw new IllegalArgumentException("no value for variable '" + variables.get(i) + "'.");
+      }
+    }
+    return evaluate(values);
+  }
+
+  /**
+   * Evaluate the formula for many rows of values, sequentially.
+   *
+   * @param rows The rows, each holding the values in the order of {@link #getVariables()}
+   * @return the results, in the order of {@code rows}
+   * @see #evaluate(BigFraction...)
+   */
+  public BigFraction[] evaluateAll(BigFraction[][] rows) {
+    BigFraction[] results = new BigFraction[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      results[i] = evaluate(rows[i]);
+    }
+    return results;
+  }
+
+  /**
+   * Evaluate the formula for many rows of values, in parallel.
+   *
+   * @param rows The rows, each holding the values in the order of {@link #getVariables()}
+   * @return the results, in the order of {@code rows}
+   * @see #evaluate(BigFraction...)
+   */
+  public BigFraction[] parallelEvaluateAll(BigFraction[][] rows) {
+    if (rows.length < PARALLEL_THRESHOLD) {
+      return evaluateAll(rows);
+    }
+    BigFraction[] results = new BigFraction[rows.length];
+    IntStream.range(0, rows.length).parallel().forEach(i -> results[i] = evaluate(rows[i]));
+    return results;
+  }
+
+  /**
+   * Return the source of the formula.
+   */
+  @Override
+  public String toString() {
+    return source;
+  }
+
+  /**
+   * @param base The base
+   * @param exponent The exponent, may be negative
+   * @return {@code base^exponent}
+   */
+  private static BigFraction pow(BigFraction base, int exponent) {
+    if (exponent >= 0) {
+      return base.pow(exponent);
+    }
+    return base.pow(-exponent).reciprocal();
+  }
+
+  /**
+   * A node of the syntax tree.
+   */
+  private static final class Node {
+
+    /**
+     * The operation, {@code null} for a constant or a variable
+     */
+    final Op op;
+
+    /**
+     * The value of a constant, {@code null} otherwise
+     */
+    final BigFraction value;
+
+    /**
+     * The index of a variable, {@code -1} otherwise
+     */
+    final int variable;
+
+    /**
+     * The first operand
+     */
+    final Node left;
+
+    /**
+     * The second operand
+     */
+    final Node right;
+
+    /**
+     * The exponent of a {@link Op#POWER} node
+     */
+    final int exponent;
+
+    /**
+     * @param op The operation
+     * @param value The value of a constant
+     * @param variable The index of a variable
+     * @param left The first operand
+     * @param right The second operand
+     * @param exponent The exponent of a {@link Op#POWER} node
+     */
+    private Node(Op op, BigFraction value, int variable, Node left, Node right, int exponent) {
+      this.op = op;
+      this.value = value;
+      this.variable = variable;
+      this.left = left;
+      this.right = right;
+      this.exponent = exponent;
+    }
+
+    /**
+     * @param value The value
+     * @return a constant node
+     */
+    static Node constant(BigFraction value) {
+      return new Node(null, value, -1, null, null, 0);
+    }
+
+    /**
+     * @param index The index of the variable
+     * @return a variable node
+     */
+    static Node variable(int index) {
+      return new Node(null, null, index, null, null, 0);
+    }
+
+    /**
+     * Create an operation node, folding it into a constant if all operands are constants.
+     *
+     * @param op The operation
+     * @param left The first operand
+     * @param right The second operand, {@code null} for unary operations
+     * @param exponent The exponent of a {@link Op#POWER} node
+     * @return the new node
+     */
+    static Node operation(Op op, Node left, Node right, int exponent) {
+      if (left.value != null && (right == null || right.value != null)) {
+        switch (op) {
+        case ADD:
+          return constant(left.value.add(right.value));
+        case SUBTRACT:
+          return constant(left.value.subtract(right.value));
+        case MULTIPLY:
+          return constant(left.value.multiply(right.value));
+        case DIVIDE:
+          return constant(left.value.divide(right.value));
+        case NEGATE:
+          return constant(left.value.negate());
+        default:
+          return constant(pow(left.value, exponent));
+        }
+      }
+      return new Node(op, null, -1, left, right, exponent);
+    }
+  }
+
+  /**
+   * A recursive descent parser.
+   */
+  private static final class Parser {
+
+    /**
+     * The formula
+     */
+    private final String formula;
+
+    /**
+     * The variables found so far
+     */
+    final List<String> variables = new ArrayList<>();
+
+    /**
+     * The current position
+     */
+    private int position;
+
+    /**
+     * @param formula The formula
+     */
+    Parser(String formula) {
+      this.formula = formula;
+    }
+
+    /**
+     * @return the syntax tree of the whole formula
+     */
+    Node parse() {
+      Node node = expression();
+      skipWhitespace();
+      if (position < formula.length()) {
+        throw error("unexpected '" + formula.charAt(position) + "'");
+      }
+      return node;
+    }
+
+    /**
+     * expression := term (('+' | '-') term)*
+     *
+     * @return the node
+     */
+    private Node expression() {
+      Node node = term();
+      for (;;) {
+        if (accept('+')) {
+          node = Node.operation(Op.ADD, node, term(), 0);
+        } else if (accept('-')) {
+          node = Node.operation(Op.SUBTRACT, node, term(), 0);
+        } else {
+          return node;
+        }
+      }
+    }
+
+    /**
+     * term := unary (('*' | '/') unary)*
+     *
+     * @return the node
+     */
+    private Node term() {
+      Node node = unary();
+      for (;;) {
+        if (accept('*')) {
+          node = Node.operation(Op.MULTIPLY, node, unary(), 0);
+        } else if (accept('/')) {
+          node = Node.operation(Op.DIVIDE, node, unary(), 0);
+        } else {
+          return node;
+        }
+      }
+    }
+
+    /**
+     * unary := ('+' | '-') unary | power
+     *
+     * @return the node
+     */
+    private Node unary() {
+      if (accept('+')) {
+        return unary();
+      }
+      if (accept('-')) {
+        return Node.operation(Op.NEGATE, unary(), null, 0);
+      }
+      return power();
+    }
+
+    /**
+     * power := primary ('^' integer)?
+     *
+     * @return the node
+     */
+    private Node power() {
+      Node node = primary();
+      if (accept('^')) {
+        boolean negative = accept('-');
+        int start = position;
+        while (position < formula.length() && Character.isDigit(formula.charAt(position))) {
+          position++;
+        }
+        if (start == position) {
+          throw error("integer exponent expected");
+        }
+        int exponent;
+        try {
+          exponent = Integer.parseInt(formula.substring(start, position));
+        } catch (NumberFormatException nfe) {
+          throw error("exponent too big");
+        }
+        node = Node.operation(Op.POWER, node, null, negative ? -exponent : exponent);
+      }
+      return node;
+    }
+
+    /**
+     * primary := number | variable | '(' expression ')'
+     *
+     * @return the node
+     */
+    private Node primary() {
+      if (accept('(')) {
+        Node node = expression();
+        if (!accept(')')) {
+          throw error("')' expected");
+        }
+        return node;
+      }
+      skipWhitespace();
+      int start = position;
+      if (position < formula.length()) {
+        char c = formula.charAt(position);
+        if (Character.isDigit(c)) {
+          while (position < formula.length() && (Character.isDigit(formula.charAt(position)) || formula.charAt(position) == '.')) {
+            position++;
+          }
+          String number = formula.substring(start, position);
+          if (!BigFraction.DECIMAL_PATTERN.matcher(number).matches()) {
+            position = start;
+            throw error("illegal number '" + number + "'");
+          }
+          return Node.constant(BigFraction.valueOf(number));
+        }
+        if (Character.isLetter(c) || c == '_') {
+          while (position < formula.length() && (Character.isLetterOrDigit(formula.charAt(position)) || formula.charAt(position) == '_')) {
+            position++;
+          }
+          String name = formula.substring(start, position);
+          int index = variables.indexOf(name);
+          if (index < 0) {
+            index = variables.size();
+            variables.add(name);
+          }
+          return Node.variable(index);
+        }
+      }
+      throw error("number, variable or '(' expected");
+    }
+
+    /**
+     * Skip whitespace, and consume the next character if it is the expected one.
+     *
+     * @param expected The expected character
+     * @return {@code true} if the character was consumed, {@code false} otherwise.
+     */
+    private boolean accept(char expected) {
+      skipWhitespace();
+      if (position < formula.length() && formula.charAt(position) == expected) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Skip any whitespace.
+     */
+    private void skipWhitespace() {
+      while (position < formula.length() && Character.isWhitespace(formula.charAt(position))) {
+        position++;
+      }
+    }
+
+    /**
+     * @param reason The reason
+     * @return an exception describing a syntax error at the current position
+     */
+    private IllegalArgumentException error(String reason) {
+      return new IllegalArgumentException("illegal formula '" + formula + "': " + reason + " at position " + position + ".");
+    }
+  }
+
+  /**
+   * Flattens a folded syntax tree into a register program.
+   */
+  private static final class Compiler {
+
+    /**
+     * The initial registers: the variable slots, followed by the constants
+     */
+    final List<BigFraction> registers = new ArrayList<>();
+
+    /**
+     * The operations
+     */
+    final List<Op> ops = new ArrayList<>();
+
+    /**
+     * The first operand registers
+     */
+    final List<Integer> operands1 = new ArrayList<>();
+
+    /**
+     * The second operand registers, or exponents
+     */
+    final List<Integer> operands2 = new ArrayList<>();
+
+    /**
+     * The register holding the result
+     */
+    int result;
+
+    /**
+     * @param variableCount The number of variables
+     */
+    Compiler(int variableCount) {
+      for (int i = 0; i < variableCount; i++) {
+        registers.add(null);
+      }
+    }
+
+    /**
+     * Emit the instructions for a node.
+     * <p>
+     * The result registers of the instructions follow the initial registers, whose number is only known at the end. Therefore the result
+     * of instruction {@code i} is returned as {@code -(i + 1)} here, and resolved when the formula is built.
+     *
+     * @param node The node
+     * @return the register holding the value of the node
+     */
+    int emit(Node node) {
+      // post-order with explicit stacks, so that long chains do not overflow the call stack: an operation node is visited a second time
+      // once the instructions for its operands are emitted
+      Deque<Node> pending = new ArrayDeque<>();
+      Deque<Boolean> visited = new ArrayDeque<>();
+      Deque<Integer> results = new ArrayDeque<>();
+      pending.push(node);
+      visited.push(Boolean.FALSE);
+      while (!pending.isEmpty()) {
+        Node current = pending.pop();
+        if (current.value != null) {
+          visited.pop();
+          registers.add(current.value);
+          results.push(registers.size() - 1);
+        } else if (current.op == null) {
+          visited.pop();
+          results.push(current.variable);
+        } else if (!visited.pop()) {
+          pending.push(current);
+          visited.push(Boolean.TRUE);
+          // the right operand is pushed first, so that the left operand is emitted first
+          if (current.right != null) {
+            pending.push(current.right);
+            visited.push(Boolean.FALSE);
+          }
+          pending.push(current.left);
+          visited.push(Boolean.FALSE);
+        } else {
+          int right = current.right == null ? current.exponent : results.pop();
+          int left = results.pop();
+          ops.add(current.op);
+          operands1.add(left);
+          operands2.add(right);
+          results.push(-ops.size());
+        }
+      }
+      return results.pop();
+    }
+  }
+
+}
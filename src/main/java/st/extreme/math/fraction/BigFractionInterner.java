@@ -0,0 +1,275 @@
+package st.extreme.math.fraction;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A thread safe pool of canonical {@link BigFraction} instances, similar to {@link String#intern()}.
+ * <p>
+ * Large collections often hold many equal {@code BigFraction}s, each with its own two {@link java.math.BigInteger}s and their magnitude
+ * arrays. Interning all of them keeps only one instance per distinct value alive:
+ *
+ * <pre>
+ * BigFractionInterner interner = new BigFractionInterner();
+ * positions.replaceAll(interner::intern);
+ * </pre>
+ *
+ * The pool only holds weak references, so an interned value no longer referenced anywhere else is garbage collected, and its entry is
+ * removed on a later access. Small integers and fractions are answered by the instance cache of {@link BigFraction#valueOf(long)} without
+ * any pool entry.
+ * <p>
+ * The pool is split into independently locked stripes, selected by the hash code, so concurrent threads rarely contend. Every entry keeps
+ * the hash code of its value, so a lookup calculates only one hash code, and only calls {@link BigFraction#equals(Object)} on a hash
+ * match.
+ *
+ * @see BigFraction#intern()
+ */
+public final class BigFractionInterner {
+
+  /**
+   * The largest number of stripes
+   */
+  private static final int MAX_STRIPES = 1 << 16;
+
+  /**
+   * The initial table length of a stripe
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The pool used by {@link BigFraction#intern()}
+   */
+  static final BigFractionInterner SHARED = new BigFractionInterner();
+
+  /**
+   * The stripes, the length is a power of two
+   */
+  private final Stripe[] stripes;
+
+  /**
+   * The number of bits selecting the stripe
+   */
+  private final int stripeShift;
+
+  /**
+   * Create a pool with a number of stripes suitable for the available processors.
+   */
+  public BigFractionInterner() {
+    this(4 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Create a pool for an expected number of concurrently interning threads.
+   *
+   * @param concurrencyLevel The expected number of concurrently interning threads, rounded up to a power of two for the number of stripes
+   * @throws IllegalArgumentException if the concurrency level is not positive
+   */
+  public BigFractionInterner(int concurrencyLevel) {
+    if (concurrencyLevel <= 0) {
+      throw new IllegalArgumentException("the concurrency level has to be positive.");
+    }
+    int stripeCount = 1;
+    while (stripeCount < concurrencyLevel && stripeCount < MAX_STRIPES) {
+      stripeCount <<= 1;
+    }
+    stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe();
+    }
+    stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(stripeCount);
+  }
+
+  /**
+   * Return the canonical instance for a value.
+   * <p>
+   * If an equal value is already pooled, that instance is returned. Otherwise {@code value} itself is pooled and returned.
+   *
+   * @param value The value
+   * @return the canonical instance equal to {@code value}
+   */
+  public BigFraction intern(BigFraction value) {
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    BigFraction cached = SmallValueCache.lookup(value.getNumerator(), value.getDenominator());
+    if (cached != null) {
+      return cached;
+    }
+    int hash = spread(value.hashCode());
+    // the upper bits select the stripe, the lower bits the bucket within the stripe
+    Stripe stripe = stripeShift == Integer.SIZE ? stripes[0] : stripes[hash >>> stripeShift];
+    return stripe.intern(value, hash);
+  }
+
+  /**
+   * Return the number of pooled values which have not been garbage collected yet.
+   * <p>
+   * Entries of collected values are removed first, but as the garbage collector runs concurrently, the result is only an estimate.
+   *
+   * @return the number of pooled values
+   */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  /**
+   * Remove all values from the pool.
+   */
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      stripe.clear();
+    }
+  }
+
+  /**
+   * @param hash A hash code
+   * @return the hash code with its upper bits mixed into the lower ones, and vice versa
+   */
+  private static int spread(int hash) {
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * A weak reference to a pooled value, chained within a bucket.
+   */
+  private static final class Entry extends WeakReference<BigFraction> {
+
+    /**
+     * The spread hash code of the value
+     */
+    final int hash;
+
+    /**
+     * The next entry in the same bucket
+     */
+    Entry next;
+
+    /**
+     * @param value The value
+     * @param hash The spread hash code of the value
+     * @param next The next entry in the same bucket
+     * @param queue The queue receiving this entry once the value is collected
+     */
+    Entry(BigFraction value, int hash, Entry next, ReferenceQueue<BigFraction> queue) {
+      super(value, queue);
+      this.hash = hash;
+      this.next = next;
+    }
+  }
+
+  /**
+   * A separately locked hash table of weak entries.
+   */
+  private static final class Stripe {
+
+    /**
+     * The queue of entries whose values have been collected
+     */
+    private final ReferenceQueue<BigFraction> queue = new ReferenceQueue<>();
+
+    /**
+     * The buckets, the length is a power of two
+     */
+    private Entry[] table = new Entry[INITIAL_CAPACITY];
+
+    /**
+     * The number of entries, including entries of collected values not removed yet
+     */
+    private int count;
+
+    /**
+     * @param value The value
+     * @param hash The spread hash code of the value
+     * @return the pooled instance equal to {@code value}, pooled first if necessary
+     */
+    synchronized BigFraction intern(BigFraction value, int hash) {
+      expungeStaleEntries();
+      int index = hash & (table.length - 1);
+      for (Entry entry = table[index]; entry != null; entry = entry.next) {
+        if (entry.hash == hash) {
+          BigFraction pooled = entry.get();
+          if (pooled != null && pooled.equals(value)) {
+            return pooled;
+          }
+        }
+      }
+      if (count >= table.length - (table.length >>> 2)) {
+        resize();
+        index = hash & (table.length - 1);
+      }
+      table[index] = new Entry(value, hash, table[index], queue);
+      count++;
+      return value;
+    }
+
+    /**
+     * @return the number of entries, after removing the entries of collected values
+     */
+    synchronized int size() {
+      expungeStaleEntries();
+      return count;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    synchronized void clear() {
+      while (queue.poll() != null) {
+        // the entries are dropped along with the table
+      }
+      table = new Entry[INITIAL_CAPACITY];
+      count = 0;
+    }
+
+    /**
+     * Double the table length, dropping the entries of collected values on the way.
+     */
+    private void resize() {
+      Entry[] newTable = new Entry[table.length << 1];
+      int newCount = 0;
+      for (Entry head : table) {
+        Entry entry = head;
+        while (entry != null) {
+          Entry next = entry.next;
+          if (entry.get() != null) {
+            int index = entry.hash & (newTable.length - 1);
+            entry.next = newTable[index];
+            newTable[index] = entry;
+            newCount++;
+          }
+          entry = next;
+        }
+      }
+      table = newTable;
+      count = newCount;
+    }
+
+    /**
+     * Remove the entries whose values have been collected.
+     */
+    private void expungeStaleEntries() {
+      for (Object stale; (stale = queue.poll()) != null;) {
+        Entry entry = (Entry) stale;
+        int index = entry.hash & (table.length - 1);
+        Entry previous = null;
+        for (Entry current = table[index]; current != null; previous = current, current = current.next) {
+          if (current == entry) {
+            if (previous == null) {
+              table[index] = current.next;
+            } else {
+              previous.next = current.next;
+            }
+            count--;
+            break;
+          }
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+package st.extreme.math.fraction;
+
+/**
+ * An optional, bounded cache in front of {@link BigFraction#valueOf(String)}, for input repeating the same strings over and over.
+ * <p>
+ * Data feeds often contain the same few prices, rates or quantities millions of times. With a parse cache, only the first occurrence of a
+ * string runs the full parser, all further occurrences return the same instance:
+ *
+ * <pre>
+ * BigFractionParseCache parser = new BigFractionParseCache(10_000);
+ * for (String[] row : rows) {
+ *   BigFraction price = parser.parse(row[2]);
+ *   ...
+ * }
+ * </pre>
+ *
+ * The cache holds at most {@code maximumSize} strings. New strings only enter a small window first, and are only admitted into the main
+ * part of the cache if they are requested more often than the strings they would replace (see W-TinyLFU). This way, a stream of unique
+ * strings passes through without evicting the frequent ones.
+ * <p>
+ * Strings which cannot be parsed are not cached, and throw a {@link NumberFormatException} on every occurrence. As the parsed values may
+ * depend on the {@link SizePolicy}, they are cached by string and policy: after installing another policy, no value parsed under a
+ * previous one is returned. These values are evicted over time.
+ * <p>
+ * The cache is thread safe.
+ */
+public final class BigFractionParseCache {
+
+  /**
+   * The cached values by their strings and size policies
+   */
+  private final BoundedCache<Key, BigFraction> cache;
+
+  /**
+   * Create a cache for a maximum number of strings.
+   *
+   * @param maximumSize The maximum number of cached strings
+   * @throws IllegalArgumentException if the maximum size is not positive
+   */
+  public BigFractionParseCache(int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("the maximum size has to be positive.");
+    }
+    cache = new BoundedCache<>(maximumSize, 4 * Runtime.getRuntime().availableProcessors(), (key, value) -> 1);
+  }
+
+  /**
+   * Parse a string like {@link BigFraction#valueOf(String)}, returning the cached value of a string parsed before.
+   *
+   * @param text The string to be parsed
+   * @return the value of the string
+   * @throws NumberFormatException if the string cannot be parsed
+   */
+  public BigFraction parse(CharSequence text) {
+    if (text == null) {
+      throw new NullPointerException("text");
+    }
+    return cache.get(new Key(text.toString(), SizePolicy.current()), key -> BigFraction.valueOf(key.text));
+  }
+
+  /**
+   * Remove all cached values, keeping the statistics.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  /**
+   * Return a snapshot of the hit, miss and eviction counts, and of the number of cached strings.
+   *
+   * @return the statistics, whose weight is the number of cached strings
+   */
+  public CacheStatistics getStatistics() {
+    return cache.statistics();
+  }
+
+
+  /**
+   * The key of a cached value: the string, and the size policy it is parsed with.
+   */
+  private static final class Key {
+
+    /**
+     * The string
+     */
+    final String text;
+
+    /**
+     * The size policy in effect, compared by identity
+     */
+    final SizePolicy policy;
+
+    /**
+     * @param text The string
+     * @param policy The size policy in effect
+     */
+    Key(String text, SizePolicy policy) {
+      this.text = text;
+      this.policy = policy;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return policy == other.policy && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+      return text.hashCode();
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over the arithmetic progression {@code start + i * step}, for {@code i} in {@code [0, count)}.
+ * <p>
+ * Start and step are expanded to a common denominator once. The element at index {@code i} is then calculated directly as
+ * {@code (a + i * s) / d}, independent of all other elements. Splitting therefore halves the index range exactly.
+ */
+final class BigFractionRangeSpliterator implements Spliterator<BigFraction> {
+
+  /**
+   * The numerator of the start value, over the common denominator
+   */
+  private final BigInteger start;
+
+  /**
+   * The numerator of the step, over the common denominator
+   */
+  private final BigInteger step;
+
+  /**
+   * The common denominator of start and step
+   */
+  private final BigInteger denominator;
+
+  /**
+   * The next index to be emitted
+   */
+  private long index;
+
+  /**
+   * The exclusive end index
+   */
+  private final long fence;
+
+  /**
+   * @param start The numerator of the start value, over the common denominator
+   * @param step The numerator of the step, over the common denominator
+   * @param denominator The common denominator
+   * @param index The first index
+   * @param fence The exclusive end index
+   */
+  private BigFractionRangeSpliterator(BigInteger start, BigInteger step, BigInteger denominator, long index, long fence) {
+    this.start = start;
+    this.step = step;
+    this.denominator = denominator;
+    this.index = index;
+    this.fence = fence;
+  }
+
+  /**
+   * Create a spliterator over an arithmetic progression.
+   *
+   * @param start The first value
+   * @param step The difference between two neighbouring values, must not be zero
+   * @param count The number of values
+   * @return a new spliterator
+   */
+  static BigFractionRangeSpliterator of(BigFraction start, BigFraction step, long count) {
+    BigInteger startDenominator = start.getDenominator();
+    BigInteger stepDenominator = step.getDenominator();
+    BigInteger gcd = startDenominator.gcd(stepDenominator);
+    BigInteger denominator = startDenominator.divide(gcd).multiply(stepDenominator);
+    BigInteger expandedStart = start.getNumerator().multiply(denominator.divide(startDenominator));
+    BigInteger expandedStep = step.getNumerator().multiply(denominator.divide(stepDenominator));
+    return new BigFractionRangeSpliterator(expandedStart, expandedStep, denominator, 0, count);
+  }
+
+  /**
+   * Calculate the number of values of a range.
+   *
+   * @param start The first value
+   * @param end The end value
+   * @param step The difference between two neighbouring values
+   * @param inclusive {@code true} if {@code end} is part of the range (if it is reached exactly), {@code false} otherwise.
+   * @return the number of values
+   * @throws IllegalArgumentException if the step is zero, or if the range has more than {@link Long#MAX_VALUE} values
+   */
+  static long count(BigFraction start, BigFraction end, BigFraction step, boolean inclusive) {
+    if (step.signum() == 0) {
+      throw new IllegalArgumentException("the step must not be zero.");
+    }
+    BigFraction steps = end.subtract(start).divide(step);
+    if (steps.signum() < 0) {
+      return 0;
+    }
+    BigInteger[] quotientAndRemainder = steps.getNumerator().divideAndRemainder(steps.getDenominator());
+    BigInteger count = quotientAndRemainder[0];
+    if (inclusive || quotientAndRemainder[1].signum() != 0) {
+      count = count.add(BigInteger.ONE);
+    }
+    if (count.bitLength() >= Long.SIZE) {
+      throw new IllegalArgumentException("the range has more than " + Long.MAX_VALUE + " values.");
+    }
+    return count.longValue();
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super BigFraction> action) {
+    if (index >= fence) {
+      return false;
+    }
+    action.accept(element(index++));
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super BigFraction> action) {
+    long i = index;
+    index = fence;
+    for (; i < fence; i++) {
+      action.accept(element(i));
+    }
+  }
+
+  @Override
+  public Spliterator<BigFraction> trySplit() {
+    long middle = index + (fence - index) / 2;
+    if (middle <= index) {
+      return null;
+    }
+    BigFractionRangeSpliterator prefix = new BigFractionRangeSpliterator(start, step, denominator, index, middle);
+    index = middle;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return fence - index;
+  }
+
+  @Override
+  public int characteristics() {
+    int characteristics = ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
+    if (step.signum() > 0) {
+      characteristics |= SORTED;
+    }
+    return characteristics;
+  }
+
+  @Override
+  public Comparator<? super BigFraction> getComparator() {
+    if (step.signum() > 0) {
+      // natural order
+      return null;
+    }
+    throw new IllegalStateException();
+  }
+
+  /**
+   * @param i The index
+   * @return the element at index {@code i}
+   */
+  private BigFraction element(long i) {
+    return new BigFraction(start.add(step.multiply(BigInteger.valueOf(i))), denominator);
+  }
+
+}
@@ -0,0 +1,144 @@
+package st.extreme.math.fraction;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * A segment tree for range minimum or range maximum queries over a mutable array of {@link BigFraction} values.
+ * <p>
+ * Both point updates and range queries take {@code O(log n)} comparisons. For exact range sums, use a {@link BigFractionFenwickTree}.
+ * <p>
+ * <strong>This class is not thread safe.</strong>
+ */
+public final class BigFractionSegmentTree {
+
+  /**
+   * The number of values
+   */
+  private final int size;
+
+  /**
+   * The nodes, the leaves (the values) start at index {@code size}
+   */
+  private final BigFraction[] nodes;
+
+  /**
+   * Selects the minimum or the maximum of two values
+   */
+  private final BinaryOperator<BigFraction> selector;
+
+  /**
+   * @param values The initial values
+   * @param selector Selects the minimum or the maximum of two values
+   */
+  private BigFractionSegmentTree(BigFraction[] values, BinaryOperator<BigFraction> selector) {
+    this.size = values.length;
+    this.nodes = new BigFraction[2 * size];
+    this.selector = selector;
+    for (int i = 0; i < size; i++) {
+      if (values[i] == null) {
+        throw new NullPointerException("value at index " + i);
+      }
+      nodes[size + i] = values[i];
+    }
+    for (int i = size - 1; i > 0; i--) {
+      nodes[i] = selector.apply(nodes[2 * i], nodes[2 * i + 1]);
+    }
+  }
+
+  /**
+   * Create a new {@code BigFractionSegmentTree} answering range minimum queries.
+   *
+   * @param values The initial values, the array is not modified
+   * @return a new segment tree
+   */
+  public static BigFractionSegmentTree min(BigFraction[] values) {
+    return new BigFractionSegmentTree(values, (value1, value2) -> value1.compareTo(value2) <= 0 ? value1 : value2);
+  }
+
+  /**
+   * Create a new {@code BigFractionSegmentTree} answering range maximum queries.
+   *
+   * @param values The initial values, the array is not modified
+   * @return a new segment tree
+   */
+  public static BigFractionSegmentTree max(BigFraction[] values) {
+    return new BigFractionSegmentTree(values, (value1, value2) -> value1.compareTo(value2) >= 0 ? value1 : value2);
+  }
+
+  /**
+   * Return the number of values.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Return the value at an index.
+   *
+   * @param index The index
+   * @return the current value
+   */
+  public BigFraction get(int index) {
+    checkIndex(index);
+    return nodes[size + index];
+  }
+
+  /**
+   * Replace the value at an index.
+   *
+   * @param index The index
+   * @param value The new value
+   */
+  public void set(int index, BigFraction value) {
+    checkIndex(index);
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    int node = size + index;
+    nodes[node] = value;
+    for (node >>>= 1; node > 0; node >>>= 1) {
+      nodes[node] = selector.apply(nodes[2 * node], nodes[2 * node + 1]);
+    }
+  }
+
+  /**
+   * Return the minimum (or maximum) of the values in the range {@code [fromIndex, toIndex)}.
+   *
+   * @param fromIndex The inclusive start of the range
+   * @param toIndex The exclusive end of the range
+   * @return the minimum (or maximum) value
+   * @throws IllegalArgumentException if the range is empty
+   */
+  public BigFraction query(int fromIndex, int toIndex) {
+    if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) {
+      throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + size);
+    }
+    if (fromIndex == toIndex) {
+      throw new IllegalArgumentException("the range is empty.");
+    }
+    BigFraction result = null;
+    for (int left = fromIndex + size, right = toIndex + size; left < right; left >>>= 1, right >>>= 1) {
+      if ((left & 1) != 0) {
+        result = result == null ? nodes[left] : selector.apply(result, nodes[left]);
+        left++;
+      }
+      if ((right & 1) != 0) {
+        right--;
+        result = result == null ? nodes[right] : selector.apply(result, nodes[right]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param index The index to be checked
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+  }
+
+}
@@ -0,0 +1,311 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy generators for classic enumerations of the rational numbers.
+ * <p>
+ * All terms are generated by integer recurrences which only ever produce cancelled fractions, so no gcd is calculated. Numerators and
+ * denominators are calculated as {@code long} values, and only the emitted terms are converted into {@link BigFraction}s. All streams
+ * split for parallel consumption:
+ *
+ * <pre>
+ * List&lt;BigFraction&gt; grid = BigFractionSequences.farey(1000).parallel().collect(Collectors.toList());
+ * </pre>
+ */
+public final class BigFractionSequences {
+
+  /**
+   * The maximum depth of a Stern-Brocot or Calkin-Wilf tree, so that the number of nodes fits into a {@code long}
+   */
+  private static final int MAX_DEPTH = 62;
+
+  /**
+   * No instances
+   */
+  private BigFractionSequences() {
+  }
+
+  /**
+   * Create an ordered stream of the Farey sequence {@code F(n)}: all cancelled fractions in the range {@code [0, 1]} with a denominator
+   * of at most {@code n}, in ascending order.
+   * <p>
+   * Every term is derived from its two predecessors by the recurrence {@code a/b, c/d -> c/d, (k*c - a)/(k*d - b)}, with
+   * {@code k = (n + b) / d}. A split searches the simplest fraction near the middle of the remaining range, and calculates its successor
+   * by a modular inverse.
+   *
+   * @param n The maximum denominator, has to be positive
+   * @return a stream of the terms of {@code F(n)}, starting with {@code 0} and ending with {@code 1}
+   * @throws IllegalArgumentException if {@code n} is not positive
+   */
+  public static Stream<BigFraction> farey(int n) {
+    if (n < 1) {
+      throw new IllegalArgumentException("the maximum denominator has to be positive.");
+    }
+    return StreamSupport.stream(new FareySpliterator(n, 0, 1, 1, n, 2, 1), false);
+  }
+
+  /**
+   * Create an ordered stream of the first {@code count} terms of the Calkin-Wilf sequence {@code 1, 1/2, 2, 1/3, 3/2, 2/3, 3, 1/4, ...},
+   * which enumerates every positive rational number exactly once.
+   * <p>
+   * The term at index {@code i} is the node {@code i + 1} of the Calkin-Wilf tree in breadth first order, and is calculated directly from
+   * the bits of {@code i + 1}. The stream is therefore {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED}.
+   *
+   * @param count The number of terms, has to be in the range {@code [0, 2^62)}
+   * @return a stream of the first {@code count} terms
+   * @throws IllegalArgumentException if {@code count} is out of range
+   */
+  public static Stream<BigFraction> calkinWilf(long count) {
+    if (count < 0 || count >= 1L << MAX_DEPTH) {
+      throw new IllegalArgumentException("the count " + count + " is not in the range [0, 2^" + MAX_DEPTH + ").");
+    }
+    return LongStream.range(1, count + 1).mapToObj(BigFractionSequences::calkinWilfNode);
+  }
+
+  /**
+   * Create an ordered stream of all nodes of the first {@code depth} levels of the Stern-Brocot tree, in ascending order.
+   * <p>
+   * The node at index {@code i} is calculated directly from the path to the in-order position {@code i + 1}, by at most {@code depth}
+   * mediants. The stream is {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED}, and holds {@code 2^depth - 1} values.
+   *
+   * @param depth The number of levels, has to be in the range {@code [0, 62]}
+   * @return a stream of the nodes of the truncated tree
+   * @throws IllegalArgumentException if {@code depth} is out of range
+   */
+  public static Stream<BigFraction> sternBrocot(int depth) {
+    if (depth < 0 || depth > MAX_DEPTH) {
+      throw new IllegalArgumentException("the depth " + depth + " is not in the range [0, " + MAX_DEPTH + "].");
+    }
+    return LongStream.range(1, 1L << depth).mapToObj(position -> sternBrocotNode(depth, position));
+  }
+
+  /**
+   * @param index The 1-based breadth first index of the node
+   * @return the node of the Calkin-Wilf tree
+   */
+  private static BigFraction calkinWilfNode(long index) {
+    long numerator = 1;
+    long denominator = 1;
+    // below the root, a 0 bit leads to the left child a/(a+b), and a 1 bit to the right child (a+b)/b
+    for (int bit = 62 - Long.numberOfLeadingZeros(index); bit >= 0; bit--) {
+      if ((index >>> bit & 1) == 0) {
+        denominator += numerator;
+      } else {
+        numerator += denominator;
+      }
+    }
+    return of(numerator, denominator);
+  }
+
+  /**
+   * @param depth The number of levels of the tree
+   * @param position The 1-based in-order position of the node
+   * @return the node of the Stern-Brocot tree
+   */
+  private static BigFraction sternBrocotNode(int depth, long position) {
+    long lowerNumerator = 0;
+    long lowerDenominator = 1;
+    long upperNumerator = 1;
+    long upperDenominator = 0;
+    long node = 1L << (depth - 1);
+    long step = node >>> 1;
+    while (position != node) {
+      if (position < node) {
+        upperNumerator += lowerNumerator;
+        upperDenominator += lowerDenominator;
+        node -= step;
+      } else {
+        lowerNumerator += upperNumerator;
+        lowerDenominator += upperDenominator;
+        node += step;
+      }
+      step >>>= 1;
+    }
+    return of(lowerNumerator + upperNumerator, lowerDenominator + upperDenominator);
+  }
+
+  /**
+   * @param numerator The numerator, coprime to {@code denominator}
+   * @param denominator The positive denominator
+   * @return the corresponding {@link BigFraction}
+   */
+  private static BigFraction of(long numerator, long denominator) {
+    return BigFraction.ofCancelled(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+  }
+
+  /**
+   * Find the fraction with the smallest denominator in the open interval {@code (x, y)}.
+   *
+   * @param xNumerator The numerator of {@code x}, not negative
+   * @param xDenominator The positive denominator of {@code x}
+   * @param yNumerator The numerator of {@code y}, greater than {@code x}
+   * @param yDenominator The denominator of {@code y}, {@code 0} if {@code y} is infinite
+   * @return an array holding the numerator and the denominator of the simplest fraction
+   */
+  static BigInteger[] simplestBetween(BigInteger xNumerator, BigInteger xDenominator, BigInteger yNumerator, BigInteger yDenominator) {
+    BigInteger floor = xNumerator.divide(xDenominator);
+    BigInteger next = floor.add(BigInteger.ONE);
+    if (next.multiply(yDenominator).compareTo(yNumerator) < 0) {
+      return new BigInteger[] { next, BigInteger.ONE };
+    }
+    // both values are in [floor, floor + 1]: continue with the reciprocals of the fractional parts
+    BigInteger xFraction = xNumerator.subtract(floor.multiply(xDenominator));
+    BigInteger yFraction = yNumerator.subtract(floor.multiply(yDenominator));
+    BigInteger[] reciprocal = simplestBetween(yDenominator, yFraction, xDenominator, xFraction);
+    return new BigInteger[] { floor.multiply(reciprocal[0]).add(reciprocal[1]), reciprocal[0] };
+  }
+
+  /**
+   * A {@link Spliterator} over the terms of a Farey sequence within a range.
+   */
+  private static final class FareySpliterator implements Spliterator<BigFraction> {
+
+    /**
+     * The maximum denominator
+     */
+    private final long n;
+
+    /**
+     * The numerator of the next term to be emitted
+     */
+    private long a;
+
+    /**
+     * The denominator of the next term to be emitted
+     */
+    private long b;
+
+    /**
+     * The numerator of the successor of the next term
+     */
+    private long c;
+
+    /**
+     * The denominator of the successor of the next term
+     */
+    private long d;
+
+    /**
+     * The numerator of the exclusive upper bound
+     */
+    private final long endNumerator;
+
+    /**
+     * The denominator of the exclusive upper bound
+     */
+    private final long endDenominator;
+
+    /**
+     * {@code true} if all terms have been emitted
+     */
+    private boolean done;
+
+    /**
+     * @param n The maximum denominator
+     * @param a The numerator of the first term
+     * @param b The denominator of the first term
+     * @param c The numerator of the successor of the first term
+     * @param d The denominator of the successor of the first term
+     * @param endNumerator The numerator of the exclusive upper bound
+     * @param endDenominator The denominator of the exclusive upper bound
+     */
+    FareySpliterator(long n, long a, long b, long c, long d, long endNumerator, long endDenominator) {
+      this.n = n;
+      this.a = a;
+      this.b = b;
+      this.c = c;
+      this.d = d;
+      this.endNumerator = endNumerator;
+      this.endDenominator = endDenominator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super BigFraction> action) {
+      if (done) {
+        return false;
+      }
+      action.accept(of(a, b));
+      if (a == b || c * endDenominator >= endNumerator * d) {
+        // 1 is the last term of every Farey sequence
+        done = true;
+      } else {
+        long k = (n + b) / d;
+        long e = k * c - a;
+        long f = k * d - b;
+        a = c;
+        b = d;
+        c = e;
+        d = f;
+      }
+      return true;
+    }
+
+    @Override
+    public Spliterator<BigFraction> trySplit() {
+      if (done) {
+        return null;
+      }
+      // the split point has to be a term strictly between the next term and min(end, 1)
+      BigFraction lower = of(a, b);
+      BigFraction upper = endNumerator < endDenominator ? of(endNumerator, endDenominator) : BigFraction.ONE;
+      BigFraction quarter = upper.subtract(lower).divide(BigFraction.valueOf(4));
+      BigInteger[] split = simplestBetween(lower.add(quarter), upper.subtract(quarter));
+      if (split[1].bitLength() >= Long.SIZE || split[1].longValue() > n) {
+        split = simplestBetween(lower, upper);
+        if (split[1].bitLength() >= Long.SIZE || split[1].longValue() > n) {
+          return null;
+        }
+      }
+      long s = split[0].longValue();
+      long t = split[1].longValue();
+      // the successor e/f of s/t satisfies t*e - s*f = 1, with the largest possible f
+      long f0 = t - split[0].modInverse(split[1]).longValue();
+      long f = f0 + t * ((n - f0) / t);
+      long e = (1 + s * f) / t;
+      FareySpliterator prefix = new FareySpliterator(n, a, b, c, d, s, t);
+      a = s;
+      b = t;
+      c = e;
+      d = f;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      if (done) {
+        return 0;
+      }
+      // F(n) holds about 3n^2/pi^2 terms, distributed almost evenly over [0, 1]
+      double range = Math.min((double) endNumerator / endDenominator, 1) - (double) a / b;
+      return (long) (3 / (Math.PI * Math.PI) * n * n * range) + 1;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super BigFraction> getComparator() {
+      // natural order
+      return null;
+    }
+
+    /**
+     * @param x The lower bound, not negative
+     * @param y The upper bound
+     * @return the fraction with the smallest denominator in {@code (x, y)}
+     */
+    private static BigInteger[] simplestBetween(BigFraction x, BigFraction y) {
+      return BigFractionSequences.simplestBetween(x.getNumerator(), x.getDenominator(), y.getNumerator(), y.getDenominator());
+    }
+  }
+
+}
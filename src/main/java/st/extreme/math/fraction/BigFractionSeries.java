@@ -0,0 +1,271 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * Exact partial sums of hypergeometric-type series, evaluated by binary splitting.
+ * <p>
+ * A series is defined by integer valued functions {@code p(k)}, {@code q(k)}, {@code a(k)} and optionally {@code b(k)}. The partial sum
+ * of the first {@code n} terms is
+ *
+ * <pre>
+ * S(n) = sum(k = 0 .. n-1) a(k) / b(k) * p(0) * ... * p(k) / (q(0) * ... * q(k))
+ * </pre>
+ *
+ * Adding up the terms one by one multiplies ever growing numbers with small ones, and calculates a gcd on every step. Binary splitting
+ * instead splits the index range into halves recursively, and combines the integer products of both halves:
+ *
+ * <pre>
+ * P = P1 * P2, Q = Q1 * Q2, B = B1 * B2, T = B2 * Q2 * T1 + B1 * P1 * T2
+ * </pre>
+ *
+ * The numbers multiplied are therefore always of similar size, and {@code S(n) = T / (B * Q)} is cancelled once at the end. Large ranges
+ * are split in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Examples:
+ *
+ * <pre>
+ * // harmonic number H(n) = 1 + 1/2 + ... + 1/n
+ * BigFractionSeries harmonic = BigFractionSeries.of(k -&gt; BigInteger.ONE, k -&gt; BigInteger.ONE, k -&gt; BigInteger.ONE,
+ *     k -&gt; BigInteger.valueOf(k + 1));
+ * // Taylor polynomial of e: 1 + 1/1! + 1/2! + ... + 1/(n-1)!
+ * BigFractionSeries e = BigFractionSeries.of(k -&gt; BigInteger.ONE, k -&gt; BigInteger.valueOf(Math.max(k, 1)), k -&gt; BigInteger.ONE);
+ * BigFraction h = harmonic.sum(100_000);
+ * </pre>
+ */
+public final class BigFractionSeries {
+
+  /**
+   * The number of terms from which on a range is split in parallel
+   */
+  private static final long PARALLEL_THRESHOLD = 512;
+
+  /**
+   * The factor function {@code p(k)}
+   */
+  private final LongFunction<BigInteger> p;
+
+  /**
+   * The divisor function {@code q(k)}
+   */
+  private final LongFunction<BigInteger> q;
+
+  /**
+   * The coefficient function {@code a(k)}
+   */
+  private final LongFunction<BigInteger> a;
+
+  /**
+   * The coefficient divisor function {@code b(k)}, {@code null} if all divisors are {@code 1}
+   */
+  private final LongFunction<BigInteger> b;
+
+  /**
+   * @param p The factor function
+   * @param q The divisor function
+   * @param a The coefficient function
+   * @param b The coefficient divisor function, may be {@code null}
+   */
+  private BigFractionSeries(LongFunction<BigInteger> p, LongFunction<BigInteger> q, LongFunction<BigInteger> a,
+      LongFunction<BigInteger> b) {
+    this.p = p;
+    this.q = q;
+    this.a = a;
+    this.b = b;
+  }
+
+  /**
+   * Create a series with the terms {@code a(k) * p(0) * ... * p(k) / (q(0) * ... * q(k))}.
+   *
+   * @param p The factor function
+   * @param q The divisor function, must never return {@code 0}
+   * @param a The coefficient function
+   * @return a new series
+   */
+  public static BigFractionSeries of(LongFunction<BigInteger> p, LongFunction<BigInteger> q, LongFunction<BigInteger> a) {
+    requireNonNull(p, "p");
+    requireNonNull(q, "q");
+    requireNonNull(a, "a");
+    return new BigFractionSeries(p, q, a, null);
+  }
+
+  /**
+   * Create a series with the terms {@code a(k) / b(k) * p(0) * ... * p(k) / (q(0) * ... * q(k))}.
+   *
+   * @param p The factor function
+   * @param q The divisor function, must never return {@code 0}
+   * @param a The coefficient function
+   * @param b The coefficient divisor function, must never return {@code 0}
+   * @return a new series
+   */
+  public static BigFractionSeries of(LongFunction<BigInteger> p, LongFunction<BigInteger> q, LongFunction<BigInteger> a,
+      LongFunction<BigInteger> b) {
+    requireNonNull(p, "p");
+    requireNonNull(q, "q");
+    requireNonNull(a, "a");
+    requireNonNull(b, "b");
+    return new BigFractionSeries(p, q, a, b);
+  }
+
+  /**
+   * Calculate the exact sum of the first {@code n} terms, in parallel on the common {@link ForkJoinPool}.
+   *
+   * @param n The number of terms, must not be negative
+   * @return the partial sum, {@link BigFraction#ZERO} for {@code n == 0}
+   * @throws IllegalArgumentException if {@code n} is negative
+   * @throws ArithmeticException if a divisor is {@code 0}
+   */
+  public BigFraction sum(long n) {
+    return sum(n, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Calculate the exact sum of the first {@code n} terms, in parallel on the given {@link ForkJoinPool}.
+   *
+   * @param n The number of terms, must not be negative
+   * @param pool The pool to run the evaluation on
+   * @return the partial sum, {@link BigFraction#ZERO} for {@code n == 0}
+   * @throws IllegalArgumentException if {@code n} is negative
+   * @throws ArithmeticException if a divisor is {@code 0}
+   */
+  public BigFraction sum(long n, ForkJoinPool pool) {
+    if (n < 0) {
+      throw new IllegalArgumentException("the number of terms must not be negative.");
+    }
+    if (n == 0) {
+      return BigFraction.ZERO;
+    }
+    Split split = n < PARALLEL_THRESHOLD ? evaluate(0, n) : pool.invoke(new SplitTask(0, n));
+    BigInteger denominator = split.b == null ? split.q : split.b.multiply(split.q);
+    return new BigFraction(split.t, denominator);
+  }
+
+  /**
+   * Evaluate the range {@code [from, to)} sequentially.
+   *
+   * @param from The inclusive start index
+   * @param to The exclusive end index
+   * @return the products and the partial sum of the range
+   */
+  private Split evaluate(long from, long to) {
+    if (to - from == 1) {
+      BigInteger pk = p.apply(from);
+      return new Split(pk, q.apply(from), b == null ? null : b.apply(from), a.apply(from).multiply(pk));
+    }
+    long middle = from + (to - from) / 2;
+    return evaluate(from, middle).combine(evaluate(middle, to));
+  }
+
+  /**
+   * @param value The value to be checked
+   * @param name The name of the parameter
+   */
+  private static void requireNonNull(Object value, String name) {
+    if (value == null) {
+      throw new NullPointerException(name);
+    }
+  }
+
+  /**
+   * The products {@code P}, {@code Q}, {@code B} and the scaled partial sum {@code T} of an index range.
+   */
+  private static final class Split {
+
+    /**
+     * The product of all {@code p(k)}
+     */
+    final BigInteger p;
+
+    /**
+     * The product of all {@code q(k)}
+     */
+    final BigInteger q;
+
+    /**
+     * The product of all {@code b(k)}, {@code null} if there are no coefficient divisors
+     */
+    final BigInteger b;
+
+    /**
+     * The partial sum of the range, multiplied by {@code B * Q}
+     */
+    final BigInteger t;
+
+    /**
+     * @param p The product of all {@code p(k)}
+     * @param q The product of all {@code q(k)}
+     * @param b The product of all {@code b(k)}, may be {@code null}
+     * @param t The scaled partial sum
+     */
+    Split(BigInteger p, BigInteger q, BigInteger b, BigInteger t) {
+      this.p = p;
+      this.q = q;
+      this.b = b;
+      this.t = t;
+    }
+
+    /**
+     * Combine this range with the directly following one.
+     *
+     * @param right The range following this one
+     * @return the combined range
+     */
+    Split combine(Split right) {
+      BigInteger leftT = right.q.multiply(t);
+      BigInteger rightT = p.multiply(right.t);
+      BigInteger combinedB = null;
+      if (b != null) {
+        leftT = leftT.multiply(right.b);
+        rightT = rightT.multiply(b);
+        combinedB = b.multiply(right.b);
+      }
+      return new Split(p.multiply(right.p), q.multiply(right.q), combinedB, leftT.add(rightT));
+    }
+  }
+
+  /**
+   * Evaluate an index range, splitting it in parallel as long as it is big enough.
+   */
+  private final class SplitTask extends RecursiveTask<Split> {
+
+    /**
+     * Serialization is not supported, this just keeps the compiler happy
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The inclusive start index
+     */
+    private final long from;
+
+    /**
+     * The exclusive end index
+     */
+    private final long to;
+
+    /**
+     * @param from The inclusive start index
+     * @param to The exclusive end index
+     */
+    SplitTask(long from, long to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Split compute() {
+      if (to - from < PARALLEL_THRESHOLD) {
+        return evaluate(from, to);
+      }
+      long middle = from + (to - from) / 2;
+      SplitTask left = new SplitTask(from, middle);
+      left.fork();
+      Split right = new SplitTask(middle, to).compute();
+      return left.join().combine(right);
+    }
+  }
+
+}
@@ -0,0 +1,348 @@
+package st.extreme.math.fraction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A sheet of named cells, holding either {@link BigFraction} input values or {@link BigFractionFormula}s over other cells, which is
+ * recalculated incrementally.
+ * <p>
+ * The sheet tracks the dependencies between its cells. A change of a cell only marks the cells depending on it (directly or
+ * transitively) as dirty, and only these are recalculated, on {@link #recalculate()}. {@link #get(String)} only recalculates the dirty
+ * cells the requested cell depends on. The dirty cells are recalculated in waves: a wave holds all dirty cells whose dependencies are up
+ * to date, and the cells of a wave are independent of each other, so large waves are evaluated in parallel.
+ *
+ * <pre>
+ * BigFractionSheet sheet = new BigFractionSheet();
+ * sheet.setValue("price", BigFraction.valueOf("19.99"));
+ * sheet.setValue("quantity", BigFraction.valueOf(3));
+ * sheet.setFormula("net", "price * quantity");
+ * sheet.setFormula("gross", "net * 119/100");
+ * sheet.get("gross");
+ * sheet.setValue("quantity", BigFraction.valueOf(4)); // only net and gross are recalculated
+ * </pre>
+ *
+ * A formula may refer to cells which are defined later, but a formula making a cell depend on itself is rejected.
+ * <p>
+ * <strong>This class is not thread safe.</strong>
+ */
+public final class BigFractionSheet {
+
+  /**
+   * The size of a wave from which on its cells are evaluated in parallel
+   */
+  private static final int PARALLEL_THRESHOLD = 16;
+
+  /**
+   * The cells by name, including cells only referred to by formulas so far
+   */
+  private final Map<String, Cell> cells;
+
+  /**
+   * The formula cells which have to be recalculated
+   */
+  private final Set<Cell> dirty;
+
+  /**
+   * The number of formula evaluations so far
+   */
+  private long evaluationCount;
+
+  /**
+   * Create a new, empty sheet.
+   */
+  public BigFractionSheet() {
+    cells = new HashMap<>();
+    dirty = new LinkedHashSet<>();
+  }
+
+  /**
+   * Set a cell to an input value, replacing its formula if it had one.
+   *
+   * @param name The name of the cell
+   * @param value The value
+   */
+  public void setValue(String name, BigFraction value) {
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    Cell cell = cell(name);
+    cell.detach();
+    cell.formula = null;
+    cell.value = value;
+    dirty.remove(cell);
+    markDependentsDirty(cell);
+  }
+
+  /**
+   * Set a cell to a formula, whose variables are the names of other cells.
+   *
+   * @param name The name of the cell
+   * @param formula The formula, see {@link BigFractionFormula}
+   * @throws IllegalArgumentException if the formula is not valid, or if the cell would depend on itself. The sheet remains unchanged.
+   */
+  public void setFormula(String name, String formula) {
+    BigFractionFormula compiled = BigFractionFormula.compile(formula);
+    Cell cell = cell(name);
+    List<String> variables = compiled.getVariables();
+    Cell[] dependencies = new Cell[variables.size()];
+    for (int i = 0; i < dependencies.length; i++) {
+      String variable = variables.get(i);
+      if (variable.equals(name) || cell.isReachableFrom(variable)) {
+        throw new IllegalArgumentException("cell '" + name + "' would depend on itself through '" + variable + "'.");
+      }
+      dependencies[i] = cell(variable);
+    }
+    cell.detach();
+    cell.formula = compiled;
+    cell.dependencies = dependencies;
+    for (Cell dependency : dependencies) {
+      dependency.dependents.add(cell);
+    }
+    cell.value = null;
+    dirty.add(cell);
+    markDependentsDirty(cell);
+  }
+
+  /**
+   * Return the current value of a cell, recalculating the dirty cells it depends on first if necessary.
+   *
+   * @param name The name of the cell
+   * @return the value of the cell
+   * @throws IllegalArgumentException if there is no such cell
+   * @throws IllegalStateException if the formula of the cell or of a cell it depends on refers to a cell which is not defined
+   * @throws ArithmeticException if the formula of the cell or of a cell it depends on divides by zero
+   */
+  public BigFraction get(String name) {
+    Cell cell = cells.get(name);
+    if (cell == null || !cell.isDefined()) {
+      throw new IllegalArgumentException("cell '" + name + "' is not defined.");
+    }
+    if (dirty.contains(cell)) {
+      // the dependencies of a clean cell are clean as well, so the search stops there
+      Set<Cell> required = new LinkedHashSet<>();
+      Deque<Cell> pending = new ArrayDeque<>();
+      pending.push(cell);
+      while (!pending.isEmpty()) {
+        Cell dependency = pending.pop();
+        if (dirty.contains(dependency) && required.add(dependency)) {
+          pending.addAll(Arrays.asList(dependency.dependencies));
+        }
+      }
+      recalculate(required);
+    }
+    return cell.value;
+  }
+
+  /**
+   * Return the names of all cells depending on a cell, directly or transitively.
+   *
+   * @param name The name of the cell
+   * @return the names of the dependent cells, empty if there is no such cell
+   */
+  public Set<String> getDependents(String name) {
+    Set<String> result = new LinkedHashSet<>();
+    Cell cell = cells.get(name);
+    if (cell != null) {
+      Deque<Cell> pending = new ArrayDeque<>(cell.dependents);
+      while (!pending.isEmpty()) {
+        Cell dependent = pending.pop();
+        if (result.add(dependent.name)) {
+          pending.addAll(dependent.dependents);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Recalculate all dirty cells.
+   *
+   * @throws IllegalStateException if a formula refers to a cell which is not defined
+   * @throws ArithmeticException if a formula divides by zero; the failing cell and the cells depending on it remain dirty
+   */
+  public void recalculate() {
+    if (!dirty.isEmpty()) {
+      recalculate(new ArrayList<>(dirty));
+    }
+  }
+
+  /**
+   * Recalculate some of the dirty cells.
+   *
+   * @param cells The dirty cells to be recalculated, including all dirty cells they depend on
+   * @throws IllegalStateException if a formula refers to a cell which is not defined
+   * @throws ArithmeticException if a formula divides by zero; the failing cell and the cells depending on it remain dirty
+   */
+  private void recalculate(Collection<Cell> cells) {
+    // count the dirty dependencies of every cell, the first wave are the cells without any
+    Map<Cell, int[]> pending = new HashMap<>();
+    List<Cell> wave = new ArrayList<>();
+    for (Cell cell : cells) {
+      int count = 0;
+      for (Cell dependency : cell.dependencies) {
+        if (dirty.contains(dependency)) {
+          count++;
+        }
+      }
+      pending.put(cell, new int[] { count });
+      if (count == 0) {
+        wave.add(cell);
+      }
+    }
+    while (!wave.isEmpty()) {
+      if (wave.size() >= PARALLEL_THRESHOLD) {
+        wave.parallelStream().forEach(Cell::evaluate);
+      } else {
+        wave.forEach(Cell::evaluate);
+      }
+      evaluationCount += wave.size();
+      List<Cell> next = new ArrayList<>();
+      for (Cell cell : wave) {
+        dirty.remove(cell);
+        for (Cell dependent : cell.dependents) {
+          int[] count = pending.get(dependent);
+          if (count != null && --count[0] == 0) {
+            next.add(dependent);
+          }
+        }
+      }
+      wave = next;
+    }
+  }
+
+  /**
+   * Return the number of formula evaluations performed by this sheet so far.
+   *
+   * @return the number of evaluations
+   */
+  public long getEvaluationCount() {
+    return evaluationCount;
+  }
+
+  /**
+   * @param name The name of the cell
+   * @return the cell with that name, created if necessary
+   */
+  private Cell cell(String name) {
+    if (name == null) {
+      throw new NullPointerException("name");
+    }
+    return cells.computeIfAbsent(name, Cell::new);
+  }
+
+  /**
+   * Mark all formula cells depending on a cell as dirty.
+   *
+   * @param cell The changed cell
+   */
+  private void markDependentsDirty(Cell cell) {
+    Deque<Cell> pending = new ArrayDeque<>(cell.dependents);
+    while (!pending.isEmpty()) {
+      Cell dependent = pending.pop();
+      if (dirty.add(dependent)) {
+        pending.addAll(dependent.dependents);
+      }
+    }
+  }
+
+  /**
+   * A cell of the sheet.
+   */
+  private final class Cell {
+
+    /**
+     * The name
+     */
+    final String name;
+
+    /**
+     * The cells whose formulas refer to this cell
+     */
+    final Set<Cell> dependents = new HashSet<>();
+
+    /**
+     * The formula, {@code null} for an input cell
+     */
+    BigFractionFormula formula;
+
+    /**
+     * The cells referred to by the formula, in the order of its variables
+     */
+    Cell[] dependencies = new Cell[0];
+
+    /**
+     * The current value, {@code null} if the cell is not defined or not yet calculated
+     */
+    volatile BigFraction value;
+
+    /**
+     * @param name The name
+     */
+    Cell(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return {@code true} if the cell holds a value or a formula, {@code false} if it is only referred to.
+     */
+    boolean isDefined() {
+      return formula != null || value != null;
+    }
+
+    /**
+     * Determine if the cell with a given name depends on this cell, directly or transitively.
+     *
+     * @param other The name of the other cell
+     * @return {@code true} if {@code other} is a dependent of this cell
+     */
+    boolean isReachableFrom(String other) {
+      Set<Cell> visited = new HashSet<>();
+      Deque<Cell> pending = new ArrayDeque<>(dependents);
+      while (!pending.isEmpty()) {
+        Cell dependent = pending.pop();
+        if (dependent.name.equals(other)) {
+          return true;
+        }
+        if (visited.add(dependent)) {
+          pending.addAll(dependent.dependents);
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Remove this cell from the dependents of its dependencies.
+     */
+    void detach() {
+      for (Cell dependency : dependencies) {
+        dependency.dependents.remove(this);
+      }
+      dependencies = new Cell[0];
+    }
+
+    /**
+     * Evaluate the formula of this cell, whose dependencies are up to date.
+     */
+    void evaluate() {
+      BigFraction[] values = new BigFraction[dependencies.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = dependencies[i].value;
+        if (values[i] == null) {
+          throw new IllegalStateException("cell '" + dependencies[i].name + "' referred to by '" + name + "' is not defined.");
+        }
+      }
+      value = formula.evaluate(values);
+    }
+  }
+
+}
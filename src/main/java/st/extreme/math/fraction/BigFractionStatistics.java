@@ -0,0 +1,294 @@
+package st.extreme.math.fraction;
+
+import java.util.function.Consumer;
+
+/**
+ * A one-pass, mergeable state object for exact descriptive statistics of {@link BigFraction} observations: mean, variance, covariance and
+ * the least squares regression line.
+ * <p>
+ * Only the count and the sums of the observations, of their squares and of their cross products are collected, each in a
+ * {@link BigFractionAccumulator} over a common denominator. All statistics are derived from these sums exactly, so there is no need for a
+ * second pass over the data. Partial states can be merged by {@link #combine(BigFractionStatistics)}, which makes this class suitable for
+ * parallel streams:
+ *
+ * <pre>
+ * BigFractionStatistics statistics = points.parallelStream().collect(BigFractionCollectors.statistics(Point::getX, Point::getY));
+ * BigFraction slope = statistics.getSlope();
+ * </pre>
+ *
+ * Single observations are recorded by {@link #accept(BigFraction)}, pairs of observations by {@link #accept(BigFraction, BigFraction)}.
+ * The statistics involving {@code y} require all observations to be pairs.
+ * <p>
+ * <strong>This class is not thread safe.</strong>
+ */
+public final class BigFractionStatistics implements Consumer<BigFraction> {
+
+  /**
+   * The number of observations
+   */
+  private long count;
+
+  /**
+   * The number of observations being pairs
+   */
+  private long pairCount;
+
+  /**
+   * The sum of all {@code x}
+   */
+  private final BigFractionAccumulator sumX = new BigFractionAccumulator();
+
+  /**
+   * The sum of all {@code x*x}
+   */
+  private final BigFractionAccumulator sumXX = new BigFractionAccumulator();
+
+  /**
+   * The sum of all {@code y}
+   */
+  private final BigFractionAccumulator sumY = new BigFractionAccumulator();
+
+  /**
+   * The sum of all {@code y*y}
+   */
+  private final BigFractionAccumulator sumYY = new BigFractionAccumulator();
+
+  /**
+   * The sum of all {@code x*y}
+   */
+  private final BigFractionAccumulator sumXY = new BigFractionAccumulator();
+
+  /**
+   * Record a single observation {@code x}.
+   *
+   * @param x the observation
+   */
+  @Override
+  public void accept(BigFraction x) {
+    count++;
+    sumX.add(x);
+    sumXX.addProduct(x, x);
+  }
+
+  /**
+   * Record a pair of observations {@code (x, y)}.
+   *
+   * @param x the observation of the independent variable
+   * @param y the observation of the dependent variable
+   */
+  public void accept(BigFraction x, BigFraction y) {
+    accept(x);
+    pairCount++;
+    sumY.add(y);
+    sumYY.addProduct(y, y);
+    sumXY.addProduct(x, y);
+  }
+
+  /**
+   * Combine the state of another {@code BigFractionStatistics} into this one.
+   *
+   * @param other another {@code BigFractionStatistics}
+   */
+  public void combine(BigFractionStatistics other) {
+    count += other.count;
+    pairCount += other.pairCount;
+    sumX.add(other.sumX);
+    sumXX.add(other.sumXX);
+    sumY.add(other.sumY);
+    sumYY.add(other.sumYY);
+    sumXY.add(other.sumXY);
+  }
+
+  /**
+   * Return the number of observations.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Return the exact sum of all {@code x}.
+   *
+   * @return the sum
+   */
+  public BigFraction getSum() {
+    return sumX.toBigFraction();
+  }
+
+  /**
+   * Return the exact sum of the squares of all {@code x}.
+   *
+   * @return the sum of squares
+   */
+  public BigFraction getSumOfSquares() {
+    return sumXX.toBigFraction();
+  }
+
+  /**
+   * Return the exact arithmetic mean of all {@code x}.
+   *
+   * @return the mean, {@link BigFraction#ZERO} if there are no observations
+   */
+  public BigFraction getMean() {
+    if (count == 0) {
+      return BigFraction.ZERO;
+    }
+    return getSum().divide(BigFraction.valueOf(count));
+  }
+
+  /**
+   * Return the exact population variance of all {@code x}, i.e. the sum of the squared deviations from the mean, divided by {@code n}.
+   *
+   * @return the population variance, {@link BigFraction#ZERO} if there are no observations
+   */
+  public BigFraction getVariance() {
+    if (count == 0) {
+      return BigFraction.ZERO;
+    }
+    return centeredSumOfProducts(sumX, sumX, sumXX).divide(BigFraction.valueOf(count).pow(2));
+  }
+
+  /**
+   * Return the exact sample variance of all {@code x}, i.e. the sum of the squared deviations from the mean, divided by {@code n - 1}.
+   *
+   * @return the sample variance
+   * @throws IllegalStateException if there are less than two observations
+   */
+  public BigFraction getSampleVariance() {
+    checkCount(2);
+    return centeredSumOfProducts(sumX, sumX, sumXX).divide(BigFraction.valueOf(count).multiply(BigFraction.valueOf(count - 1)));
+  }
+
+  /**
+   * Return the exact sum of all {@code y}.
+   *
+   * @return the sum
+   * @throws IllegalStateException if not all observations are pairs
+   */
+  public BigFraction getSumY() {
+    checkPairs();
+    return sumY.toBigFraction();
+  }
+
+  /**
+   * Return the exact arithmetic mean of all {@code y}.
+   *
+   * @return the mean, {@link BigFraction#ZERO} if there are no observations
+   * @throws IllegalStateException if not all observations are pairs
+   */
+  public BigFraction getMeanY() {
+    checkPairs();
+    if (count == 0) {
+      return BigFraction.ZERO;
+    }
+    return sumY.toBigFraction().divide(BigFraction.valueOf(count));
+  }
+
+  /**
+   * Return the exact population variance of all {@code y}.
+   *
+   * @return the population variance, {@link BigFraction#ZERO} if there are no observations
+   * @throws IllegalStateException if not all observations are pairs
+   */
+  public BigFraction getVarianceY() {
+    checkPairs();
+    if (count == 0) {
+      return BigFraction.ZERO;
+    }
+    return centeredSumOfProducts(sumY, sumY, sumYY).divide(BigFraction.valueOf(count).pow(2));
+  }
+
+  /**
+   * Return the exact population covariance of {@code x} and {@code y}.
+   *
+   * @return the population covariance, {@link BigFraction#ZERO} if there are no observations
+   * @throws IllegalStateException if not all observations are pairs
+   */
+  public BigFraction getCovariance() {
+    checkPairs();
+    if (count == 0) {
+      return BigFraction.ZERO;
+    }
+    return centeredSumOfProducts(sumX, sumY, sumXY).divide(BigFraction.valueOf(count).pow(2));
+  }
+
+  /**
+   * Return the exact sample covariance of {@code x} and {@code y}.
+   *
+   * @return the sample covariance
+   * @throws IllegalStateException if there are less than two observations, or if not all observations are pairs
+   */
+  public BigFraction getSampleCovariance() {
+    checkPairs();
+    checkCount(2);
+    return centeredSumOfProducts(sumX, sumY, sumXY).divide(BigFraction.valueOf(count).multiply(BigFraction.valueOf(count - 1)));
+  }
+
+  /**
+   * Return the exact slope of the least squares regression line {@code y = intercept + slope * x}.
+   *
+   * @return the slope
+   * @throws IllegalStateException if there are less than two observations, or if not all observations are pairs
+   * @throws ArithmeticException if all {@code x} are equal
+   */
+  public BigFraction getSlope() {
+    checkPairs();
+    checkCount(2);
+    return centeredSumOfProducts(sumX, sumY, sumXY).divide(centeredSumOfProducts(sumX, sumX, sumXX));
+  }
+
+  /**
+   * Return the exact intercept of the least squares regression line {@code y = intercept + slope * x}.
+   *
+   * @return the intercept
+   * @throws IllegalStateException if there are less than two observations, or if not all observations are pairs
+   * @throws ArithmeticException if all {@code x} are equal
+   */
+  public BigFraction getIntercept() {
+    BigFraction slope = getSlope();
+    return sumY.toBigFraction().subtract(slope.multiply(sumX.toBigFraction())).divide(BigFraction.valueOf(count));
+  }
+
+  /**
+   * Return a human readable representation of these statistics.
+   *
+   * @return a representation of these statistics
+   */
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "{count=" + count + ", mean=" + getMean() + ", variance=" + getVariance() + "}";
+  }
+
+  /**
+   * Calculate {@code n * sum(a*b) - sum(a) * sum(b)}, which is {@code n} times the sum of the products of the deviations from the means.
+   *
+   * @param sumA the sum of all {@code a}
+   * @param sumB the sum of all {@code b}
+   * @param sumAB the sum of all {@code a*b}
+   * @return the centered sum of products, multiplied by {@code n}
+   */
+  private BigFraction centeredSumOfProducts(BigFractionAccumulator sumA, BigFractionAccumulator sumB, BigFractionAccumulator sumAB) {
+    return sumAB.toBigFraction().multiply(BigFraction.valueOf(count)).subtract(sumA.toBigFraction().multiply(sumB.toBigFraction()));
+  }
+
+  /**
+   * @param minimum the minimum number of observations required
+   */
+  private void checkCount(long minimum) {
+    if (count < minimum) {
+      throw new IllegalStateException("at least " + minimum + " observations are required, but there are only " + count + ".");
+    }
+  }
+
+  /**
+   * Make sure all observations are pairs.
+   */
+  private void checkPairs() {
+    if (pairCount != count) {
+      throw new IllegalStateException("only " + pairCount + " of " + count + " observations are pairs.");
+    }
+  }
+
+}
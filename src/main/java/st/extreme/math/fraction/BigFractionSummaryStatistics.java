@@ -0,0 +1,147 @@
+package st.extreme.math.fraction;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A state object for collecting exact statistics such as count, sum, minimum, maximum and average of {@link BigFraction} values.
+ * <p>
+ * The sum is collected by a {@link BigFractionAccumulator}. Partial statistics can be merged by
+ * {@link #combine(BigFractionSummaryStatistics)}, which makes this class suitable for parallel streams:
+ *
+ * <pre>
+ * BigFractionSummaryStatistics statistics = values.parallelStream().collect(BigFractionCollectors.summarizing());
+ * </pre>
+ *
+ * <strong>This class is not thread safe.</strong>
+ *
+ * @see java.util.DoubleSummaryStatistics
+ */
+public final class BigFractionSummaryStatistics implements Consumer<BigFraction> {
+
+  /**
+   * The number of values
+   */
+  private long count;
+
+  /**
+   * The sum of all values
+   */
+  private final BigFractionAccumulator sum;
+
+  /**
+   * The minimum value, {@code null} if no value has been recorded
+   */
+  private BigFraction min;
+
+  /**
+   * The maximum value, {@code null} if no value has been recorded
+   */
+  private BigFraction max;
+
+  /**
+   * Create an empty {@code BigFractionSummaryStatistics}.
+   */
+  public BigFractionSummaryStatistics() {
+    sum = new BigFractionAccumulator();
+  }
+
+  /**
+   * Record a new value into the statistics.
+   *
+   * @param value the input value
+   */
+  @Override
+  public void accept(BigFraction value) {
+    count++;
+    sum.add(value);
+    if (min == null || value.compareTo(min) < 0) {
+      min = value;
+    }
+    if (max == null || value.compareTo(max) > 0) {
+      max = value;
+    }
+  }
+
+  /**
+   * Combine the state of another {@code BigFractionSummaryStatistics} into this one.
+   *
+   * @param other another {@code BigFractionSummaryStatistics}
+   */
+  public void combine(BigFractionSummaryStatistics other) {
+    count += other.count;
+    sum.add(other.sum);
+    if (other.min != null && (min == null || other.min.compareTo(min) < 0)) {
+      min = other.min;
+    }
+    if (other.max != null && (max == null || other.max.compareTo(max) > 0)) {
+      max = other.max;
+    }
+  }
+
+  /**
+   * Return the number of values recorded.
+   *
+   * @return the count of values
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Return the exact sum of the values recorded, or {@link BigFraction#ZERO} if no values have been recorded.
+   *
+   * @return the sum of values
+   */
+  public BigFraction getSum() {
+    return sum.toBigFraction();
+  }
+
+  /**
+   * Return the minimum value recorded.
+   *
+   * @return the minimum value, or an empty {@link Optional} if no values have been recorded.
+   */
+  public Optional<BigFraction> getMin() {
+    return Optional.ofNullable(min);
+  }
+
+  /**
+   * Return the maximum value recorded.
+   *
+   * @return the maximum value, or an empty {@link Optional} if no values have been recorded.
+   */
+  public Optional<BigFraction> getMax() {
+    return Optional.ofNullable(max);
+  }
+
+  /**
+   * Return the exact arithmetic mean of the values recorded, or {@link BigFraction#ZERO} if no values have been recorded.
+   *
+   * @return the arithmetic mean of values
+   */
+  public BigFraction getAverage() {
+    if (count == 0) {
+      return BigFraction.ZERO;
+    }
+    return getSum().divide(BigFraction.valueOf(count));
+  }
+
+  /**
+   * Return a human readable representation of these statistics.
+   *
+   * @return a representation of these statistics
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(getClass().getSimpleName());
+    builder.append("{count=").append(count);
+    builder.append(", sum=").append(getSum());
+    builder.append(", min=").append(min);
+    builder.append(", average=").append(getAverage());
+    builder.append(", max=").append(max);
+    builder.append('}');
+    return builder.toString();
+  }
+
+}
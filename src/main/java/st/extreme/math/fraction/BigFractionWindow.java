@@ -0,0 +1,528 @@
+package st.extreme.math.fraction;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Exact aggregations (sum, average, weighted average) over a window of a stream of {@link BigFraction} values.
+ * <p>
+ * Values are added on arrival and subtracted on eviction, using {@link BigFractionAccumulator}s over a common denominator. Each update
+ * therefore costs a constant number of arithmetic operations, independent of the size of the window.
+ * <p>
+ * The following windows are supported:
+ * <ul>
+ * <li><strong>sliding</strong> windows hold the last {@code n} values ({@link #slidingCount(int)}), or the values of the last time span
+ * ({@link #slidingTime(long)}),
+ * <li><strong>tumbling</strong> windows hold {@code n} values ({@link #tumblingCount(int)}), or the values of a fixed time slot
+ * ({@link #tumblingTime(long)}), and start over empty when closed,
+ * <li><strong>session</strong> windows ({@link #session(long)}) hold values until a gap in time exceeds a limit, and start over empty
+ * then.
+ * </ul>
+ * Each value can carry a weight, for example a volume for a volume weighted average price:
+ *
+ * <pre>
+ * BigFractionWindow window = BigFractionWindow.slidingTime(60_000);
+ * window.add(tick.getMillis(), tick.getPrice(), tick.getVolume());
+ * BigFraction vwap = window.weightedAverage();
+ * </pre>
+ *
+ * Timestamps are {@code long} values in a unit chosen by the caller, and have to be non-decreasing. Closed tumbling and session windows
+ * are reported to the listener registered by {@link #onClose(Consumer)}.
+ * <p>
+ * <strong>This class is not thread safe.</strong>
+ */
+public final class BigFractionWindow {
+
+  /**
+   * The kinds of windows
+   */
+  private enum Kind {
+    SLIDING_COUNT, SLIDING_TIME, TUMBLING_COUNT, TUMBLING_TIME, SESSION
+  }
+
+  /**
+   * The kind of this window
+   */
+  private final Kind kind;
+
+  /**
+   * The number of values, the time span, or the session gap, depending on the kind
+   */
+  private final long extent;
+
+  /**
+   * The values currently in a sliding window, empty for other kinds
+   */
+  private final Deque<Entry> entries;
+
+  /**
+   * The sum of all values in the window
+   */
+  private final BigFractionAccumulator valueSum;
+
+  /**
+   * The sum of all weights in the window
+   */
+  private final BigFractionAccumulator weightSum;
+
+  /**
+   * The sum of all products of value and weight in the window
+   */
+  private final BigFractionAccumulator weightedSum;
+
+  /**
+   * The listener for closed windows
+   */
+  private Consumer<Summary> closeListener;
+
+  /**
+   * The number of values in the window
+   */
+  private int count;
+
+  /**
+   * The timestamp of the first value in a tumbling or session window
+   */
+  private long start;
+
+  /**
+   * The timestamp of the last value
+   */
+  private long last;
+
+  /**
+   * The latest timestamp seen
+   */
+  private long now;
+
+  /**
+   * @param kind The kind of the window
+   * @param extent The number of values, the time span, or the session gap
+   */
+  private BigFractionWindow(Kind kind, long extent) {
+    if (extent < 1) {
+      throw new IllegalArgumentException("the window extent has to be positive.");
+    }
+    this.kind = kind;
+    this.extent = extent;
+    this.entries = new ArrayDeque<>();
+    this.valueSum = new BigFractionAccumulator();
+    this.weightSum = new BigFractionAccumulator();
+    this.weightedSum = new BigFractionAccumulator();
+    this.closeListener = summary -> {
+    };
+    this.now = Long.MIN_VALUE;
+  }
+
+  /**
+   * Create a sliding window holding the last {@code size} values.
+   *
+   * @param size The maximum number of values in the window
+   * @return a new, empty window
+   */
+  public static BigFractionWindow slidingCount(int size) {
+    return new BigFractionWindow(Kind.SLIDING_COUNT, size);
+  }
+
+  /**
+   * Create a sliding window holding the values whose timestamp is within {@code length} of the latest timestamp, i.e. in the interval
+   * {@code (now - length, now]}.
+   *
+   * @param length The time span of the window
+   * @return a new, empty window
+   */
+  public static BigFractionWindow slidingTime(long length) {
+    return new BigFractionWindow(Kind.SLIDING_TIME, length);
+  }
+
+  /**
+   * Create a tumbling window, which is closed and started over as soon as it holds {@code size} values.
+   *
+   * @param size The number of values in a window
+   * @return a new, empty window
+   */
+  public static BigFractionWindow tumblingCount(int size) {
+    return new BigFractionWindow(Kind.TUMBLING_COUNT, size);
+  }
+
+  /**
+   * Create a tumbling window for the time slots {@code [k * length, (k + 1) * length)}. A window is closed as soon as a timestamp beyond
+   * its slot is seen.
+   *
+   * @param length The time span of a slot
+   * @return a new, empty window
+   */
+  public static BigFractionWindow tumblingTime(long length) {
+    return new BigFractionWindow(Kind.TUMBLING_TIME, length);
+  }
+
+  /**
+   * Create a session window, which is closed as soon as a timestamp more than {@code gap} after the last value is seen.
+   *
+   * @param gap The maximum time span between two values of the same session
+   * @return a new, empty window
+   */
+  public static BigFractionWindow session(long gap) {
+    return new BigFractionWindow(Kind.SESSION, gap);
+  }
+
+  /**
+   * Register the listener for closed tumbling and session windows. Sliding windows are never closed.
+   *
+   * @param listener The listener, replacing any previous one
+   * @return this window
+   */
+  public BigFractionWindow onClose(Consumer<Summary> listener) {
+    if (listener == null) {
+      throw new NullPointerException("listener");
+    }
+    this.closeListener = listener;
+    return this;
+  }
+
+  /**
+   * Add a value with weight {@code 1}, at the latest timestamp seen so far.
+   *
+   * @param value The value
+   */
+  public void add(BigFraction value) {
+    add(now, value, BigFraction.ONE);
+  }
+
+  /**
+   * Add a value with weight {@code 1}.
+   *
+   * @param timestamp The timestamp of the value, not before the latest timestamp seen so far
+   * @param value The value
+   */
+  public void add(long timestamp, BigFraction value) {
+    add(timestamp, value, BigFraction.ONE);
+  }
+
+  /**
+   * Add a weighted value.
+   *
+   * @param timestamp The timestamp of the value, not before the latest timestamp seen so far
+   * @param value The value
+   * @param weight The weight of the value, for example a volume
+   */
+  public void add(long timestamp, BigFraction value, BigFraction weight) {
+    advanceTo(timestamp);
+    if (count == 0) {
+      start = timestamp;
+    }
+    last = timestamp;
+    count++;
+    valueSum.add(value);
+    weightSum.add(weight);
+    weightedSum.addProduct(value, weight);
+    switch (kind) {
+    case SLIDING_COUNT:
+      entries.addLast(new Entry(timestamp, value, weight));
+      if (count > extent) {
+        evict();
+      }
+      break;
+    case SLIDING_TIME:
+      entries.addLast(new Entry(timestamp, value, weight));
+      break;
+    case TUMBLING_COUNT:
+      if (count == extent) {
+        close();
+      }
+      break;
+    default:
+      break;
+    }
+  }
+
+  /**
+   * Advance the time without adding a value. This evicts outdated values from a sliding window, or closes an expired tumbling or session
+   * window.
+   *
+   * @param timestamp The current time, not before the latest timestamp seen so far
+   */
+  public void advanceTo(long timestamp) {
+    if (timestamp < now) {
+      throw new IllegalArgumentException("timestamps have to be non-decreasing: " + timestamp + " is before " + now + ".");
+    }
+    now = timestamp;
+    if (count == 0) {
+      return;
+    }
+    switch (kind) {
+    case SLIDING_TIME:
+      while (!entries.isEmpty() && compareSpan(entries.peekFirst().timestamp, timestamp, extent) >= 0) {
+        evict();
+      }
+      break;
+    case TUMBLING_TIME:
+      if (Math.floorDiv(timestamp, extent) != Math.floorDiv(start, extent)) {
+        close();
+      }
+      break;
+    case SESSION:
+      if (compareSpan(last, timestamp, extent) > 0) {
+        close();
+      }
+      break;
+    default:
+      break;
+    }
+  }
+
+  /**
+   * Return the number of values in the window.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Return the exact sum of the values in the window.
+   *
+   * @return the sum, {@link BigFraction#ZERO} if the window is empty
+   */
+  public BigFraction sum() {
+    return valueSum.toBigFraction();
+  }
+
+  /**
+   * Return the exact arithmetic mean of the values in the window.
+   *
+   * @return the arithmetic mean, {@link BigFraction#ZERO} if the window is empty
+   */
+  public BigFraction average() {
+    return summary().getAverage();
+  }
+
+  /**
+   * Return the exact weighted average of the values in the window, i.e. the sum of all products of value and weight, divided by the sum
+   * of all weights.
+   *
+   * @return the weighted average, {@link BigFraction#ZERO} if the window is empty
+   * @throws ArithmeticException if the sum of the weights is zero
+   */
+  public BigFraction weightedAverage() {
+    return summary().getWeightedAverage();
+  }
+
+  /**
+   * Return a snapshot of the current window.
+   *
+   * @return the summary of the current window
+   */
+  public Summary summary() {
+    if (count == 0) {
+      return new Summary(now, now, 0, BigFraction.ZERO, BigFraction.ZERO, BigFraction.ZERO);
+    }
+    long first = entries.isEmpty() ? start : entries.peekFirst().timestamp;
+    return new Summary(first, last, count, valueSum.toBigFraction(), weightSum.toBigFraction(), weightedSum.toBigFraction());
+  }
+
+  /**
+   * Compare the time span between two timestamps with a given span, without overflowing between extreme timestamps.
+   *
+   * @param from The earlier timestamp
+   * @param to The later timestamp, not before {@code from}
+   * @param span The non-negative span to compare with
+   * @return a negative value, zero, or a positive value if the time span from {@code from} to {@code to} is shorter than, equal to, or
+   * longer than {@code span}
+   */
+  private static int compareSpan(long from, long to, long span) {
+    // the difference of two ordered timestamps fits into an unsigned long
+    return Long.compareUnsigned(to - from, span);
+  }
+
+  /**
+   * Evict the oldest value of a sliding window.
+   */
+  private void evict() {
+    Entry entry = entries.removeFirst();
+    count--;
+    valueSum.subtract(entry.value);
+    weightSum.subtract(entry.weight);
+    weightedSum.addProduct(entry.value.negate(), entry.weight);
+  }
+
+  /**
+   * Report the current tumbling or session window to the listener, and start over empty.
+   */
+  private void close() {
+    Summary summary = summary();
+    count = 0;
+    valueSum.reset();
+    weightSum.reset();
+    weightedSum.reset();
+    closeListener.accept(summary);
+  }
+
+  /**
+   * A value in a sliding window
+   */
+  private static final class Entry {
+
+    /**
+     * The timestamp
+     */
+    final long timestamp;
+
+    /**
+     * The value
+     */
+    final BigFraction value;
+
+    /**
+     * The weight
+     */
+    final BigFraction weight;
+
+    /**
+     * @param timestamp The timestamp
+     * @param value The value
+     * @param weight The weight
+     */
+    Entry(long timestamp, BigFraction value, BigFraction weight) {
+      this.timestamp = timestamp;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * An immutable snapshot of the aggregations over a window.
+   */
+  public static final class Summary {
+
+    /**
+     * The timestamp of the first value
+     */
+    private final long start;
+
+    /**
+     * The timestamp of the last value
+     */
+    private final long end;
+
+    /**
+     * The number of values
+     */
+    private final int count;
+
+    /**
+     * The sum of the values
+     */
+    private final BigFraction sum;
+
+    /**
+     * The sum of the weights
+     */
+    private final BigFraction weightSum;
+
+    /**
+     * The sum of the products of value and weight
+     */
+    private final BigFraction weightedSum;
+
+    /**
+     * @param start The timestamp of the first value
+     * @param end The timestamp of the last value
+     * @param count The number of values
+     * @param sum The sum of the values
+     * @param weightSum The sum of the weights
+     * @param weightedSum The sum of the products of value and weight
+     */
+    Summary(long start, long end, int count, BigFraction sum, BigFraction weightSum, BigFraction weightedSum) {
+      this.start = start;
+      this.end = end;
+      this.count = count;
+      this.sum = sum;
+      this.weightSum = weightSum;
+      this.weightedSum = weightedSum;
+    }
+
+    /**
+     * Return the timestamp of the first value in the window.
+     *
+     * @return the start timestamp
+     */
+    public long getStart() {
+      return start;
+    }
+
+    /**
+     * Return the timestamp of the last value in the window.
+     *
+     * @return the end timestamp
+     */
+    public long getEnd() {
+      return end;
+    }
+
+    /**
+     * Return the number of values in the window.
+     *
+     * @return the number of values
+     */
+    public int getCount() {
+      return count;
+    }
+
+    /**
+     * Return the exact sum of the values in the window.
+     *
+     * @return the sum
+     */
+    public BigFraction getSum() {
+      return sum;
+    }
+
+    /**
+     * Return the exact sum of the weights in the window.
+     *
+     * @return the sum of the weights
+     */
+    public BigFraction getWeightSum() {
+      return weightSum;
+    }
+
+    /**
+     * Return the exact arithmetic mean of the values in the window.
+     *
+     * @return the arithmetic mean, {@link BigFraction#ZERO} if the window is empty
+     */
+    public BigFraction getAverage() {
+      if (count == 0) {
+        return BigFraction.ZERO;
+      }
+      return sum.divide(BigFraction.valueOf(count));
+    }
+
+    /**
+     * Return the exact weighted average of the values in the window.
+     *
+     * @return the weighted average, {@link BigFraction#ZERO} if the window is empty
+     * @throws ArithmeticException if the sum of the weights is zero
+     */
+    public BigFraction getWeightedAverage() {
+      if (count == 0) {
+        return BigFraction.ZERO;
+      }
+      return weightedSum.divide(weightSum);
+    }
+
+    /**
+     * Return a human readable representation of this summary.
+     *
+     * @return a representation of this summary
+     */
+    @Override
+    public String toString() {
+      return "Summary{start=" + start + ", end=" + end + ", count=" + count + ", sum=" + sum + ", weightSum=" + weightSum + "}";
+    }
+  }
+
+}
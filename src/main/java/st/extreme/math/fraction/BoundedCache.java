@@ -0,0 +1,405 @@
+package st.extreme.math.fraction;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A thread safe cache bounded by the total weight of its entries, with an eviction policy in the style of W-TinyLFU.
+ * <p>
+ * The cache is split into independently locked segments, selected by the hash code of the key. Every segment consists of
+ * <ul>
+ * <li>a small <em>window</em> in LRU order (about 1% of the weight), receiving all new entries, and
+ * <li>the <em>main</em> area in LRU order, holding the rest.
+ * </ul>
+ * An entry leaving the window is only admitted into a full main area if it has been requested more often than the least recently used
+ * entries it would replace. The request frequencies are estimated by a small count-min sketch of 4-bit counters, which are halved
+ * periodically, so that the estimates follow a changing workload. This keeps frequently requested entries in the cache, even when a burst
+ * of values requested only once passes through.
+ * <p>
+ * Values are computed outside of the segment lock, so two threads missing the same key at the same time may both compute it; the first
+ * value stored wins.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+final class BoundedCache<K, V> {
+
+  /**
+   * The part of the weight of a segment reserved for the window, in percent
+   */
+  private static final int WINDOW_PERCENT = 1;
+
+  /**
+   * The segments, the length is a power of two
+   */
+  private final Segment[] segments;
+
+  /**
+   * The function calculating the weight of an entry
+   */
+  private final ToIntBiFunction<? super K, ? super V> weigher;
+
+  /**
+   * The number of hits
+   */
+  private final LongAdder hits = new LongAdder();
+
+  /**
+   * The number of misses
+   */
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * The number of evicted or rejected entries
+   */
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param maximumWeight The maximum total weight of all entries, has to be positive
+   * @param concurrencyLevel The expected number of concurrently accessing threads, rounded up to a power of two for the number of
+   * segments
+   * @param weigher The function calculating the weight of an entry, which has to be positive
+   */
+  BoundedCache(long maximumWeight, int concurrencyLevel, ToIntBiFunction<? super K, ? super V> weigher) {
+    if (maximumWeight <= 0) {
+      throw new IllegalArgumentException("the maximum weight has to be positive.");
+    }
+    if (weigher == null) {
+      throw new NullPointerException("weigher");
+    }
+    int segmentCount = 1;
+    // keep every segment large enough for a reasonable window
+    while (segmentCount < concurrencyLevel && maximumWeight / (segmentCount << 1) >= 1024) {
+      segmentCount <<= 1;
+    }
+    @SuppressWarnings("unchecked")
+    Segment[] array = (Segment[]) new BoundedCache<?, ?>.Segment[segmentCount];
+    segments = array;
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(maximumWeight / segmentCount + (i < maximumWeight % segmentCount ? 1 : 0));
+    }
+    this.weigher = weigher;
+  }
+
+  /**
+   * Return the cached value for a key, computing and caching it if necessary.
+   *
+   * @param key The key
+   * @param loader The function computing the value of a missing key; a {@code null} value is returned, but not cached
+   * @return the cached or computed value
+   */
+  V get(K key, Function<? super K, ? extends V> loader) {
+    int hash = spread(key.hashCode());
+    Segment segment = segments[(hash >>> 16) & (segments.length - 1)];
+    V value = segment.get(key, hash);
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+    misses.increment();
+    value = loader.apply(key);
+    if (value == null) {
+      return null;
+    }
+    return segment.put(key, hash, value, weigher.applyAsInt(key, value));
+  }
+
+  /**
+   * Remove all entries, keeping the statistics.
+   */
+  void clear() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * @return a snapshot of the statistics
+   */
+  CacheStatistics statistics() {
+    long size = 0;
+    long weight = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.window.size() + segment.main.size();
+        weight += segment.windowWeight + segment.mainWeight;
+      }
+    }
+    return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), size, weight);
+  }
+
+  /**
+   * @param hash A hash code
+   * @return the hash code with its upper bits mixed into the lower ones, and vice versa
+   */
+  static int spread(int hash) {
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * A cached value with its weight.
+   *
+   * @param <V> The type of the value
+   */
+  private static final class Node<V> {
+
+    /**
+     * The value
+     */
+    final V value;
+
+    /**
+     * The spread hash code of the key
+     */
+    final int hash;
+
+    /**
+     * The weight
+     */
+    final int weight;
+
+    /**
+     * @param value The value
+     * @param hash The spread hash code of the key
+     * @param weight The weight
+     */
+    Node(V value, int hash, int weight) {
+      this.value = value;
+      this.hash = hash;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * A separately locked part of the cache.
+   */
+  private final class Segment {
+
+    /**
+     * The maximum weight of the window
+     */
+    final long windowMaximum;
+
+    /**
+     * The maximum weight of the main area
+     */
+    final long mainMaximum;
+
+    /**
+     * The window, in LRU order
+     */
+    final LinkedHashMap<K, Node<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The main area, in LRU order
+     */
+    final LinkedHashMap<K, Node<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The estimated request frequencies
+     */
+    final FrequencySketch sketch;
+
+    /**
+     * The current weight of the window
+     */
+    long windowWeight;
+
+    /**
+     * The current weight of the main area
+     */
+    long mainWeight;
+
+    /**
+     * @param maximumWeight The maximum weight of this segment
+     */
+    Segment(long maximumWeight) {
+      windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+      mainMaximum = Math.max(0, maximumWeight - windowMaximum);
+      sketch = new FrequencySketch(maximumWeight);
+    }
+
+    /**
+     * @param key The key
+     * @param hash The spread hash code of the key
+     * @return the cached value, or {@code null}
+     */
+    synchronized V get(K key, int hash) {
+      sketch.increment(hash);
+      Node<V> node = window.get(key);
+      if (node == null) {
+        node = main.get(key);
+      }
+      return node == null ? null : node.value;
+    }
+
+    /**
+     * @param key The key
+     * @param hash The spread hash code of the key
+     * @param value The value
+     * @param weight The weight of the entry
+     * @return the value now cached for the key, which is {@code value} unless another thread was faster
+     */
+    synchronized V put(K key, int hash, V value, int weight) {
+      Node<V> existing = window.get(key);
+      if (existing == null) {
+        existing = main.get(key);
+      }
+      if (existing != null) {
+        return existing.value;
+      }
+      if (weight > windowMaximum + mainMaximum) {
+        evictions.increment();
+        return value;
+      }
+      window.put(key, new Node<>(value, hash, weight));
+      windowWeight += weight;
+      while (windowWeight > windowMaximum && !window.isEmpty()) {
+        Iterator<Map.Entry<K, Node<V>>> eldest = window.entrySet().iterator();
+        Map.Entry<K, Node<V>> candidate = eldest.next();
+        eldest.remove();
+        windowWeight -= candidate.getValue().weight;
+        admit(candidate.getKey(), candidate.getValue());
+      }
+      return value;
+    }
+
+    /**
+     * Move an entry leaving the window into the main area, if it is requested more often than the entries it would replace. Otherwise the
+     * entry is evicted, and the main area remains unchanged.
+     *
+     * @param key The key
+     * @param candidate The entry leaving the window
+     */
+    private void admit(K key, Node<V> candidate) {
+      if (candidate.weight > mainMaximum) {
+        evictions.increment();
+        return;
+      }
+      // the candidate is only admitted if it is requested more often than every entry it would replace
+      int candidateFrequency = sketch.frequency(candidate.hash);
+      long freed = 0;
+      int victims = 0;
+      for (Node<V> victim : main.values()) {
+        if (mainWeight - freed + candidate.weight <= mainMaximum) {
+          break;
+        }
+        if (candidateFrequency <= sketch.frequency(victim.hash)) {
+          evictions.increment();
+          return;
+        }
+        freed += victim.weight;
+        victims++;
+      }
+      Iterator<Node<V>> eldest = main.values().iterator();
+      for (int i = 0; i < victims; i++) {
+        eldest.next();
+        eldest.remove();
+        evictions.increment();
+      }
+      mainWeight -= freed;
+      main.put(key, candidate);
+      mainWeight += candidate.weight;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    synchronized void clear() {
+      window.clear();
+      main.clear();
+      windowWeight = 0;
+      mainWeight = 0;
+    }
+  }
+
+  /**
+   * A count-min sketch of 4-bit counters, estimating how often a hash code has been requested recently.
+   * <p>
+   * Sixteen counters are packed into a {@code long}. Every hash code increments four counters in different {@code long}s, and its
+   * frequency is the minimum of these. After a number of increments proportional to the size of the sketch, all counters are halved.
+   */
+  private static final class FrequencySketch {
+
+    /**
+     * The odd seeds selecting the four counters of a hash code
+     */
+    private static final int[] SEEDS = { 0x97CB3127, 0xB492B66F, 0x9AE16A3B, 0xCBF29CE5 };
+
+    /**
+     * The mask resetting the highest bit of every counter after a shift
+     */
+    private static final long HALF_MASK = 0x7777_7777_7777_7777L;
+
+    /**
+     * The packed counters, the length is a power of two
+     */
+    private final long[] table;
+
+    /**
+     * The number of increments after which all counters are halved
+     */
+    private final int sampleSize;
+
+    /**
+     * The number of increments since the last halving
+     */
+    private int size;
+
+    /**
+     * @param expectedEntries An upper estimate of the number of entries, used to size the sketch
+     */
+    FrequencySketch(long expectedEntries) {
+      int length = 8;
+      while (length < expectedEntries && length < (1 << 12)) {
+        length <<= 1;
+      }
+      table = new long[length];
+      sampleSize = 10 * length;
+    }
+
+    /**
+     * Count a request of a hash code.
+     *
+     * @param hash The spread hash code
+     */
+    void increment(int hash) {
+      boolean added = false;
+      for (int i = 0; i < SEEDS.length; i++) {
+        int h = spread(hash * SEEDS[i]);
+        int index = (h >>> 4) & (table.length - 1);
+        int shift = (h & 15) << 2;
+        if (((table[index] >>> shift) & 15) < 15) {
+          table[index] += 1L << shift;
+          added = true;
+        }
+      }
+      if (added && ++size >= sampleSize) {
+        for (int i = 0; i < table.length; i++) {
+          table[i] = (table[i] >>> 1) & HALF_MASK;
+        }
+        size >>>= 1;
+      }
+    }
+
+    /**
+     * @param hash The spread hash code
+     * @return the estimated number of recent requests, at most {@code 15}
+     */
+    int frequency(int hash) {
+      int frequency = 15;
+      for (int i = 0; i < SEEDS.length; i++) {
+        int h = spread(hash * SEEDS[i]);
+        int index = (h >>> 4) & (table.length - 1);
+        frequency = Math.min(frequency, (int) (table[index] >>> ((h & 15) << 2)) & 15);
+      }
+      return frequency;
+    }
+  }
+
+}
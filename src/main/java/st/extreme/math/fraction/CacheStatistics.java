@@ -0,0 +1,121 @@
+package st.extreme.math.fraction;
+
+/**
+ * An immutable snapshot of the statistics of a cache, such as an {@link OperationCache}.
+ */
+public final class CacheStatistics {
+
+  /**
+   * The number of lookups answered by the cache
+   */
+  private final long hitCount;
+
+  /**
+   * The number of lookups which had to compute their value
+   */
+  private final long missCount;
+
+  /**
+   * The number of entries evicted, or rejected on admission
+   */
+  private final long evictionCount;
+
+  /**
+   * The number of entries at the time of the snapshot
+   */
+  private final long size;
+
+  /**
+   * The total weight of all entries at the time of the snapshot
+   */
+  private final long weight;
+
+  /**
+   * @param hitCount The number of hits
+   * @param missCount The number of misses
+   * @param evictionCount The number of evictions
+   * @param size The number of entries
+   * @param weight The total weight of all entries
+   */
+  CacheStatistics(long hitCount, long missCount, long evictionCount, long size, long weight) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.size = size;
+    this.weight = weight;
+  }
+
+  /**
+   * Return the number of lookups answered by the cache.
+   *
+   * @return the number of hits
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Return the number of lookups which had to compute their value.
+   *
+   * @return the number of misses
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Return the number of lookups.
+   *
+   * @return the number of hits and misses
+   */
+  public long getRequestCount() {
+    return hitCount + missCount;
+  }
+
+  /**
+   * Return the ratio of lookups answered by the cache.
+   *
+   * @return the number of hits divided by the number of lookups, {@code 1.0} if there were no lookups
+   */
+  public double getHitRate() {
+    long requestCount = getRequestCount();
+    return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  /**
+   * Return the number of entries evicted to make room for others, including new entries rejected on admission.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Return the number of entries at the time of the snapshot.
+   *
+   * @return the number of entries
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Return the total weight of all entries at the time of the snapshot.
+   *
+   * @return the total weight
+   */
+  public long getWeight() {
+    return weight;
+  }
+
+  /**
+   * Return a representation like {@code CacheStatistics[hits=90, misses=10, evictions=0, size=10, weight=1280]}.
+   */
+  @Override
+  public String toString() {
+    return "CacheStatistics[hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + ", size=" + size + ", weight="
+        + weight + "]";
+  }
+
+}
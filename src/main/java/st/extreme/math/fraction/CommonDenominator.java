@@ -0,0 +1,140 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * An array of {@link BigFraction} values, rescaled onto their least common denominator.
+ * <p>
+ * Created by {@link BigFractionArrays#commonDenominator(BigFraction[])}. As all values share one denominator, sums and comparisons are
+ * plain integer operations on the scaled numerators.
+ */
+public final class CommonDenominator {
+
+  /**
+   * The array length from which on sums and conversions run in parallel
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  /**
+   * The least common denominator of all values, always positive
+   */
+  private final BigInteger denominator;
+
+  /**
+   * The numerators of all values, scaled to the common denominator
+   */
+  private final BigInteger[] numerators;
+
+  /**
+   * @param denominator The least common denominator
+   * @param numerators The scaled numerators, not copied
+   */
+  CommonDenominator(BigInteger denominator, BigInteger[] numerators) {
+    this.denominator = denominator;
+    this.numerators = numerators;
+  }
+
+  /**
+   * Return the least common denominator of all values.
+   *
+   * @return the common denominator, {@code 1} for an empty array
+   */
+  public BigInteger getDenominator() {
+    return denominator;
+  }
+
+  /**
+   * Return the number of values.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return numerators.length;
+  }
+
+  /**
+   * Return the numerator of a value, scaled to the common denominator.
+   *
+   * @param index The index of the value
+   * @return the scaled numerator
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public BigInteger getNumerator(int index) {
+    checkIndex(index);
+    return numerators[index];
+  }
+
+  /**
+   * Return the numerators of all values, scaled to the common denominator.
+   *
+   * @return a new array holding the scaled numerators
+   */
+  public BigInteger[] getNumerators() {
+    return numerators.clone();
+  }
+
+  /**
+   * Convert a value back into a cancelled {@link BigFraction}.
+   *
+   * @param index The index of the value
+   * @return the value at that index
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public BigFraction get(int index) {
+    checkIndex(index);
+    return new BigFraction(numerators[index], denominator);
+  }
+
+  /**
+   * Convert all values back into cancelled {@link BigFraction}s, in parallel for long arrays.
+   *
+   * @return a new array holding all values
+   */
+  public BigFraction[] toBigFractions() {
+    BigFraction[] values = new BigFraction[numerators.length];
+    IntStream indexes = IntStream.range(0, values.length);
+    if (values.length >= PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    indexes.forEach(i -> values[i] = new BigFraction(numerators[i], denominator));
+    return values;
+  }
+
+  /**
+   * Compare two values, by comparing their scaled numerators.
+   *
+   * @param index1 The index of the first value
+   * @param index2 The index of the second value
+   * @return a negative number, zero, or a positive number as the first value is less than, equal to, or greater than the second one
+   * @throws IndexOutOfBoundsException if an index is out of range
+   */
+  public int compare(int index1, int index2) {
+    return getNumerator(index1).compareTo(getNumerator(index2));
+  }
+
+  /**
+   * Calculate the sum of all values, by adding up the scaled numerators, in parallel for long arrays.
+   *
+   * @return the exact sum
+   */
+  public BigFraction sum() {
+    Stream<BigInteger> stream = Arrays.stream(numerators);
+    if (numerators.length >= PARALLEL_THRESHOLD) {
+      stream = stream.parallel();
+    }
+    return new BigFraction(stream.reduce(BigInteger.ZERO, BigInteger::add), denominator);
+  }
+
+  /**
+   * @param index The index to be checked
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= numerators.length) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + numerators.length);
+    }
+  }
+
+}
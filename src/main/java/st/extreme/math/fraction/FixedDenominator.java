@@ -0,0 +1,390 @@
+package st.extreme.math.fraction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * A context for values on a fixed grid, such as cents ({@code 1/100}) or thousandths of a share ({@code 1/1000}).
+ * <p>
+ * A {@link Value} of this context only stores its numerator, scaled to the fixed denominator. Addition, subtraction, negation and
+ * comparison are therefore plain integer operations, without any gcd. Multiplication and division leave the grid in general, so they
+ * either round back onto the grid by an explicit {@link RoundingMode}, or promote exactly to a {@link BigFraction}:
+ *
+ * <pre>
+ * FixedDenominator cents = FixedDenominator.of(100);
+ * FixedDenominator.Value price = cents.valueOf(BigFraction.valueOf("19.99"));
+ * FixedDenominator.Value total = price.multiply(3).add(cents.valueOf(BigFraction.valueOf("4.50")));
+ * FixedDenominator.Value discounted = total.multiply(cents.valueOf(BigFraction.valueOf("0.85")), RoundingMode.HALF_EVEN);
+ * BigFraction exact = total.multiplyExact(BigFraction.valueOf("0.85"));
+ * </pre>
+ *
+ * Values of different contexts cannot be combined directly; convert them by {@link Value#toBigFraction()} and
+ * {@link #valueOf(BigFraction, RoundingMode)}.
+ */
+public final class FixedDenominator {
+
+  /**
+   * The fixed denominator, always positive
+   */
+  private final BigInteger denominator;
+
+  /**
+   * The value {@code 0} of this context
+   */
+  private final Value zero;
+
+  /**
+   * @param denominator The fixed denominator, has to be positive
+   */
+  private FixedDenominator(BigInteger denominator) {
+    this.denominator = denominator;
+    this.zero = new Value(this, BigInteger.ZERO);
+  }
+
+  /**
+   * Create a context for a fixed denominator.
+   *
+   * @param denominator The fixed denominator, has to be positive
+   * @return a new context
+   * @throws IllegalArgumentException if the denominator is not positive
+   */
+  public static FixedDenominator of(BigInteger denominator) {
+    if (denominator.signum() <= 0) {
+      throw new IllegalArgumentException("the denominator has to be positive.");
+    }
+    return new FixedDenominator(denominator);
+  }
+
+  /**
+   * Create a context for a fixed denominator.
+   *
+   * @param denominator The fixed denominator, has to be positive
+   * @return a new context
+   * @throws IllegalArgumentException if the denominator is not positive
+   */
+  public static FixedDenominator of(long denominator) {
+    return of(BigInteger.valueOf(denominator));
+  }
+
+  /**
+   * Return the fixed denominator.
+   *
+   * @return the denominator
+   */
+  public BigInteger getDenominator() {
+    return denominator;
+  }
+
+  /**
+   * Return the value {@code 0} of this context.
+   *
+   * @return the value {@code 0}
+   */
+  public Value zero() {
+    return zero;
+  }
+
+  /**
+   * Create a value from its scaled numerator, which represents {@code scaledNumerator/denominator}.
+   *
+   * @param scaledNumerator The numerator over the fixed denominator
+   * @return a new value
+   */
+  public Value ofScaled(BigInteger scaledNumerator) {
+    if (scaledNumerator == null) {
+      throw new NullPointerException("scaledNumerator");
+    }
+    return new Value(this, scaledNumerator);
+  }
+
+  /**
+   * Create a value from its scaled numerator, which represents {@code scaledNumerator/denominator}.
+   *
+   * @param scaledNumerator The numerator over the fixed denominator
+   * @return a new value
+   */
+  public Value ofScaled(long scaledNumerator) {
+    return new Value(this, BigInteger.valueOf(scaledNumerator));
+  }
+
+  /**
+   * Convert a {@link BigFraction} exactly onto the grid of this context.
+   *
+   * @param value The value
+   * @return the value on the grid
+   * @throws ArithmeticException if the value is not on the grid
+   */
+  public Value valueOf(BigFraction value) {
+    return valueOf(value, RoundingMode.UNNECESSARY);
+  }
+
+  /**
+   * Convert a {@link BigFraction} onto the grid of this context, rounding if necessary.
+   * <p>
+   * A value whose denominator divides the fixed denominator is converted by a single integer multiplication.
+   *
+   * @param value The value
+   * @param rounding The rounding mode, used if the value is not on the grid
+   * @return the value on the grid
+   * @throws ArithmeticException if rounding is necessary, but {@code rounding} is {@link RoundingMode#UNNECESSARY}
+   */
+  public Value valueOf(BigFraction value, RoundingMode rounding) {
+    BigInteger[] quotientAndRemainder = denominator.divideAndRemainder(value.getDenominator());
+    if (quotientAndRemainder[1].signum() == 0) {
+      return new Value(this, value.getNumerator().multiply(quotientAndRemainder[0]));
+    }
+    return new Value(this, divide(value.getNumerator().multiply(denominator), value.getDenominator(), rounding));
+  }
+
+  /**
+   * Determine if this context is equal to another object: only another context with the same fixed denominator is equal.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof FixedDenominator)) {
+      return false;
+    }
+    return denominator.equals(((FixedDenominator) obj).denominator);
+  }
+
+  /**
+   * Return the hash code of the fixed denominator.
+   */
+  @Override
+  public int hashCode() {
+    return denominator.hashCode();
+  }
+
+  /**
+   * Return a representation like {@code FixedDenominator[100]}.
+   */
+  @Override
+  public String toString() {
+    return "FixedDenominator[" + denominator + "]";
+  }
+
+  /**
+   * Divide two integers, rounding the quotient.
+   *
+   * @param dividend The dividend
+   * @param divisor The divisor
+   * @param rounding The rounding mode
+   * @return the rounded quotient
+   */
+  private static BigInteger divide(BigInteger dividend, BigInteger divisor, RoundingMode rounding) {
+    if (divisor.signum() == 0) {
+      throw new ArithmeticException("division by zero is not allowed.");
+    }
+    BigInteger[] quotientAndRemainder = dividend.divideAndRemainder(divisor);
+    if (quotientAndRemainder[1].signum() == 0) {
+      return quotientAndRemainder[0];
+    }
+    return new BigDecimal(dividend).divide(new BigDecimal(divisor), 0, rounding).toBigIntegerExact();
+  }
+
+  /**
+   * An immutable value on the grid of a {@link FixedDenominator}.
+   */
+  public static final class Value implements Comparable<Value> {
+
+    /**
+     * The context of this value
+     */
+    private final FixedDenominator context;
+
+    /**
+     * The numerator over the fixed denominator
+     */
+    private final BigInteger scaledNumerator;
+
+    /**
+     * @param context The context
+     * @param scaledNumerator The numerator over the fixed denominator
+     */
+    Value(FixedDenominator context, BigInteger scaledNumerator) {
+      this.context = context;
+      this.scaledNumerator = scaledNumerator;
+    }
+
+    /**
+     * Return the context of this value.
+     *
+     * @return the context
+     */
+    public FixedDenominator getContext() {
+      return context;
+    }
+
+    /**
+     * Return the numerator over the fixed denominator of the context, which is not necessarily cancelled.
+     *
+     * @return the scaled numerator
+     */
+    public BigInteger getScaledNumerator() {
+      return scaledNumerator;
+    }
+
+    /**
+     * Add a value of the same context, by a single integer addition.
+     *
+     * @param addend The value to be added
+     * @return {@code this + addend}
+     */
+    public Value add(Value addend) {
+      return new Value(context, scaledNumerator.add(check(addend).scaledNumerator));
+    }
+
+    /**
+     * Subtract a value of the same context, by a single integer subtraction.
+     *
+     * @param subtrahend The value to be subtracted
+     * @return {@code this - subtrahend}
+     */
+    public Value subtract(Value subtrahend) {
+      return new Value(context, scaledNumerator.subtract(check(subtrahend).scaledNumerator));
+    }
+
+    /**
+     * @return {@code -this}
+     */
+    public Value negate() {
+      return new Value(context, scaledNumerator.negate());
+    }
+
+    /**
+     * Multiply by an integer, which stays on the grid.
+     *
+     * @param factor The factor
+     * @return {@code this * factor}
+     */
+    public Value multiply(long factor) {
+      return new Value(context, scaledNumerator.multiply(BigInteger.valueOf(factor)));
+    }
+
+    /**
+     * Multiply by a value of the same context, rounding the product onto the grid.
+     *
+     * @param factor The factor
+     * @param rounding The rounding mode, {@link RoundingMode#UNNECESSARY} if the product is expected to be on the grid
+     * @return {@code this * factor}, rounded
+     * @throws ArithmeticException if rounding is necessary, but {@code rounding} is {@link RoundingMode#UNNECESSARY}
+     */
+    public Value multiply(Value factor, RoundingMode rounding) {
+      BigInteger product = scaledNumerator.multiply(check(factor).scaledNumerator);
+      return new Value(context, FixedDenominator.divide(product, context.denominator, rounding));
+    }
+
+    /**
+     * Divide by a value of the same context, rounding the quotient onto the grid.
+     *
+     * @param divisor The divisor
+     * @param rounding The rounding mode, {@link RoundingMode#UNNECESSARY} if the quotient is expected to be on the grid
+     * @return {@code this / divisor}, rounded
+     * @throws ArithmeticException if the divisor is zero, or if rounding is necessary, but {@code rounding} is
+     * {@link RoundingMode#UNNECESSARY}
+     */
+    public Value divide(Value divisor, RoundingMode rounding) {
+      return new Value(context,
+          FixedDenominator.divide(scaledNumerator.multiply(context.denominator), check(divisor).scaledNumerator, rounding));
+    }
+
+    /**
+     * Divide by an integer, rounding the quotient onto the grid.
+     *
+     * @param divisor The divisor
+     * @param rounding The rounding mode, {@link RoundingMode#UNNECESSARY} if the quotient is expected to be on the grid
+     * @return {@code this / divisor}, rounded
+     * @throws ArithmeticException if the divisor is zero, or if rounding is necessary, but {@code rounding} is
+     * {@link RoundingMode#UNNECESSARY}
+     */
+    public Value divide(long divisor, RoundingMode rounding) {
+      return new Value(context, FixedDenominator.divide(scaledNumerator, BigInteger.valueOf(divisor), rounding));
+    }
+
+    /**
+     * Multiply by an arbitrary value, promoting the exact product to a {@link BigFraction}.
+     *
+     * @param factor The factor
+     * @return {@code this * factor}, exactly
+     */
+    public BigFraction multiplyExact(BigFraction factor) {
+      return new BigFraction(scaledNumerator.multiply(factor.getNumerator()), context.denominator.multiply(factor.getDenominator()));
+    }
+
+    /**
+     * Return the {@code signum} function of this value.
+     *
+     * @return {@code -1}, {@code 0} or {@code 1} as this value is negative, zero, or positive.
+     */
+    public int signum() {
+      return scaledNumerator.signum();
+    }
+
+    /**
+     * Convert this value into a cancelled {@link BigFraction}.
+     *
+     * @return the exact value
+     */
+    public BigFraction toBigFraction() {
+      return new BigFraction(scaledNumerator, context.denominator);
+    }
+
+    /**
+     * Compare this value with a value of the same context, by comparing the scaled numerators.
+     */
+    @Override
+    public int compareTo(Value other) {
+      return scaledNumerator.compareTo(check(other).scaledNumerator);
+    }
+
+    /**
+     * Determine if this value is equal to another object: only a value of an equal context with the same scaled numerator is equal.
+     */
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Value)) {
+        return false;
+      }
+      Value other = (Value) obj;
+      return scaledNumerator.equals(other.scaledNumerator) && context.equals(other.context);
+    }
+
+    /**
+     * Return a hash code based on the scaled numerator.
+     */
+    @Override
+    public int hashCode() {
+      return scaledNumerator.hashCode();
+    }
+
+    /**
+     * Return the cancelled fractional representation of this value, such as {@code 1999/100}.
+     *
+     * @see BigFraction#toString()
+     */
+    @Override
+    public String toString() {
+      return toBigFraction().toString();
+    }
+
+    /**
+     * @param other A value to be combined with this one
+     * @return {@code other}
+     * @throws IllegalArgumentException if the value belongs to another context
+     */
+    private Value check(Value other) {
+      if (other.context != context && !other.context.equals(context)) {
+        throw new IllegalArgumentException("the denominators " + context.denominator + " and " + other.context.denominator + " differ.");
+      }
+      return other;
+    }
+  }
+
+}
@@ -0,0 +1,275 @@
+package st.extreme.math.fraction;
+
+import java.util.Objects;
+
+/**
+ * An opt-in, bounded cache of {@link BigFraction} operation results, for workloads applying the same operands over and over.
+ * <p>
+ * For example, a currency conversion multiplies many amounts by a handful of rates, and needs their reciprocals and cross rates again and
+ * again:
+ *
+ * <pre>
+ * OperationCache cache = new OperationCache(1 &lt;&lt; 24);
+ * BigFraction converted = cache.multiply(amount, rate);
+ * BigFraction inverse = cache.reciprocal(rate);
+ * </pre>
+ *
+ * The results are keyed by the operation and the values of its operands, so equal operands hit the cache, whether or not they are the
+ * same instances. The cache is bounded by a maximum <em>weight</em>: an entry weighs the total bit length of its operands and its result,
+ * so a few huge values cannot crowd out many medium sized ones unnoticed. Entries are evicted in the style of W-TinyLFU, keeping the
+ * frequently requested ones.
+ * <p>
+ * Operations whose operands are smaller than {@value #MIN_BIT_LENGTH} bits in total are calculated directly, and not counted as hits or
+ * misses: for these, a lookup costs about as much as the calculation itself. A result is only reused under the {@link SizePolicy} it was
+ * calculated with.
+ * <p>
+ * The cache is thread safe.
+ */
+public final class OperationCache {
+
+  /**
+   * The total bit length of the operands from which on results are cached
+   */
+  public static final int MIN_BIT_LENGTH = 128;
+
+  /**
+   * The weight of the fixed overhead of an entry, in bits
+   */
+  private static final int ENTRY_OVERHEAD = 64;
+
+  /**
+   * The operations
+   */
+  private enum Operation {
+    ADD, SUBTRACT, MULTIPLY, DIVIDE, RECIPROCAL, POW
+  }
+
+  /**
+   * The cached results
+   */
+  private final BoundedCache<Key, BigFraction> cache;
+
+  /**
+   * Create a cache with a maximum weight.
+   *
+   * @param maximumWeight The maximum total weight of all entries, which is the sum of the bit lengths of their operands and results
+   * @throws IllegalArgumentException if the maximum weight is not positive
+   */
+  public OperationCache(long maximumWeight) {
+    cache = new BoundedCache<>(maximumWeight, 4 * Runtime.getRuntime().availableProcessors(), OperationCache::weigh);
+  }
+
+  /**
+   * @param augend The value to which {@code addend} is to be added
+   * @param addend The value to be added
+   * @return {@code augend + addend}
+   * @see BigFraction#add(BigFraction)
+   */
+  public BigFraction add(BigFraction augend, BigFraction addend) {
+    return apply(Operation.ADD, augend, addend, 0);
+  }
+
+  /**
+   * @param minuend The value from which {@code subtrahend} is to be subtracted
+   * @param subtrahend The value to be subtracted
+   * @return {@code minuend - subtrahend}
+   * @see BigFraction#subtract(BigFraction)
+   */
+  public BigFraction subtract(BigFraction minuend, BigFraction subtrahend) {
+    return apply(Operation.SUBTRACT, minuend, subtrahend, 0);
+  }
+
+  /**
+   * @param multiplicand The value to be multiplied
+   * @param multiplier The value by which {@code multiplicand} is to be multiplied
+   * @return {@code multiplicand * multiplier}
+   * @see BigFraction#multiply(BigFraction)
+   */
+  public BigFraction multiply(BigFraction multiplicand, BigFraction multiplier) {
+    return apply(Operation.MULTIPLY, multiplicand, multiplier, 0);
+  }
+
+  /**
+   * @param dividend The value to be divided
+   * @param divisor The value by which {@code dividend} is to be divided
+   * @return {@code dividend / divisor}
+   * @throws ArithmeticException if the divisor is zero
+   * @see BigFraction#divide(BigFraction)
+   */
+  public BigFraction divide(BigFraction dividend, BigFraction divisor) {
+    return apply(Operation.DIVIDE, dividend, divisor, 0);
+  }
+
+  /**
+   * @param value The value
+   * @return {@code 1 / value}
+   * @throws ArithmeticException if the value is zero
+   * @see BigFraction#reciprocal()
+   */
+  public BigFraction reciprocal(BigFraction value) {
+    return apply(Operation.RECIPROCAL, value, null, 0);
+  }
+
+  /**
+   * @param value The value
+   * @param exponent The exponent
+   * @return {@code value^exponent}
+   * @see BigFraction#pow(int)
+   */
+  public BigFraction pow(BigFraction value, int exponent) {
+    return apply(Operation.POW, value, null, exponent);
+  }
+
+  /**
+   * Remove all cached results, keeping the statistics.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  /**
+   * Return a snapshot of the hit, miss and eviction counts, and of the current size and weight.
+   *
+   * @return the statistics
+   */
+  public CacheStatistics getStatistics() {
+    return cache.statistics();
+  }
+
+  /**
+   * @param operation The operation
+   * @param first The first operand
+   * @param second The second operand, {@code null} for unary operations
+   * @param exponent The exponent of {@link Operation#POW}, {@code 0} otherwise
+   * @return the result, cached or calculated
+   */
+  private BigFraction apply(Operation operation, BigFraction first, BigFraction second, int exponent) {
+    if (first == null) {
+      throw new NullPointerException("first operand");
+    }
+    if (second == null && operation.compareTo(Operation.RECIPROCAL) < 0) {
+      throw new NullPointerException("second operand");
+    }
+    Key key = new Key(operation, first, second, exponent, SizePolicy.current());
+    if (key.bitLength < MIN_BIT_LENGTH) {
+      return calculate(key);
+    }
+    return cache.get(key, OperationCache::calculate);
+  }
+
+  /**
+   * @param key The operation and its operands
+   * @return the result of the operation
+   */
+  private static BigFraction calculate(Key key) {
+    switch (key.operation) {
+    case ADD:
+      return key.first.add(key.second);
+    case SUBTRACT:
+      return key.first.subtract(key.second);
+    case MULTIPLY:
+      return key.first.multiply(key.second);
+    case DIVIDE:
+      return key.first.divide(key.second);
+    case RECIPROCAL:
+      return key.first.reciprocal();
+    default:
+      return key.first.pow(key.exponent);
+    }
+  }
+
+  /**
+   * @param key The operation and its operands
+   * @param result The result
+   * @return the weight of the entry
+   */
+  private static int weigh(Key key, BigFraction result) {
+    long weight = ENTRY_OVERHEAD + key.bitLength + bitLength(result);
+    return (int) Math.min(weight, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param value A value, or {@code null}
+   * @return the total bit length of numerator and denominator, {@code 0} for {@code null}
+   */
+  private static long bitLength(BigFraction value) {
+    return value == null ? 0 : (long) value.getNumerator().bitLength() + value.getDenominator().bitLength();
+  }
+
+  /**
+   * The key of a cached result: the operation, its operands, and the size policy in effect.
+   */
+  private static final class Key {
+
+    /**
+     * The operation
+     */
+    final Operation operation;
+
+    /**
+     * The first operand
+     */
+    final BigFraction first;
+
+    /**
+     * The second operand, {@code null} for unary operations
+     */
+    final BigFraction second;
+
+    /**
+     * The exponent of {@link Operation#POW}, {@code 0} otherwise
+     */
+    final int exponent;
+
+    /**
+     * The size policy in effect, compared by identity
+     */
+    final SizePolicy policy;
+
+    /**
+     * The total bit length of the operands
+     */
+    final long bitLength;
+
+    /**
+     * The hash code, calculated once
+     */
+    final int hash;
+
+    /**
+     * @param operation The operation
+     * @param first The first operand
+     * @param second The second operand
+     * @param exponent The exponent
+     * @param policy The size policy in effect
+     */
+    Key(Operation operation, BigFraction first, BigFraction second, int exponent, SizePolicy policy) {
+      this.operation = operation;
+      this.first = first;
+      this.second = second;
+      this.exponent = exponent;
+      this.policy = policy;
+      this.bitLength = bitLength(first) + bitLength(second);
+      this.hash = Objects.hash(operation, first, second, exponent);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hash == other.hash && operation == other.operation && exponent == other.exponent && policy == other.policy
+          && first.equals(other.first) && Objects.equals(second, other.second);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+}
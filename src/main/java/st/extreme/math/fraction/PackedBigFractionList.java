@@ -0,0 +1,536 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+/**
+ * A compact, append-only list of {@link BigFraction} values, packed into a single {@code int[]} pool.
+ * <p>
+ * A {@code BigFraction} object costs around 100 bytes even for {@code 1/3}: its own header, two {@link BigInteger} objects and their two
+ * magnitude arrays. This list stores every value as one header {@code int} followed by the 32-bit limbs of the numerator and denominator
+ * magnitudes, plus one {@code int} offset. The header holds
+ * <ul>
+ * <li>the sign in bit 31,
+ * <li>the number of numerator limbs in bits 15 to 29 ({@code 0} for the value {@code 0}),
+ * <li>the number of denominator limbs in bits 0 to 14 ({@code 0} for the denominator {@code 1}).
+ * </ul>
+ * So {@code 1/3} takes 16 bytes, and an integer like {@code 42} only 12 bytes; the memory per value approaches the bits it actually needs.
+ * <p>
+ * {@link #get(int)} materializes a new {@code BigFraction}. The bulk operations {@link #sum()}, {@link #min()}, {@link #max()},
+ * {@link #compare(int, int)}, {@link #signum(int)} and {@link #toDoubleArray()} work on the packed limbs directly, and only fall back to
+ * {@code BigInteger} arithmetic for larger values. Bulk operations on long lists run in parallel.
+ * <p>
+ * Values can only be appended. Numerators and denominators are limited to {@value #MAX_LIMBS} limbs (about a million bits) each.
+ * <p>
+ * <strong>This class is not thread safe.</strong> Concurrent reads are safe as long as no values are added.
+ */
+public final class PackedBigFractionList extends AbstractList<BigFraction> implements RandomAccess {
+
+  /**
+   * The maximum number of limbs of a numerator or denominator
+   */
+  public static final int MAX_LIMBS = (1 << 15) - 1;
+
+  /**
+   * The number of values from which on bulk operations run in parallel
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  /**
+   * The sign bit of the header
+   */
+  private static final int NEGATIVE = 1 << 31;
+
+  /**
+   * The mask converting a limb into an unsigned {@code long}
+   */
+  private static final long LIMB_MASK = 0xFFFF_FFFFL;
+
+  /**
+   * The headers and limbs of all values
+   */
+  private int[] pool;
+
+  /**
+   * The used length of the pool
+   */
+  private int poolSize;
+
+  /**
+   * The offset of every value in the pool
+   */
+  private int[] offsets;
+
+  /**
+   * The number of values
+   */
+  private int size;
+
+  /**
+   * Create an empty list.
+   */
+  public PackedBigFractionList() {
+    this(16);
+  }
+
+  /**
+   * Create an empty list with room for a number of small values.
+   *
+   * @param initialCapacity The number of small values to make room for
+   * @throws IllegalArgumentException if the capacity is negative
+   */
+  public PackedBigFractionList(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("the capacity must not be negative.");
+    }
+    offsets = new int[initialCapacity];
+    pool = new int[3 * initialCapacity];
+  }
+
+  /**
+   * Append a value.
+   *
+   * @param value The value
+   * @return {@code true}
+   * @throws IllegalArgumentException if the numerator or denominator has more than {@link #MAX_LIMBS} limbs
+   */
+  @Override
+  public boolean add(BigFraction value) {
+    BigInteger numerator = value.getNumerator();
+    BigInteger denominator = value.getDenominator();
+    int numeratorLength = limbCount(numerator);
+    int denominatorLength = BigInteger.ONE.equals(denominator) ? 0 : limbCount(denominator);
+    if (numeratorLength > MAX_LIMBS || denominatorLength > MAX_LIMBS) {
+      throw new IllegalArgumentException("the value is too large to be packed.");
+    }
+    int length = 1 + numeratorLength + denominatorLength;
+    ensureCapacity(length);
+    int offset = poolSize;
+    pool[offset] = (numerator.signum() < 0 ? NEGATIVE : 0) | numeratorLength << 15 | denominatorLength;
+    writeMagnitude(numerator.abs(), numeratorLength, offset + 1);
+    writeMagnitude(denominator, denominatorLength, offset + 1 + numeratorLength);
+    poolSize += length;
+    offsets[size++] = offset;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Materialize the value at an index.
+   *
+   * @param index The index
+   * @return a new {@code BigFraction} with the value at that index
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  @Override
+  public BigFraction get(int index) {
+    checkIndex(index);
+    return BigFraction.ofCancelled(numerator(offsets[index]), denominator(offsets[index]));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Remove all values, keeping the allocated memory.
+   */
+  @Override
+  public void clear() {
+    size = 0;
+    poolSize = 0;
+    modCount++;
+  }
+
+  /**
+   * Release the memory not needed for the current values.
+   */
+  public void trimToSize() {
+    pool = Arrays.copyOf(pool, poolSize);
+    offsets = Arrays.copyOf(offsets, size);
+  }
+
+  /**
+   * Return the number of {@code int}s used by the pool and the offsets, which is the memory footprint in units of 4 bytes.
+   *
+   * @return the number of used {@code int}s
+   */
+  public long getUsedInts() {
+    return (long) poolSize + size;
+  }
+
+  /**
+   * Return the {@code signum} function of the value at an index, from its header.
+   *
+   * @param index The index
+   * @return {@code -1}, {@code 0} or {@code 1} as the value is negative, zero, or positive
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public int signum(int index) {
+    checkIndex(index);
+    return signumOf(pool[offsets[index]]);
+  }
+
+  /**
+   * Compare the values at two indexes, without materializing them.
+   * <p>
+   * Values with single-limb numerators and denominators are compared by {@code long} cross products, values with equal denominators by
+   * their numerator limbs.
+   *
+   * @param index1 The index of the first value
+   * @param index2 The index of the second value
+   * @return a negative number, zero, or a positive number as the first value is less than, equal to, or greater than the second one
+   * @throws IndexOutOfBoundsException if an index is out of range
+   */
+  public int compare(int index1, int index2) {
+    checkIndex(index1);
+    checkIndex(index2);
+    return compareAt(offsets[index1], offsets[index2]);
+  }
+
+  /**
+   * Calculate the exact sum of all values, in parallel for long lists.
+   * <p>
+   * Runs of single-limb values with the same denominator are added up in {@code long} arithmetic.
+   *
+   * @return the sum, {@link BigFraction#ZERO} if the list is empty
+   */
+  public BigFraction sum() {
+    if (size < PARALLEL_THRESHOLD) {
+      return sum(0, size).toBigFraction();
+    }
+    int blockCount = Math.min(size / PARALLEL_THRESHOLD, 4 * Runtime.getRuntime().availableProcessors());
+    BigFractionAccumulator total = new BigFractionAccumulator();
+    IntStream.range(0, blockCount).parallel()
+        .mapToObj(block -> sum((int) ((long) size * block / blockCount), (int) ((long) size * (block + 1) / blockCount)))
+        .forEachOrdered(total::add);
+    return total.toBigFraction();
+  }
+
+  /**
+   * Find the minimum value, in parallel for long lists, and only materialize that one.
+   *
+   * @return the minimum, or an empty {@link Optional} if the list is empty
+   */
+  public Optional<BigFraction> min() {
+    return extreme(-1);
+  }
+
+  /**
+   * Find the maximum value, in parallel for long lists, and only materialize that one.
+   *
+   * @return the maximum, or an empty {@link Optional} if the list is empty
+   */
+  public Optional<BigFraction> max() {
+    return extreme(1);
+  }
+
+  /**
+   * Convert all values to {@code double}, in parallel for long lists.
+   *
+   * @return a new array holding the nearest {@code double} of every value
+   */
+  public double[] toDoubleArray() {
+    double[] result = new double[size];
+    IntStream indexes = IntStream.range(0, size);
+    if (size >= PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    indexes.forEach(i -> result[i] = doubleValueAt(offsets[i]));
+    return result;
+  }
+
+  /**
+   * @param from The first index, inclusive
+   * @param to The last index, exclusive
+   * @return an accumulator holding the sum of the values in that range
+   */
+  private BigFractionAccumulator sum(int from, int to) {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    long runNumerator = 0;
+    long runDenominator = 0;
+    for (int i = from; i < to; i++) {
+      int offset = offsets[i];
+      int header = pool[offset];
+      if (numeratorLength(header) <= 1 && denominatorLength(header) <= 1) {
+        long numerator = numeratorLength(header) == 0 ? 0 : pool[offset + 1] & LIMB_MASK;
+        if (header < 0) {
+          numerator = -numerator;
+        }
+        long denominator = denominatorLength(header) == 0 ? 1 : pool[offset + 1 + numeratorLength(header)] & LIMB_MASK;
+        if (denominator == runDenominator) {
+          long sum = runNumerator + numerator;
+          // no overflow unless both summands have the same sign, and the sum has the other one
+          if (((runNumerator ^ sum) & (numerator ^ sum)) >= 0) {
+            runNumerator = sum;
+            continue;
+          }
+        }
+        flush(accumulator, runNumerator, runDenominator);
+        runNumerator = numerator;
+        runDenominator = denominator;
+      } else {
+        accumulator.accumulate(numerator(offset), denominator(offset));
+      }
+    }
+    flush(accumulator, runNumerator, runDenominator);
+    return accumulator;
+  }
+
+  /**
+   * @param accumulator The accumulator
+   * @param numerator The numerator of a run
+   * @param denominator The denominator of a run, {@code 0} if there is no run
+   */
+  private static void flush(BigFractionAccumulator accumulator, long numerator, long denominator) {
+    if (denominator != 0) {
+      accumulator.accumulate(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+  }
+
+  /**
+   * @param direction {@code -1} for the minimum, {@code 1} for the maximum
+   * @return the extreme value, or an empty {@link Optional}
+   */
+  private Optional<BigFraction> extreme(int direction) {
+    IntStream indexes = IntStream.range(0, size);
+    if (size >= PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    OptionalInt extreme = indexes.reduce((i, j) -> direction * compareAt(offsets[i], offsets[j]) >= 0 ? i : j);
+    return extreme.isPresent() ? Optional.of(get(extreme.getAsInt())) : Optional.empty();
+  }
+
+  /**
+   * @param offset1 The offset of the first value
+   * @param offset2 The offset of the second value
+   * @return the comparison of the two values
+   */
+  private int compareAt(int offset1, int offset2) {
+    int header1 = pool[offset1];
+    int header2 = pool[offset2];
+    int signum1 = signumOf(header1);
+    int signum2 = signumOf(header2);
+    if (signum1 != signum2 || signum1 == 0) {
+      return Integer.compare(signum1, signum2);
+    }
+    int numeratorLength1 = numeratorLength(header1);
+    int numeratorLength2 = numeratorLength(header2);
+    int denominatorLength1 = denominatorLength(header1);
+    int denominatorLength2 = denominatorLength(header2);
+    if (numeratorLength1 == 1 && numeratorLength2 == 1 && denominatorLength1 <= 1 && denominatorLength2 <= 1) {
+      long numerator1 = pool[offset1 + 1] & LIMB_MASK;
+      long numerator2 = pool[offset2 + 1] & LIMB_MASK;
+      long denominator1 = denominatorLength1 == 0 ? 1 : pool[offset1 + 2] & LIMB_MASK;
+      long denominator2 = denominatorLength2 == 0 ? 1 : pool[offset2 + 2] & LIMB_MASK;
+      // products of two 32 bit magnitudes fit into an unsigned long
+      return signum1 * Long.compareUnsigned(numerator1 * denominator2, numerator2 * denominator1);
+    }
+    if (compareMagnitudes(offset1 + 1 + numeratorLength1, denominatorLength1, offset2 + 1 + numeratorLength2, denominatorLength2) == 0) {
+      return signum1 * compareMagnitudes(offset1 + 1, numeratorLength1, offset2 + 1, numeratorLength2);
+    }
+    return numerator(offset1).multiply(denominator(offset2)).compareTo(numerator(offset2).multiply(denominator(offset1)));
+  }
+
+  /**
+   * @param offset1 The offset of the first magnitude
+   * @param length1 The number of limbs of the first magnitude
+   * @param offset2 The offset of the second magnitude
+   * @param length2 The number of limbs of the second magnitude
+   * @return the comparison of the two magnitudes, which have no leading zero limbs
+   */
+  private int compareMagnitudes(int offset1, int length1, int offset2, int length2) {
+    if (length1 != length2) {
+      return Integer.compare(length1, length2);
+    }
+    for (int i = 0; i < length1; i++) {
+      int comparison = Integer.compareUnsigned(pool[offset1 + i], pool[offset2 + i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @param offset The offset of a value
+   * @return the nearest {@code double} of the value
+   */
+  private double doubleValueAt(int offset) {
+    int header = pool[offset];
+    int numeratorLength = numeratorLength(header);
+    int denominatorLength = denominatorLength(header);
+    if (numeratorLength <= 2 && denominatorLength <= 2) {
+      long numerator = longMagnitude(offset + 1, numeratorLength);
+      long denominator = denominatorLength == 0 ? 1 : longMagnitude(offset + 1 + numeratorLength, denominatorLength);
+      if (numerator >>> 53 == 0 && denominator >>> 53 == 0) {
+        // both magnitudes are exact doubles, so the quotient is correctly rounded
+        return (header < 0 ? -(double) numerator : (double) numerator) / denominator;
+      }
+    }
+    return BigFraction.ofCancelled(numerator(offset), denominator(offset)).doubleValue();
+  }
+
+  /**
+   * @param offset The offset of the most significant limb
+   * @param length The number of limbs, at most {@code 2}
+   * @return the magnitude as an unsigned {@code long}
+   */
+  private long longMagnitude(int offset, int length) {
+    if (length == 0) {
+      return 0;
+    } else if (length == 1) {
+      return pool[offset] & LIMB_MASK;
+    }
+    return (long) pool[offset] << 32 | pool[offset + 1] & LIMB_MASK;
+  }
+
+  /**
+   * @param offset The offset of a value
+   * @return the numerator of the value
+   */
+  private BigInteger numerator(int offset) {
+    int header = pool[offset];
+    BigInteger magnitude = readMagnitude(offset + 1, numeratorLength(header));
+    return header < 0 ? magnitude.negate() : magnitude;
+  }
+
+  /**
+   * @param offset The offset of a value
+   * @return the denominator of the value
+   */
+  private BigInteger denominator(int offset) {
+    int header = pool[offset];
+    int length = denominatorLength(header);
+    return length == 0 ? BigInteger.ONE : readMagnitude(offset + 1 + numeratorLength(header), length);
+  }
+
+  /**
+   * @param offset The offset of the most significant limb
+   * @param length The number of limbs
+   * @return the magnitude
+   */
+  private BigInteger readMagnitude(int offset, int length) {
+    if (length == 0) {
+      return BigInteger.ZERO;
+    } else if (length == 1) {
+      return BigInteger.valueOf(pool[offset] & LIMB_MASK);
+    } else if (length == 2 && pool[offset] >= 0) {
+      return BigInteger.valueOf((long) pool[offset] << 32 | pool[offset + 1] & LIMB_MASK);
+    }
+    byte[] bytes = new byte[length << 2];
+    for (int i = 0; i < length; i++) {
+      int limb = pool[offset + i];
+      bytes[i << 2] = (byte) (limb >>> 24);
+      bytes[(i << 2) + 1] = (byte) (limb >>> 16);
+      bytes[(i << 2) + 2] = (byte) (limb >>> 8);
+      bytes[(i << 2) + 3] = (byte) limb;
+    }
+    return new BigInteger(1, bytes);
+  }
+
+  /**
+   * @param magnitude A non-negative value
+   * @param length The number of limbs of the value
+   * @param offset The offset of the most significant limb
+   */
+  private void writeMagnitude(BigInteger magnitude, int length, int offset) {
+    if (length <= 2) {
+      long value = magnitude.longValue();
+      if (length == 2) {
+        pool[offset++] = (int) (value >>> 32);
+      }
+      if (length >= 1) {
+        pool[offset] = (int) value;
+      }
+      return;
+    }
+    byte[] bytes = magnitude.toByteArray();
+    for (int i = 0; i < length; i++) {
+      int limb = 0;
+      for (int j = 0; j < 4; j++) {
+        int index = bytes.length - 1 - (i << 2) - j;
+        if (index >= 0) {
+          limb |= (bytes[index] & 0xFF) << (j << 3);
+        }
+      }
+      pool[offset + length - 1 - i] = limb;
+    }
+  }
+
+  /**
+   * @param length The number of {@code int}s to be appended to the pool
+   */
+  private void ensureCapacity(int length) {
+    if (size == offsets.length) {
+      offsets = Arrays.copyOf(offsets, grow(offsets.length, 1));
+    }
+    if (poolSize + length > pool.length) {
+      pool = Arrays.copyOf(pool, grow(pool.length, poolSize + length - pool.length));
+    }
+  }
+
+  /**
+   * @param length The current length of an array
+   * @param minimumGrowth The minimum number of additional elements
+   * @return the new length, at least one and a half times the current length
+   */
+  private static int grow(int length, int minimumGrowth) {
+    long newLength = Math.max((long) length + (length >> 1) + 16, (long) length + minimumGrowth);
+    if (newLength > Integer.MAX_VALUE - 8) {
+      if ((long) length + minimumGrowth > Integer.MAX_VALUE - 8) {
+        throw new OutOfMemoryError("the list is too large.");
+      }
+      newLength = Integer.MAX_VALUE - 8;
+    }
+    return (int) newLength;
+  }
+
+  /**
+   * @param value A value
+   * @return the number of 32 bit limbs of its magnitude
+   */
+  private static int limbCount(BigInteger value) {
+    return (value.abs().bitLength() + 31) >>> 5;
+  }
+
+  /**
+   * @param header A header
+   * @return the {@code signum} of the value
+   */
+  private static int signumOf(int header) {
+    return numeratorLength(header) == 0 ? 0 : header < 0 ? -1 : 1;
+  }
+
+  /**
+   * @param header A header
+   * @return the number of numerator limbs
+   */
+  private static int numeratorLength(int header) {
+    return (header >>> 15) & MAX_LIMBS;
+  }
+
+  /**
+   * @param header A header
+   * @return the number of denominator limbs, {@code 0} for the denominator {@code 1}
+   */
+  private static int denominatorLength(int header) {
+    return header & MAX_LIMBS;
+  }
+
+  /**
+   * @param index The index to be checked
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+  }
+
+}
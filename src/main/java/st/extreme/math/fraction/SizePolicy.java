@@ -0,0 +1,296 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A policy limiting the size of the numerator and denominator of a {@link BigFraction}.
+ * <p>
+ * Exact arithmetic can grow operands without bounds, for example by a {@link BigFraction#pow(int)} with a large exponent, or by
+ * repeatedly adding values with coprime denominators. A {@code SizePolicy} puts an upper limit on the bit length of both numerator and
+ * denominator, and defines the {@link Action} to be taken if a value exceeds that limit.
+ * <p>
+ * The policy is checked on every construction of a {@link BigFraction}. {@link BigFraction#multiply(BigFraction)} and
+ * {@link BigFraction#pow(int)} additionally predict the size of their result <strong>before</strong> performing the calculation. As long
+ * as the values are small, a check only costs a few {@link BigInteger#bitLength()} calls.
+ * <p>
+ * The policy in effect is installed globally:
+ *
+ * <pre>
+ * SizePolicy.install(SizePolicy.of(100_000, SizePolicy.Action.THROW));
+ * </pre>
+ *
+ * The default policy is {@link #UNLIMITED}.
+ */
+public final class SizePolicy {
+
+  /**
+   * The action to be taken if a value exceeds the maximum bit length.
+   */
+  public enum Action {
+    /**
+     * Throw an {@link ArithmeticException}.
+     */
+    THROW,
+
+    /**
+     * Approximate the value by the closest fraction whose numerator and denominator both fit into the maximum bit length.
+     */
+    APPROXIMATE,
+
+    /**
+     * Keep the exact value, and only count the violation (see {@link SizePolicy#getViolationCount()}).
+     */
+    RECORD
+  }
+
+  /**
+   * The policy not limiting the size of values at all.
+   */
+  public static final SizePolicy UNLIMITED = new SizePolicy(Integer.MAX_VALUE, Action.RECORD);
+
+  /**
+   * The currently installed policy
+   */
+  private static volatile SizePolicy current = UNLIMITED;
+
+  /**
+   * The maximum bit length of both numerator and denominator
+   */
+  private final int maxBitLength;
+
+  /**
+   * The action to be taken on a violation
+   */
+  private final Action action;
+
+  /**
+   * The number of violations detected so far
+   */
+  private final LongAdder violations;
+
+  /**
+   * @param maxBitLength The maximum bit length of both numerator and denominator
+   * @param action The action to be taken on a violation
+   */
+  private SizePolicy(int maxBitLength, Action action) {
+    this.maxBitLength = maxBitLength;
+    this.action = action;
+    this.violations = new LongAdder();
+  }
+
+  /**
+   * Create a new {@code SizePolicy}.
+   *
+   * @param maxBitLength The maximum bit length of both numerator and denominator. Has to be positive.
+   * @param action The {@link Action} to be taken if a value exceeds {@code maxBitLength}.
+   * @return a new {@code SizePolicy}
+   */
+  public static SizePolicy of(int maxBitLength, Action action) {
+    if (maxBitLength < 1) {
+      throw new IllegalArgumentException("the maximum bit length has to be positive.");
+    }
+    if (action == null) {
+      throw new NullPointerException("action");
+    }
+    return new SizePolicy(maxBitLength, action);
+  }
+
+  /**
+   * Install a {@code SizePolicy}, replacing the one currently in effect.
+   *
+   * @param policy The new policy. {@link #UNLIMITED} removes any limitation.
+   */
+  public static void install(SizePolicy policy) {
+    if (policy == null) {
+      throw new NullPointerException("policy");
+    }
+    current = policy;
+  }
+
+  /**
+   * Return the {@code SizePolicy} currently in effect.
+   *
+   * @return the current policy
+   */
+  public static SizePolicy current() {
+    return current;
+  }
+
+  /**
+   * Return the maximum bit length of both numerator and denominator.
+   *
+   * @return the maximum bit length
+   */
+  public int getMaxBitLength() {
+    return maxBitLength;
+  }
+
+  /**
+   * Return the {@link Action} taken if a value exceeds the maximum bit length.
+   *
+   * @return the action
+   */
+  public Action getAction() {
+    return action;
+  }
+
+  /**
+   * Return the number of violations detected by this policy so far.
+   * <p>
+   * A violation is counted regardless of the {@link Action}.
+   *
+   * @return the number of violations
+   */
+  public long getViolationCount() {
+    return violations.sum();
+  }
+
+  /**
+   * Determine if a numerator or a denominator exceeds the maximum bit length.
+   *
+   * @param numerator The numerator
+   * @param denominator The denominator
+   * @return {@code true} if at least one of the values is too big, {@code false} otherwise.
+   */
+  boolean exceeds(BigInteger numerator, BigInteger denominator) {
+    return numerator.bitLength() > maxBitLength || denominator.bitLength() > maxBitLength;
+  }
+
+  /**
+   * Check a predicted result bit length before an expensive operation is performed.
+   *
+   * @param predictedBitLength The predicted bit length of the result numerator or denominator, before cancellation
+   * @param operation The name of the operation, used in the exception message
+   * @throws ArithmeticException if the prediction exceeds the limit and the action is {@link Action#THROW}
+   */
+  void checkPrediction(long predictedBitLength, String operation) {
+    if (predictedBitLength > maxBitLength && action == Action.THROW) {
+      violations.increment();
+      throw new ArithmeticException(buildMessage(operation, predictedBitLength));
+    }
+  }
+
+  /**
+   * Determine if an operation has to be approximated because of its predicted result bit length.
+   * <p>
+   * If so, the violation is counted.
+   *
+   * @param predictedBitLength The predicted bit length of the result numerator or denominator, before cancellation
+   * @return {@code true} if the prediction exceeds the limit and the action is {@link Action#APPROXIMATE}, {@code false} otherwise.
+   */
+  boolean approximates(long predictedBitLength) {
+    if (predictedBitLength > maxBitLength && action == Action.APPROXIMATE) {
+      violations.increment();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Enforce this policy on a cancelled numerator and a positive denominator which {@link #exceeds(BigInteger, BigInteger)} the limit.
+   *
+   * @param numerator The numerator
+   * @param denominator The denominator, always positive
+   * @return an array holding the numerator and the denominator to be used
+   * @throws ArithmeticException if the action is {@link Action#THROW}, or if the value cannot be approximated
+   */
+  BigInteger[] enforce(BigInteger numerator, BigInteger denominator) {
+    violations.increment();
+    switch (action) {
+    case THROW:
+      throw new ArithmeticException(buildMessage("construction", Math.max(numerator.bitLength(), denominator.bitLength())));
+    case APPROXIMATE:
+      return approximate(numerator, denominator);
+    default:
+      return new BigInteger[] { numerator, denominator };
+    }
+  }
+
+  /**
+   * Approximate a fraction by its best rational approximation whose numerator and denominator both fit into the maximum bit length.
+   * <p>
+   * The candidates are the convergents and semiconvergents of the continued fraction of the value. The result is the last convergent
+   * within the limit, or the largest semiconvergent within the limit following it, whichever is closer to the value.
+   *
+   * @param numerator The numerator
+   * @param denominator The denominator, always positive
+   * @return an array holding the cancelled, approximated numerator and denominator
+   * @throws ArithmeticException if the integer part of the value itself exceeds the maximum bit length
+   */
+  BigInteger[] approximate(BigInteger numerator, BigInteger denominator) {
+    if (numerator.bitLength() <= maxBitLength && denominator.bitLength() <= maxBitLength) {
+      return new BigInteger[] { numerator, denominator };
+    }
+    BigInteger limit = BigInteger.ONE.shiftLeft(maxBitLength).subtract(BigInteger.ONE);
+    BigInteger magnitude = numerator.abs();
+    // the last two convergents h1/k1 and h2/k2, starting with 1/0 and 0/1
+    BigInteger h1 = BigInteger.ONE;
+    BigInteger k1 = BigInteger.ZERO;
+    BigInteger h2 = BigInteger.ZERO;
+    BigInteger k2 = BigInteger.ONE;
+    BigInteger dividend = magnitude;
+    BigInteger divisor = denominator;
+    while (divisor.signum() != 0) {
+      BigInteger[] quotientAndRemainder = dividend.divideAndRemainder(divisor);
+      BigInteger quotient = quotientAndRemainder[0];
+      BigInteger h = quotient.multiply(h1).add(h2);
+      BigInteger k = quotient.multiply(k1).add(k2);
+      if (h.compareTo(limit) > 0 || k.compareTo(limit) > 0) {
+        if (k1.signum() == 0) {
+          throw new ArithmeticException(buildMessage("approximation", numerator.bitLength() - denominator.bitLength()));
+        }
+        // the largest semiconvergent (t * h1 + h2) / (t * k1 + k2) within the limit
+        BigInteger t = limit.subtract(k2).divide(k1);
+        if (h1.signum() != 0) {
+          t = t.min(limit.subtract(h2).divide(h1));
+        }
+        BigInteger semiNumerator = t.multiply(h1).add(h2);
+        BigInteger semiDenominator = t.multiply(k1).add(k2);
+        if (t.signum() > 0 && isCloser(semiNumerator, semiDenominator, h1, k1, magnitude, denominator)) {
+          h1 = semiNumerator;
+          k1 = semiDenominator;
+        }
+        break;
+      }
+      h2 = h1;
+      k2 = k1;
+      h1 = h;
+      k1 = k;
+      dividend = divisor;
+      divisor = quotientAndRemainder[1];
+    }
+    return new BigInteger[] { numerator.signum() < 0 ? h1.negate() : h1, k1 };
+  }
+
+  /**
+   * Determine if a fraction is strictly closer to a value than another fraction.
+   *
+   * @param numerator1 The numerator of the first fraction
+   * @param denominator1 The positive denominator of the first fraction
+   * @param numerator2 The numerator of the second fraction
+   * @param denominator2 The positive denominator of the second fraction
+   * @param numerator The numerator of the value
+   * @param denominator The positive denominator of the value
+   * @return {@code true} if the first fraction is closer to the value, {@code false} otherwise.
+   */
+  private static boolean isCloser(BigInteger numerator1, BigInteger denominator1, BigInteger numerator2, BigInteger denominator2,
+      BigInteger numerator, BigInteger denominator) {
+    // |n1/d1 - n/d| < |n2/d2 - n/d|  <=>  |n1*d - n*d1| * d2 < |n2*d - n*d2| * d1
+    BigInteger distance1 = numerator1.multiply(denominator).subtract(numerator.multiply(denominator1)).abs().multiply(denominator2);
+    BigInteger distance2 = numerator2.multiply(denominator).subtract(numerator.multiply(denominator2)).abs().multiply(denominator1);
+    return distance1.compareTo(distance2) < 0;
+  }
+
+  /**
+   * Build the message for an {@link ArithmeticException}.
+   *
+   * @param operation The operation
+   * @param bitLength The offending bit length
+   * @return the message
+   */
+  private String buildMessage(String operation, long bitLength) {
+    return "size limit of " + maxBitLength + " bits exceeded by " + operation + " (" + bitLength + " bits).";
+  }
+
+}
@@ -0,0 +1,189 @@
+package st.extreme.math.fraction;
+
+import java.math.BigInteger;
+
+/**
+ * A cache of {@link BigFraction} instances for small integers and small proper fractions, similar to the cache of
+ * {@link Integer#valueOf(int)}.
+ * <p>
+ * The cache covers
+ * <ul>
+ * <li>the integers from {@code -128} to {@code high}, where {@code high} defaults to {@code 127}, and can be raised up to {@code 65536} by
+ * the system property {@value #HIGH_PROPERTY},
+ * <li>the proper fractions {@code n/d} with {@code |n| < d} and {@code 2 <= d <= maxDenominator}, where {@code maxDenominator} defaults to
+ * {@code 16}, and can be changed by the system property {@value #MAX_DENOMINATOR_PROPERTY} ({@code 1} disables the fraction cache).
+ * </ul>
+ * Lookups take {@code long} numerators and denominators, which are cancelled by a cheap {@code long} gcd. The instances are created
+ * lazily on the first lookup. A cached instance is only returned if it also satisfies the current {@link SizePolicy}.
+ */
+final class SmallValueCache {
+
+  /**
+   * The system property defining the largest cached integer
+   */
+  static final String HIGH_PROPERTY = "st.extreme.math.fraction.cache.high";
+
+  /**
+   * The system property defining the largest denominator of cached fractions
+   */
+  static final String MAX_DENOMINATOR_PROPERTY = "st.extreme.math.fraction.cache.maxDenominator";
+
+  /**
+   * The smallest cached integer
+   */
+  static final int LOW = -128;
+
+  /**
+   * The largest cached integer
+   */
+  static final int HIGH = Math.min(Math.max(Integer.getInteger(HIGH_PROPERTY, 127), 127), 1 << 16);
+
+  /**
+   * The largest denominator of cached fractions
+   */
+  static final int MAX_DENOMINATOR = Math.max(Math.min(Integer.getInteger(MAX_DENOMINATOR_PROPERTY, 16), 1 << 12), 1);
+
+  /**
+   * The cached integers, from {@link #LOW} to {@link #HIGH}
+   */
+  private static final BigFraction[] INTEGERS = new BigFraction[HIGH - LOW + 1];
+
+  /**
+   * The cached fractions: the fractions with denominator {@code d} start at index {@code (d - 1)^2 - 1}, ordered by numerator from
+   * {@code -(d - 1)} to {@code d - 1}
+   */
+  private static final BigFraction[] FRACTIONS = new BigFraction[MAX_DENOMINATOR * MAX_DENOMINATOR - 1];
+
+  static {
+    INTEGERS[-LOW] = BigFraction.ZERO;
+    INTEGERS[1 - LOW] = BigFraction.ONE;
+  }
+
+  /**
+   * No instances
+   */
+  private SmallValueCache() {
+  }
+
+  /**
+   * Look up the cached instance for a fraction.
+   *
+   * @param numerator The numerator
+   * @param denominator The denominator
+   * @return the cached instance, or {@code null} if the value is not cached
+   */
+  static BigFraction lookup(BigInteger numerator, BigInteger denominator) {
+    if (numerator.bitLength() < Integer.SIZE && denominator.bitLength() < Integer.SIZE) {
+      return lookup(numerator.longValue(), denominator.longValue());
+    }
+    return null;
+  }
+
+  /**
+   * Look up the cached instance for a fraction.
+   *
+   * @param numerator The numerator, in the range of an {@code int}
+   * @param denominator The denominator, in the range of an {@code int}
+   * @return the cached instance, or {@code null} if the value is not cached (including a zero denominator)
+   */
+  static BigFraction lookup(long numerator, long denominator) {
+    if (denominator == 0) {
+      return null;
+    }
+    return lookup(numerator, denominator, false);
+  }
+
+  /**
+   * Return the cached instance for a fraction, or a new instance of the pair already cancelled for the lookup.
+   *
+   * @param numerator The numerator, in the range of an {@code int}
+   * @param denominator The denominator, in the range of an {@code int}
+   * @return the cached instance, or a new instance if the value is not cached
+   * @throws ArithmeticException if the denominator is zero, or if the {@link SizePolicy} rejects the value
+   */
+  static BigFraction valueOf(long numerator, long denominator) {
+    if (denominator == 0) {
+      throw new ArithmeticException("division by zero is not allowed.");
+    }
+    return lookup(numerator, denominator, true);
+  }
+
+  /**
+   * @param numerator The numerator, in the range of an {@code int}
+   * @param denominator The denominator, in the range of an {@code int}, not zero
+   * @param create if {@code true}, a new instance is created if the value is not cached
+   * @return the cached instance, or a new instance or {@code null} if the value is not cached
+   */
+  private static BigFraction lookup(long numerator, long denominator, boolean create) {
+    if (denominator < 0) {
+      numerator = -numerator;
+      denominator = -denominator;
+    }
+    if (denominator != 1) {
+      long gcd = gcd(Math.abs(numerator), denominator);
+      numerator /= gcd;
+      denominator /= gcd;
+    }
+    BigFraction cached = cached(numerator, denominator);
+    if (cached != null && !SizePolicy.current().exceeds(cached.getNumerator(), cached.getDenominator())) {
+      return cached;
+    }
+    return create ? BigFraction.ofCancelled(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator)) : null;
+  }
+
+  /**
+   * @param numerator The cancelled numerator
+   * @param denominator The positive denominator
+   * @return the cached instance, created on the first call, or {@code null} if the value is not cached
+   */
+  private static BigFraction cached(long numerator, long denominator) {
+    BigFraction cached;
+    if (denominator == 1) {
+      if (numerator < LOW || numerator > HIGH) {
+        return null;
+      }
+      int index = (int) numerator - LOW;
+      cached = INTEGERS[index];
+      if (cached == null) {
+        cached = create(numerator, denominator);
+        // a racy publication is safe, as BigFraction is immutable
+        INTEGERS[index] = cached;
+      }
+    } else {
+      if (denominator > MAX_DENOMINATOR || Math.abs(numerator) >= denominator) {
+        return null;
+      }
+      int index = (int) ((denominator - 1) * (denominator - 1) - 1 + numerator + denominator - 1);
+      cached = FRACTIONS[index];
+      if (cached == null) {
+        cached = create(numerator, denominator);
+        FRACTIONS[index] = cached;
+      }
+    }
+    return cached;
+  }
+
+  /**
+   * @param numerator The cancelled numerator
+   * @param denominator The positive denominator
+   * @return a new instance, which is not checked against the current {@link SizePolicy} at this point
+   */
+  private static BigFraction create(long numerator, long denominator) {
+    return BigFraction.unchecked(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+  }
+
+  /**
+   * @param a A non-negative value
+   * @param b A positive value
+   * @return the greatest common divisor of {@code a} and {@code b}
+   */
+  private static long gcd(long a, long b) {
+    while (a != 0) {
+      long r = b % a;
+      b = a;
+      a = r;
+    }
+    return b;
+  }
+
+}
@@ -0,0 +1,22 @@
+package st.extreme.math.fraction;
+
+/**
+ * Represents a function that produces a {@link BigFraction} result.
+ * <p>
+ * This is the {@code BigFraction} specialization of {@link java.util.function.Function}, in the spirit of
+ * {@link java.util.function.ToDoubleFunction}.
+ *
+ * @param <T> the type of the input to the function
+ */
+@FunctionalInterface
+public interface ToBigFractionFunction<T> {
+
+  /**
+   * Apply this function to the given argument.
+   *
+   * @param value the function argument
+   * @return the function result
+   */
+  BigFraction applyAsBigFraction(T value);
+
+}
@@ -0,0 +1,57 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+public class ApproximateKeysTest {
+
+  @Test
+  public void testKey() {
+    assertEquals(0.0, ApproximateKeys.key(BigFraction.ZERO), 0.0);
+    assertEquals(-1.75, ApproximateKeys.key(BigFraction.valueOf("-7/4")), 0.0);
+    BigFraction third = BigFraction.valueOf("1/3");
+    assertEquals(third.doubleValue(), ApproximateKeys.key(third), Math.ulp(third.doubleValue()));
+    BigFraction big = new BigFraction(BigInteger.TEN.pow(100).add(BigInteger.ONE), BigInteger.valueOf(7).pow(50));
+    assertEquals(big.doubleValue(), ApproximateKeys.key(big), 4 * Math.ulp(big.doubleValue()));
+  }
+
+  @Test
+  public void testKey_clamped() {
+    BigFraction huge = new BigFraction(BigInteger.ONE.shiftLeft(2000), BigInteger.ONE);
+    assertEquals(0x1p960, ApproximateKeys.key(huge), 0.0);
+    assertEquals(-0x1p960, ApproximateKeys.key(huge.negate()), 0.0);
+    BigFraction tiny = huge.reciprocal();
+    assertEquals(0x1p-960, ApproximateKeys.key(tiny), 0.0);
+    assertEquals(-0x1p-960, ApproximateKeys.key(tiny.negate()), 0.0);
+  }
+
+  @Test
+  public void testAmbiguous() {
+    assertTrue(ApproximateKeys.ambiguous(0.0, 0.0));
+    assertTrue(ApproximateKeys.ambiguous(1.0, 1.0 + 0x1p-45));
+    assertFalse(ApproximateKeys.ambiguous(1.0, 1.0 + 0x1p-30));
+    assertFalse(ApproximateKeys.ambiguous(0.0, 0x1p-960));
+    assertFalse(ApproximateKeys.ambiguous(-1.0, 1.0));
+  }
+
+  @Test
+  public void testCompare() {
+    BigInteger large = BigInteger.TEN.pow(40);
+    BigFraction value1 = new BigFraction(large, BigInteger.ONE);
+    BigFraction value2 = new BigFraction(large.add(BigInteger.ONE), BigInteger.ONE);
+    double key1 = ApproximateKeys.key(value1);
+    double key2 = ApproximateKeys.key(value2);
+    assertEquals(key1, key2, 0.0);
+    assertEquals(-1, ApproximateKeys.compare(value1, key1, value2, key2));
+    assertEquals(1, ApproximateKeys.compare(value2, key2, value1, key1));
+    assertEquals(0, ApproximateKeys.compare(value1, key1, value1, key1));
+    BigFraction half = BigFraction.valueOf("1/2");
+    assertEquals(-1, ApproximateKeys.compare(half, ApproximateKeys.key(half), value1, key1));
+  }
+
+}
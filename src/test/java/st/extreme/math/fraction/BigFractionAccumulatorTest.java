@@ -0,0 +1,116 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BigFractionAccumulatorTest {
+
+  @Test
+  public void testEmpty() {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    assertEquals(BigFraction.ZERO, accumulator.toBigFraction());
+    assertEquals(0, accumulator.signum());
+    assertEquals("0", accumulator.toString());
+  }
+
+  @Test
+  public void testAdd() {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    accumulator.add(BigFraction.valueOf("2/15"));
+    accumulator.add(BigFraction.valueOf("6/5"));
+    assertEquals("4/3", accumulator.toBigFraction().toString());
+    accumulator.add(BigFraction.valueOf("-1/3"));
+    assertEquals(BigFraction.ONE, accumulator.toBigFraction());
+  }
+
+  @Test
+  public void testAdd_long() {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    accumulator.add(BigFraction.valueOf("1/3"));
+    accumulator.add(2);
+    accumulator.add(-5L);
+    assertEquals("-8/3", accumulator.toBigFraction().toString());
+  }
+
+  @Test
+  public void testAdd_accumulator() {
+    BigFractionAccumulator accumulator1 = new BigFractionAccumulator();
+    accumulator1.add(BigFraction.valueOf("1/6"));
+    BigFractionAccumulator accumulator2 = new BigFractionAccumulator();
+    accumulator2.add(BigFraction.valueOf("1/4"));
+    accumulator1.add(accumulator2);
+    assertEquals("5/12", accumulator1.toBigFraction().toString());
+    assertEquals("1/4", accumulator2.toBigFraction().toString());
+  }
+
+  @Test
+  public void testSubtract() {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    accumulator.subtract(BigFraction.valueOf("8/15"));
+    accumulator.subtract(BigFraction.valueOf("-6/5"));
+    assertEquals("2/3", accumulator.toBigFraction().toString());
+  }
+
+  @Test
+  public void testAddProduct() {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    accumulator.addProduct(BigFraction.valueOf("2/3"), BigFraction.valueOf("-6/7"));
+    accumulator.addProduct(BigFraction.valueOf("1/7"), BigFraction.valueOf("7"));
+    assertEquals("3/7", accumulator.toBigFraction().toString());
+  }
+
+  @Test
+  public void testReset() {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    accumulator.add(BigFraction.valueOf("2/3"));
+    accumulator.reset();
+    assertEquals(BigFraction.ZERO, accumulator.toBigFraction());
+  }
+
+  @Test
+  public void testIllegalReductionInterval() {
+    try {
+      new BigFractionAccumulator(0);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("positive"));
+    }
+  }
+
+  @Test
+  public void testSameAsAdd() {
+    Random random = new Random(4711);
+    for (int reductionInterval : new int[] { 1, 3, BigFractionAccumulator.DEFAULT_REDUCTION_INTERVAL }) {
+      BigFractionAccumulator accumulator = new BigFractionAccumulator(reductionInterval);
+      BigFraction sum = BigFraction.ZERO;
+      for (int i = 0; i < 1000; i++) {
+        BigFraction value = new BigFraction(String.valueOf(random.nextInt(2001) - 1000), String.valueOf(random.nextInt(30) + 1));
+        if (i % 3 == 0) {
+          accumulator.subtract(value);
+          sum = sum.subtract(value);
+        } else {
+          accumulator.add(value);
+          sum = sum.add(value);
+        }
+      }
+      assertEquals(sum, accumulator.toBigFraction());
+    }
+  }
+
+  @Test
+  public void testSharedDenominator() {
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    for (int i = 0; i < 100; i++) {
+      accumulator.add(BigFraction.valueOf("0.01"));
+      accumulator.add(BigFraction.valueOf("0.1"));
+    }
+    assertEquals("100", accumulator.getDenominator().toString());
+    assertEquals("11", accumulator.toBigFraction().toString());
+  }
+
+}
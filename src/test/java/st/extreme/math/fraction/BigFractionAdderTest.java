@@ -0,0 +1,80 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class BigFractionAdderTest {
+
+  @Test
+  public void testAdd() {
+    BigFractionAdder adder = new BigFractionAdder();
+    assertEquals(BigFraction.ZERO, adder.sum());
+    adder.add(BigFraction.valueOf("2/15"));
+    adder.add(BigFraction.valueOf("6/5"));
+    adder.add(-1);
+    assertEquals("1/3", adder.sum().toString());
+    assertEquals("1/3", adder.toString());
+  }
+
+  @Test
+  public void testReset() {
+    BigFractionAdder adder = new BigFractionAdder(3);
+    adder.add(BigFraction.valueOf("2/3"));
+    adder.reset();
+    assertEquals(BigFraction.ZERO, adder.sum());
+    adder.add(BigFraction.valueOf("1/7"));
+    assertEquals("1/7", adder.sumThenReset().toString());
+    assertEquals(BigFraction.ZERO, adder.sum());
+  }
+
+  @Test
+  public void testIllegalStripes() {
+    try {
+      new BigFractionAdder(0);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("positive"));
+    }
+  }
+
+  @Test
+  public void testConcurrentAdd() throws Exception {
+    int threads = 8;
+    int additions = 2_000;
+    BigFractionAdder adder = new BigFractionAdder();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int denominator = t + 1;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < additions; i++) {
+            adder.add(new BigFraction("1", String.valueOf(denominator)));
+            adder.add(1L);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    BigFraction expected = BigFraction.ZERO;
+    for (int t = 0; t < threads; t++) {
+      expected = expected.add(new BigFraction("1", String.valueOf(t + 1)));
+    }
+    expected = expected.add(BigFraction.valueOf(threads)).multiply(BigFraction.valueOf(additions));
+    assertEquals(expected, adder.sum());
+  }
+
+}
@@ -0,0 +1,266 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BigFractionArraysTest {
+
+  /**
+   * Random values, with many duplicates and many values too close to be ordered by their approximations
+   */
+  static BigFraction[] randomValues(Random random, int length) {
+    BigInteger large = BigInteger.TEN.pow(30);
+    BigFraction[] values = new BigFraction[length];
+    for (int i = 0; i < length; i++) {
+      switch (random.nextInt(4)) {
+      case 0:
+        values[i] = new BigFraction(String.valueOf(random.nextInt(21) - 10), String.valueOf(random.nextInt(3) + 1));
+        break;
+      case 1:
+        values[i] = new BigFraction(large.add(BigInteger.valueOf(random.nextInt(100))), large);
+        break;
+      case 2:
+        values[i] = new BigFraction(BigInteger.ONE.shiftLeft(1500 + random.nextInt(3)), BigInteger.valueOf(random.nextInt(5) + 1));
+        if (random.nextBoolean()) {
+          values[i] = values[i].reciprocal();
+        }
+        break;
+      default:
+        values[i] = new BigFraction(String.valueOf(random.nextLong()), String.valueOf(random.nextInt(Integer.MAX_VALUE) + 1L));
+        break;
+      }
+    }
+    return values;
+  }
+
+  @Test
+  public void testSelect() {
+    Random random = new Random(4711);
+    for (int length : new int[] { 1, 2, 15, 17, 100, 1000 }) {
+      BigFraction[] values = randomValues(random, length);
+      BigFraction[] original = values.clone();
+      BigFraction[] sorted = values.clone();
+      Arrays.sort(sorted);
+      for (int k = 0; k < length; k += Math.max(1, length / 20)) {
+        assertEquals(sorted[k], BigFractionArrays.select(values, k));
+      }
+      assertEquals(sorted[length - 1], BigFractionArrays.select(values, length - 1));
+      assertArrayEquals(original, values);
+    }
+  }
+
+  @Test
+  public void testSelect_allEqual() {
+    BigFraction[] values = new BigFraction[1000];
+    Arrays.fill(values, BigFraction.valueOf("1/3"));
+    assertEquals(BigFraction.valueOf("1/3"), BigFractionArrays.select(values, 500));
+  }
+
+  @Test
+  public void testSelect_illegalRank() {
+    try {
+      BigFractionArrays.select(new BigFraction[] { BigFraction.ONE }, 1);
+      fail("IndexOutOfBoundsException expected");
+    } catch (IndexOutOfBoundsException ioobe) {
+      assertEquals("k: 1, length: 1", ioobe.getMessage());
+    }
+  }
+
+  @Test
+  public void testMedian() {
+    assertEquals("1/3", BigFractionArrays.median(new BigFraction[] { BigFraction.valueOf("1/3") }).toString());
+    assertEquals("5/12", BigFractionArrays.median(new BigFraction[] { BigFraction.valueOf("1/2"), BigFraction.valueOf("1/3") }).toString());
+    Random random = new Random(4711);
+    for (int length : new int[] { 99, 100, 1001 }) {
+      BigFraction[] values = randomValues(random, length);
+      BigFraction[] sorted = values.clone();
+      Arrays.sort(sorted);
+      BigFraction expected = length % 2 == 1 ? sorted[length / 2]
+          : sorted[length / 2 - 1].add(sorted[length / 2]).divide(BigFraction.valueOf(2));
+      assertEquals(expected, BigFractionArrays.median(values));
+    }
+  }
+
+  @Test
+  public void testMedian_empty() {
+    try {
+      BigFractionArrays.median(new BigFraction[0]);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("empty"));
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    BigFraction[] values = new BigFraction[100];
+    for (int i = 0; i < values.length; i++) {
+      values[(i * 37) % 100] = new BigFraction(String.valueOf(i + 1), "4");
+    }
+    BigFraction[] percentiles = BigFractionArrays.percentiles(values, 99, 0, 50, 25.5, 100);
+    assertEquals("99/4", percentiles[0].toString());
+    assertEquals("1/4", percentiles[1].toString());
+    assertEquals("25/2", percentiles[2].toString());
+    assertEquals("13/2", percentiles[3].toString());
+    assertEquals("25", percentiles[4].toString());
+  }
+
+  @Test
+  public void testPercentiles_integral() {
+    BigFraction[] values = new BigFraction[100];
+    double[] all = new double[101];
+    for (int i = 0; i < values.length; i++) {
+      values[(i * 37) % 100] = BigFraction.valueOf(i + 1);
+    }
+    for (int p = 0; p <= 100; p++) {
+      all[p] = p;
+    }
+    BigFraction[] percentiles = BigFractionArrays.percentiles(values, all);
+    for (int p = 0; p <= 100; p++) {
+      // the nearest rank of the p-th percentile of 1..100 is p itself
+      assertEquals("percentile " + p, BigFraction.valueOf(Math.max(p, 1)), percentiles[p]);
+    }
+  }
+
+  @Test
+  public void testPercentiles_random() {
+    Random random = new Random(4711);
+    BigFraction[] values = randomValues(random, 5000);
+    BigFraction[] sorted = values.clone();
+    Arrays.sort(sorted);
+    BigFraction[] percentiles = BigFractionArrays.percentiles(values, 90, 10, 50, 99.9);
+    assertEquals(sorted[4499], percentiles[0]);
+    assertEquals(sorted[499], percentiles[1]);
+    assertEquals(sorted[2499], percentiles[2]);
+    assertEquals(sorted[4994], percentiles[3]);
+  }
+
+  @Test
+  public void testPercentiles_outOfRange() {
+    try {
+      BigFractionArrays.percentiles(new BigFraction[] { BigFraction.ONE }, 100.5);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("percentile 100.5 is not in the range [0, 100].", iae.getMessage());
+    }
+  }
+
+  @Test
+  public void testParallelSort() {
+    Random random = new Random(4711);
+    for (int length : new int[] { 0, 1, 2, 50, 20_000 }) {
+      BigFraction[] values = randomValues(random, length);
+      BigFraction[] expected = values.clone();
+      Arrays.sort(expected);
+      BigFractionArrays.parallelSort(values);
+      assertArrayEquals(expected, values);
+    }
+  }
+
+  @Test
+  public void testParallelSort_range() {
+    Random random = new Random(4711);
+    BigFraction[] values = randomValues(random, 1000);
+    BigFraction[] expected = values.clone();
+    Arrays.sort(expected, 100, 900);
+    BigFractionArrays.parallelSort(values, 100, 900);
+    assertArrayEquals(expected, values);
+  }
+
+  @Test
+  public void testParallelSort_illegalRange() {
+    try {
+      BigFractionArrays.parallelSort(new BigFraction[3], 2, 1);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("fromIndex(2) > toIndex(1)", iae.getMessage());
+    }
+    try {
+      BigFractionArrays.parallelSort(new BigFraction[3], 0, 4);
+      fail("ArrayIndexOutOfBoundsException expected");
+    } catch (ArrayIndexOutOfBoundsException aioobe) {
+      assertTrue(aioobe.getMessage().contains("4"));
+    }
+  }
+
+  @Test
+  public void testParallelPrefix() {
+    Random random = new Random(4711);
+    for (int length : new int[] { 0, 1, 2, 50, 20_000 }) {
+      BigFraction[] values = new BigFraction[length];
+      for (int i = 0; i < length; i++) {
+        values[i] = new BigFraction(BigInteger.valueOf(random.nextInt(2001) - 1000), BigInteger.valueOf(random.nextInt(1000) + 1));
+      }
+      BigFraction[] expected = values.clone();
+      for (int i = 1; i < length; i++) {
+        expected[i] = expected[i - 1].add(expected[i]);
+      }
+      BigFractionArrays.parallelPrefix(values);
+      assertArrayEquals(expected, values);
+    }
+  }
+
+  @Test
+  public void testParallelPrefix_operator() {
+    BigFraction[] values = { BigFraction.valueOf("1/2"), BigFraction.valueOf("-3"), BigFraction.valueOf("7/3"), BigFraction.valueOf("2") };
+    BigFractionArrays.parallelPrefix(values, (value1, value2) -> value1.compareTo(value2) >= 0 ? value1 : value2);
+    assertEquals("[1/2, 1/2, 7/3, 7/3]", Arrays.toString(values));
+  }
+
+  @Test
+  public void testCommonDenominator() {
+    BigFraction[] values = { BigFraction.valueOf("1/4"), BigFraction.valueOf("-5/6"), BigFraction.valueOf(3), BigFraction.valueOf("7/10") };
+    CommonDenominator common = BigFractionArrays.commonDenominator(values);
+    assertEquals(BigInteger.valueOf(60), common.getDenominator());
+    assertEquals(4, common.size());
+    assertArrayEquals(new BigInteger[] { BigInteger.valueOf(15), BigInteger.valueOf(-50), BigInteger.valueOf(180), BigInteger.valueOf(42) },
+        common.getNumerators());
+    assertEquals(BigInteger.valueOf(-50), common.getNumerator(1));
+    assertArrayEquals(values, common.toBigFractions());
+    assertEquals(BigFraction.valueOf("-5/6"), common.get(1));
+    assertEquals(BigFraction.valueOf("187/60"), common.sum());
+    assertTrue(common.compare(0, 1) > 0);
+    assertTrue(common.compare(1, 2) < 0);
+    try {
+      common.get(4);
+      fail("IndexOutOfBoundsException expected");
+    } catch (IndexOutOfBoundsException ioobe) {
+      assertEquals("index: 4, size: 4", ioobe.getMessage());
+    }
+  }
+
+  @Test
+  public void testCommonDenominator_large() {
+    Random random = new Random(4711);
+    BigInteger[] denominators = { BigInteger.valueOf(100), BigInteger.valueOf(360), BigInteger.ONE.shiftLeft(70), BigInteger.valueOf(7) };
+    BigFraction[] values = new BigFraction[50_000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = new BigFraction(BigInteger.valueOf(random.nextInt(20001) - 10000), denominators[random.nextInt(denominators.length)]);
+    }
+    CommonDenominator common = BigFractionArrays.commonDenominator(values);
+    assertEquals(BigInteger.ONE.shiftLeft(70).multiply(BigInteger.valueOf(9 * 25 * 7)), common.getDenominator());
+    assertArrayEquals(values, common.toBigFractions());
+    BigFractionAccumulator sum = new BigFractionAccumulator();
+    for (BigFraction value : values) {
+      sum.add(value);
+    }
+    assertEquals(sum.toBigFraction(), common.sum());
+  }
+
+  @Test
+  public void testCommonDenominator_empty() {
+    CommonDenominator common = BigFractionArrays.commonDenominator(new BigFraction[0]);
+    assertEquals(BigInteger.ONE, common.getDenominator());
+    assertEquals(0, common.size());
+    assertEquals(BigFraction.ZERO, common.sum());
+  }
+
+}
@@ -0,0 +1,104 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class BigFractionCollectorsTest {
+
+  private static List<BigFraction> randomValues(int size) {
+    Random random = new Random(4711);
+    List<BigFraction> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      values.add(new BigFraction(String.valueOf(random.nextInt(2001) - 1000), String.valueOf(random.nextInt(50) + 1)));
+    }
+    return values;
+  }
+
+  @Test
+  public void testSumming() {
+    Stream<BigFraction> values = Stream.of(BigFraction.valueOf("2/15"), BigFraction.valueOf("6/5"));
+    assertEquals("4/3", values.collect(BigFractionCollectors.summing()).toString());
+    assertEquals(BigFraction.ZERO, Stream.<BigFraction> empty().collect(BigFractionCollectors.summing()));
+  }
+
+  @Test
+  public void testSumming_parallel() {
+    List<BigFraction> values = randomValues(10_000);
+    BigFraction expected = BigFraction.ZERO;
+    for (BigFraction value : values) {
+      expected = expected.add(value);
+    }
+    assertEquals(expected, values.parallelStream().collect(BigFractionCollectors.summing()));
+    assertEquals(expected, values.stream().collect(BigFractionCollectors.summing()));
+  }
+
+  @Test
+  public void testSumming_mapper() {
+    List<String> strings = Arrays.asList("1/2", "1/3", "1/6", "0.25");
+    assertEquals("5/4", strings.stream().collect(BigFractionCollectors.summing(BigFraction::valueOf)).toString());
+  }
+
+  @Test
+  public void testAveraging() {
+    Stream<BigFraction> thirds = Stream.of(BigFraction.valueOf("1/3"), BigFraction.valueOf("2/3"));
+    assertEquals("1/2", thirds.collect(BigFractionCollectors.averaging()).toString());
+    assertEquals(BigFraction.ZERO, Stream.<BigFraction> empty().collect(BigFractionCollectors.averaging()));
+    List<BigFraction> values = randomValues(1_000);
+    BigFraction sum = values.stream().collect(BigFractionCollectors.summing());
+    assertEquals(sum.divide(BigFraction.valueOf(values.size())), values.parallelStream().collect(BigFractionCollectors.averaging()));
+  }
+
+  @Test
+  public void testMultiplying() {
+    Stream<BigFraction> factors = Stream.of(BigFraction.valueOf("2/3"), BigFraction.valueOf("-6/7"));
+    assertEquals("-4/7", factors.collect(BigFractionCollectors.multiplying()).toString());
+    assertEquals(BigFraction.ONE, Stream.<BigFraction> empty().collect(BigFractionCollectors.multiplying()));
+    assertEquals(BigFraction.ZERO,
+        Stream.of(BigFraction.valueOf("2/3"), BigFraction.ZERO, BigFraction.valueOf(5)).collect(BigFractionCollectors.multiplying()));
+    List<BigFraction> values = randomValues(200);
+    BigFraction expected = BigFraction.ONE;
+    for (BigFraction value : values) {
+      expected = expected.multiply(value);
+    }
+    assertEquals(expected, values.parallelStream().collect(BigFractionCollectors.multiplying()));
+  }
+
+  @Test
+  public void testSummarizing() {
+    List<BigFraction> values = randomValues(5_000);
+    BigFractionSummaryStatistics statistics = values.parallelStream().collect(BigFractionCollectors.summarizing());
+    assertEquals(values.size(), statistics.getCount());
+    assertEquals(values.stream().collect(BigFractionCollectors.summing()), statistics.getSum());
+    assertEquals(Collections.min(values), statistics.getMin().get());
+    assertEquals(Collections.max(values), statistics.getMax().get());
+    assertEquals(statistics.getSum().divide(BigFraction.valueOf(values.size())), statistics.getAverage());
+  }
+
+  @Test
+  public void testSummarizing_empty() {
+    BigFractionSummaryStatistics statistics = Stream.<BigFraction> empty().collect(BigFractionCollectors.summarizing());
+    assertEquals(0, statistics.getCount());
+    assertEquals(BigFraction.ZERO, statistics.getSum());
+    assertEquals(BigFraction.ZERO, statistics.getAverage());
+    assertFalse(statistics.getMin().isPresent());
+    assertFalse(statistics.getMax().isPresent());
+    assertEquals("BigFractionSummaryStatistics{count=0, sum=0, min=null, average=0, max=null}", statistics.toString());
+  }
+
+  @Test
+  public void testSummarizing_mapper() {
+    Stream<String> strings = Stream.of("3/4", "-1/2", "2");
+    BigFractionSummaryStatistics statistics = strings.collect(BigFractionCollectors.summarizing(BigFraction::valueOf));
+    assertEquals("BigFractionSummaryStatistics{count=3, sum=9/4, min=-1/2, average=3/4, max=2}", statistics.toString());
+  }
+
+}
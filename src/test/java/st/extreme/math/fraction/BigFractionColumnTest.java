@@ -0,0 +1,173 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BigFractionColumnTest {
+
+  private static final List<BigFraction> VALUES = Arrays.asList(BigFraction.valueOf("1/3"), BigFraction.valueOf(42), BigFraction.ZERO,
+      BigFraction.valueOf("-7/2"), BigFraction.valueOf(Long.MAX_VALUE + "/2"), BigFraction.valueOf(Long.MIN_VALUE),
+      BigFraction.valueOf("9223372036854775808/3"), new BigFraction("-123456789012345678901234567890", "98765432109876543210987"),
+      BigFraction.valueOf("3/" + Long.MAX_VALUE));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testWriteAndOpen() throws IOException {
+    Path file = write(VALUES);
+    // the temporary overflow file is gone
+    try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+      assertEquals(1, files.count());
+    }
+    BigFractionColumn column = BigFractionColumn.open(file);
+    assertEquals(VALUES.size(), column.size());
+    for (int i = 0; i < VALUES.size(); i++) {
+      assertEquals(VALUES.get(i), column.get(i));
+    }
+    assertEquals(VALUES, column.stream().collect(Collectors.toList()));
+    assertEquals(VALUES, column.parallelStream().collect(Collectors.toList()));
+    assertTrue(Files.size(file) > BigFractionColumn.HEADER_SIZE + BigFractionColumn.SLOT_SIZE * VALUES.size());
+  }
+
+  @Test
+  public void testAggregates() throws IOException {
+    BigFractionColumn column = BigFractionColumn.open(write(VALUES));
+    assertEquals(VALUES.stream().reduce(BigFraction.ZERO, BigFraction::add), column.sum());
+    assertEquals(BigFraction.valueOf(Long.MAX_VALUE + "/2"), column.max().get());
+    assertEquals(BigFraction.valueOf(Long.MIN_VALUE), column.min().get());
+    double[] expected = VALUES.stream().mapToDouble(BigFraction::doubleValue).toArray();
+    assertArrayEquals(expected, column.toDoubleArray(), 0.0);
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    BigFractionColumn column = BigFractionColumn.open(write(new ArrayList<>()));
+    assertEquals(0, column.size());
+    assertEquals(BigFraction.ZERO, column.sum());
+    assertFalse(column.min().isPresent());
+    assertFalse(column.max().isPresent());
+    assertEquals(0, column.toDoubleArray().length);
+  }
+
+  @Test
+  public void testSmallSegments() throws IOException {
+    Random random = new Random(4711);
+    List<BigFraction> values = new ArrayList<>();
+    for (int i = 0; i < 30_000; i++) {
+      int bits = i % 10 == 0 ? 100 : 30;
+      BigInteger numerator = new BigInteger(bits, random).subtract(BigInteger.ONE.shiftLeft(bits - 1));
+      values.add(new BigFraction(numerator, BigInteger.valueOf(1 + random.nextInt(50))));
+    }
+    // overflow entries cross the segment boundaries
+    BigFractionColumn column = BigFractionColumn.open(write(values), 1 << 10);
+    assertEquals(values.size(), column.size());
+    for (int i = 0; i < values.size(); i += 7) {
+      assertEquals(values.get(i), column.get(i));
+    }
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    values.forEach(accumulator::add);
+    assertEquals(accumulator.toBigFraction(), column.sum());
+    assertEquals(values.stream().min(BigFraction::compareTo).get(), column.min().get());
+    assertEquals(values.stream().max(BigFraction::compareTo).get(), column.max().get());
+    double[] doubles = column.toDoubleArray();
+    for (int i = 0; i < doubles.length; i += 97) {
+      assertEquals(values.get(i).doubleValue(), doubles[i], 0.0);
+    }
+  }
+
+  @Test
+  public void testInvalidFiles() throws IOException {
+    Path file = folder.newFile("invalid.column").toPath();
+    Files.write(file, new byte[] { 1, 2, 3 });
+    try {
+      BigFractionColumn.open(file);
+      fail("IOException expected");
+    } catch (IOException ioe) {
+      assertTrue(ioe.getMessage().endsWith("is not a BigFraction column."));
+    }
+    Path complete = write(VALUES);
+    byte[] bytes = Files.readAllBytes(complete);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+    try {
+      BigFractionColumn.open(file);
+      fail("IOException expected");
+    } catch (IOException ioe) {
+      assertTrue(ioe.getMessage().endsWith("is incomplete."));
+    }
+  }
+
+  @Test
+  public void testIllegalArguments() throws IOException {
+    BigFractionColumn column = BigFractionColumn.open(write(VALUES));
+    try {
+      column.get(VALUES.size());
+      fail("IndexOutOfBoundsException expected");
+    } catch (IndexOutOfBoundsException ioobe) {
+      assertEquals("index: 9, size: 9", ioobe.getMessage());
+    }
+    BigFractionColumn.Writer writer = BigFractionColumn.writer(folder.newFile().toPath());
+    writer.add(BigFraction.ONE);
+    assertEquals(1, writer.size());
+    writer.close();
+    writer.close();
+    try {
+      writer.add(BigFraction.ONE);
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException ise) {
+      assertEquals("the writer is closed.", ise.getMessage());
+    }
+    Path file = write(VALUES);
+    for (int segmentSize : new int[] { 0, -BigFractionColumn.SLOT_SIZE, BigFractionColumn.SLOT_SIZE + 1 }) {
+      try {
+        BigFractionColumn.open(file, segmentSize);
+        fail("IllegalArgumentException expected");
+      } catch (IllegalArgumentException iae) {
+        assertEquals("the segment size has to be a positive multiple of 16.", iae.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testWriterFailure() throws IOException {
+    Path directory = folder.newFolder("column").toPath();
+    try {
+      BigFractionColumn.writer(directory);
+      fail("IOException expected");
+    } catch (IOException ioe) {
+      // a directory cannot be written as a file
+    }
+    // no temporary overflow file is left behind
+    try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+      assertEquals(Arrays.asList(directory), files.collect(Collectors.toList()));
+    }
+  }
+
+  private Path write(List<BigFraction> values) throws IOException {
+    Path file = folder.getRoot().toPath().resolve("values.column");
+    try (BigFractionColumn.Writer writer = BigFractionColumn.writer(file)) {
+      values.forEach(writer::add);
+      assertEquals(values.size(), writer.size());
+    }
+    return file;
+  }
+
+}
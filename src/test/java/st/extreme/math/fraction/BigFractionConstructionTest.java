@@ -5,6 +5,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.math.BigInteger;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -142,4 +143,55 @@ public class BigFractionConstructionTest {
     assertEquals(1, bf.signum());
   }
 
+  @Test
+  public void testOfAll() {
+    BigInteger[] numerators = { TEN, MINUS_FIVE, ZERO, THREE, MINUS_TWO, TWO, THREE, FIVE };
+    BigInteger[] denominators = { MINUS_FIVE, TEN, MINUS_THREE, ONE, MINUS_ONE, MINUS_TEN, MINUS_TWO, MINUS_ONE };
+    BigFraction[] fractions = BigFraction.ofAll(numerators, denominators);
+    assertEquals(8, fractions.length);
+    for (int i = 0; i < fractions.length; i++) {
+      assertEquals(new BigFraction(numerators[i], denominators[i]), fractions[i]);
+    }
+    assertEquals("-2", fractions[0].toString());
+    assertEquals("-1/2", fractions[1].toString());
+    assertEquals(ONE, fractions[2].getDenominator());
+    assertEquals("2", fractions[4].toString());
+    assertEquals("-1/5", fractions[5].toString());
+    assertEquals("-3/2", fractions[6].toString());
+    assertEquals("-5", fractions[7].toString());
+  }
+
+  @Test
+  public void testOfAll_parallel() {
+    Random random = new Random(4711);
+    int length = 20_000;
+    BigInteger shared = BigInteger.ONE.shiftLeft(100).add(BigInteger.ONE);
+    BigInteger[] numerators = new BigInteger[length];
+    BigInteger[] denominators = new BigInteger[length];
+    for (int i = 0; i < length; i++) {
+      numerators[i] = BigInteger.valueOf(random.nextInt(1000) - 500).multiply(shared);
+      denominators[i] = BigInteger.valueOf(random.nextInt(999) + 1).multiply(i % 2 == 0 ? shared : ONE);
+    }
+    BigFraction[] fractions = BigFraction.ofAll(numerators, denominators);
+    for (int i = 0; i < length; i++) {
+      assertEquals(new BigFraction(numerators[i], denominators[i]), fractions[i]);
+    }
+  }
+
+  @Test
+  public void testOfAll_illegalArguments() {
+    try {
+      BigFraction.ofAll(new BigInteger[] { ONE }, new BigInteger[0]);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("numerators and denominators differ in length.", iae.getMessage());
+    }
+    try {
+      BigFraction.ofAll(new BigInteger[] { ONE, ZERO }, new BigInteger[] { ONE, ZERO });
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("division by zero"));
+    }
+  }
+
 }
@@ -0,0 +1,144 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BigFractionExpressionTest {
+
+  @Test
+  public void testEvaluate() {
+    BigFractionExpression x = BigFractionExpression.of(BigFraction.valueOf("2/3"));
+    BigFractionExpression y = x.multiply(BigFraction.valueOf("7/5")).add(BigFraction.ONE).divide(x).pow(3);
+    BigFraction expected = BigFraction.valueOf("2/3").multiply(BigFraction.valueOf("7/5")).add(BigFraction.ONE)
+        .divide(BigFraction.valueOf("2/3")).pow(3);
+    assertEquals(expected, y.evaluate());
+    assertEquals(expected, y.parallelEvaluate());
+  }
+
+  @Test
+  public void testSum() {
+    BigFractionExpression sum = BigFractionExpression.of(BigFraction.valueOf("1/2")).subtract(BigFraction.valueOf("1/3"))
+        .add(BigFractionExpression.of(BigFraction.valueOf("1/6")).negate()).subtract(BigFractionExpression.of(BigFraction.ONE).negate());
+    assertEquals(BigFraction.ONE, sum.evaluate());
+    assertEquals(BigFraction.valueOf(-1), sum.negate().evaluate());
+  }
+
+  @Test
+  public void testProduct_cancellation() {
+    BigFraction big = new BigFraction(BigInteger.ONE.shiftLeft(200).add(BigInteger.ONE), BigInteger.valueOf(3));
+    BigFractionExpression x = BigFractionExpression.of(big);
+    BigFractionExpression y = BigFractionExpression.of(BigFraction.valueOf("5/7"));
+    assertEquals(BigFraction.valueOf("5/7"), x.multiply(y).divide(big).evaluate());
+    assertEquals(BigFraction.valueOf("5/7"), x.pow(10).multiply(y).multiply(x.pow(-10)).evaluate());
+    assertEquals(BigFraction.valueOf("-5/7"), x.negate().multiply(y).divide(x).evaluate());
+    assertEquals(BigFraction.ONE, x.divide(x).evaluate());
+    // a subexpression cancels out if it is the same instance
+    BigFractionExpression sum = x.add(y);
+    assertEquals(BigFraction.valueOf("5/7"), sum.multiply(y).divide(sum).evaluate());
+  }
+
+  @Test
+  public void testPow() {
+    BigFractionExpression x = BigFractionExpression.of(BigFraction.valueOf("-2/3"));
+    assertEquals(BigFraction.valueOf("-8/27"), x.pow(3).evaluate());
+    assertEquals(BigFraction.valueOf("9/4"), x.pow(-2).evaluate());
+    assertEquals(BigFraction.ONE, x.pow(0).evaluate());
+    assertEquals(BigFraction.valueOf("64/729"), x.pow(3).pow(2).evaluate());
+  }
+
+  @Test
+  public void testDivisionByZero() {
+    BigFractionExpression zero = BigFractionExpression.of(BigFraction.ZERO);
+    BigFractionExpression one = BigFractionExpression.of(BigFraction.ONE);
+    for (BigFractionExpression expression : new BigFractionExpression[] { one.divide(zero), zero.divide(zero), zero.pow(-1),
+        one.divide(one.subtract(one)), one.subtract(one).divide(one.subtract(one)) }) {
+      try {
+        expression.evaluate();
+        fail("ArithmeticException expected for " + expression);
+      } catch (ArithmeticException ae) {
+        assertTrue(ae.getMessage().contains("division by zero"));
+      }
+    }
+  }
+
+  @Test
+  public void testRandom() {
+    Random random = new Random(4711);
+    for (int round = 0; round < 200; round++) {
+      BigFraction expected = randomValue(random);
+      BigFractionExpression expression = BigFractionExpression.of(expected);
+      for (int i = 0; i < 20; i++) {
+        BigFraction operand = randomValue(random);
+        switch (random.nextInt(5)) {
+        case 0:
+          expected = expected.add(operand);
+          expression = expression.add(operand);
+          break;
+        case 1:
+          expected = expected.subtract(operand);
+          expression = expression.subtract(operand);
+          break;
+        case 2:
+          expected = expected.multiply(operand);
+          expression = expression.multiply(operand);
+          break;
+        case 3:
+          if (operand.signum() != 0) {
+            expected = expected.divide(operand);
+            expression = expression.divide(operand);
+          }
+          break;
+        default:
+          expected = expected.pow(2);
+          expression = expression.pow(2);
+        }
+      }
+      assertEquals(expected, expression.evaluate());
+      assertEquals(expected, expression.parallelEvaluate());
+    }
+  }
+
+  @Test
+  public void testToString() {
+    BigFractionExpression x = BigFractionExpression.of(BigFraction.valueOf("1/2"));
+    assertEquals("((1/2 + 2) * -1/2^3)", x.add(BigFraction.valueOf(2)).multiply(x.negate().pow(3)).toString());
+  }
+
+  @Test
+  public void testLongChain() {
+    BigFractionExpression x = BigFractionExpression.of(BigFraction.valueOf("1/3"));
+    BigFractionExpression expression = x;
+    for (int i = 1; i < 100_000; i++) {
+      expression = i % 2 == 0 ? expression.add(x) : expression.subtract(x.negate());
+    }
+    assertEquals(BigFraction.valueOf("100000/3"), expression.evaluate());
+    assertEquals(BigFraction.valueOf("100000/3"), expression.parallelEvaluate());
+    String text = expression.toString();
+    assertTrue(text.contains("(((1/3 - -1/3) + 1/3) - -1/3)"));
+    assertTrue(text.endsWith(" - -1/3)"));
+  }
+
+  @Test
+  public void testDeepNesting() {
+    BigFractionExpression two = BigFractionExpression.of(BigFraction.valueOf(2));
+    BigFractionExpression expression = BigFractionExpression.of(BigFraction.ONE);
+    for (int i = 0; i < 100_000; i++) {
+      // alternating sums and products, each one nested into the next
+      expression = expression.multiply(two).subtract(BigFraction.ONE);
+    }
+    assertEquals(BigFraction.ONE, expression.evaluate());
+    assertEquals(BigFraction.ONE, expression.parallelEvaluate());
+    assertTrue(expression.toString().endsWith("* 2) - 1)"));
+  }
+
+  private static BigFraction randomValue(Random random) {
+    return new BigFraction(BigInteger.valueOf(random.nextInt(21) - 10), BigInteger.valueOf(random.nextInt(9) + 1));
+  }
+
+}
@@ -0,0 +1,103 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BigFractionFenwickTreeTest {
+
+  private static BigFraction randomValue(Random random) {
+    return new BigFraction(String.valueOf(random.nextInt(2001) - 1000), String.valueOf(random.nextInt(60) + 1));
+  }
+
+  private static BigFraction linearSum(BigFraction[] values, int fromIndex, int toIndex) {
+    BigFraction sum = BigFraction.ZERO;
+    for (int i = fromIndex; i < toIndex; i++) {
+      sum = sum.add(values[i]);
+    }
+    return sum;
+  }
+
+  @Test
+  public void testEmpty() {
+    BigFractionFenwickTree tree = new BigFractionFenwickTree(0);
+    assertEquals(0, tree.size());
+    assertEquals(BigFraction.ZERO, tree.prefixSum(0));
+  }
+
+  @Test
+  public void testSum() {
+    BigFractionFenwickTree tree = new BigFractionFenwickTree(new BigFraction[] { BigFraction.valueOf("1/2"), BigFraction.valueOf("1/3"),
+        BigFraction.valueOf("1/6"), BigFraction.valueOf(2) });
+    assertEquals(BigFraction.ONE, tree.prefixSum(3));
+    assertEquals("1/2", tree.sum(1, 3).toString());
+    assertEquals("13/6", tree.sum(2, 4).toString());
+    assertEquals(BigFraction.ZERO, tree.sum(2, 2));
+    tree.set(3, BigFraction.valueOf("-1/7"));
+    assertEquals("6/7", tree.prefixSum(4).toString());
+    tree.add(0, BigFraction.valueOf("1/2"));
+    assertEquals(BigFraction.ONE, tree.get(0));
+    assertEquals("19/14", tree.prefixSum(4).toString());
+  }
+
+  @Test
+  public void testRandomUpdates() {
+    Random random = new Random(4711);
+    BigFraction[] values = new BigFraction[100];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = randomValue(random);
+    }
+    BigFractionFenwickTree tree = new BigFractionFenwickTree(values);
+    for (int round = 0; round < 500; round++) {
+      int index = random.nextInt(values.length);
+      BigFraction value = randomValue(random);
+      if (random.nextBoolean()) {
+        values[index] = value;
+        tree.set(index, value);
+      } else {
+        values[index] = values[index].add(value);
+        tree.add(index, value);
+      }
+      int fromIndex = random.nextInt(values.length);
+      int toIndex = fromIndex + random.nextInt(values.length - fromIndex + 1);
+      assertEquals(linearSum(values, fromIndex, toIndex), tree.sum(fromIndex, toIndex));
+    }
+    assertEquals(linearSum(values, 0, values.length), tree.prefixSum(values.length));
+  }
+
+  @Test
+  public void testIllegalIndex() {
+    BigFractionFenwickTree tree = new BigFractionFenwickTree(3);
+    try {
+      tree.get(3);
+      fail("IndexOutOfBoundsException expected");
+    } catch (IndexOutOfBoundsException ioobe) {
+      assertEquals("index: 3, size: 3", ioobe.getMessage());
+    }
+    try {
+      tree.sum(2, 1);
+      fail("IndexOutOfBoundsException expected");
+    } catch (IndexOutOfBoundsException ioobe) {
+      assertEquals("fromIndex: 2, toIndex: 1, size: 3", ioobe.getMessage());
+    }
+  }
+
+  @Test
+  public void testSetNull() {
+    BigFractionFenwickTree tree = new BigFractionFenwickTree(3);
+    tree.set(1, BigFraction.ONE);
+    try {
+      tree.set(1, null);
+      fail("NullPointerException expected");
+    } catch (NullPointerException npe) {
+      assertEquals("value", npe.getMessage());
+    }
+    // the tree is unchanged
+    assertEquals(BigFraction.ONE, tree.get(1));
+    assertEquals(BigFraction.ONE, tree.sum(0, 3));
+  }
+
+}
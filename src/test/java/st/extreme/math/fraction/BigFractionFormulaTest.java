@@ -0,0 +1,139 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BigFractionFormulaTest {
+
+  @Test
+  public void testEvaluate() {
+    BigFractionFormula formula = BigFractionFormula.compile("(a + 1/3) * b - c/7");
+    assertEquals(Arrays.asList("a", "b", "c"), formula.getVariables());
+    BigFraction a = BigFraction.valueOf("2/3");
+    BigFraction b = BigFraction.valueOf(5);
+    BigFraction c = BigFraction.valueOf("-1/2");
+    assertEquals(BigFraction.valueOf("71/14"), formula.evaluate(a, b, c));
+    Map<String, BigFraction> bindings = new HashMap<>();
+    bindings.put("a", a);
+    bindings.put("b", b);
+    bindings.put("c", c);
+    bindings.put("unused", BigFraction.ONE);
+    assertEquals(BigFraction.valueOf("71/14"), formula.evaluate(bindings));
+    assertEquals("(a + 1/3) * b - c/7", formula.toString());
+  }
+
+  @Test
+  public void testPrecedence() {
+    assertEquals(BigFraction.valueOf(7), constant("1 + 2 * 3"));
+    assertEquals(BigFraction.valueOf(9), constant("(1 + 2) * 3"));
+    assertEquals(BigFraction.valueOf(-4), constant("-2^2"));
+    assertEquals(BigFraction.valueOf(4), constant("(-2)^2"));
+    assertEquals(BigFraction.valueOf("1/4"), constant("2^-2"));
+    assertEquals(BigFraction.valueOf(1), constant("8 / 4 / 2"));
+    assertEquals(BigFraction.valueOf(4), constant("8 - 2 - 2"));
+    assertEquals(BigFraction.valueOf("3/2"), constant("+1.5"));
+    assertEquals(BigFraction.valueOf("-1/3"), constant(" - - - 1 / 3 "));
+  }
+
+  @Test
+  public void testVariables() {
+    BigFractionFormula formula = BigFractionFormula.compile("x_1 * x_1 - 2 * x_1 * y + y^2");
+    assertEquals(Arrays.asList("x_1", "y"), formula.getVariables());
+    assertEquals(BigFraction.valueOf("1/4"), formula.evaluate(BigFraction.valueOf("3/4"), BigFraction.valueOf("1/4")));
+    assertEquals(BigFraction.valueOf(4), BigFractionFormula.compile("z^-2").evaluate(BigFraction.valueOf("1/2")));
+  }
+
+  @Test
+  public void testEvaluateAll() {
+    BigFractionFormula formula = BigFractionFormula.compile("(a + 1/3) * b - c/7");
+    Random random = new Random(4711);
+    BigFraction[][] rows = new BigFraction[1000][3];
+    BigFraction[] expected = new BigFraction[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      for (int j = 0; j < 3; j++) {
+        rows[i][j] = new BigFraction(BigInteger.valueOf(random.nextInt(201) - 100), BigInteger.valueOf(random.nextInt(100) + 1));
+      }
+      expected[i] = rows[i][0].add(BigFraction.valueOf("1/3")).multiply(rows[i][1]).subtract(rows[i][2].divide(BigFraction.valueOf(7)));
+    }
+    assertArrayEquals(expected, formula.evaluateAll(rows));
+    assertArrayEquals(expected, formula.parallelEvaluateAll(rows));
+  }
+
+  @Test
+  public void testLongChain() {
+    StringBuilder text = new StringBuilder("x");
+    for (int i = 1; i < 100_000; i++) {
+      text.append(i % 2 == 0 ? " + x" : " - y/2");
+    }
+    BigFractionFormula formula = BigFractionFormula.compile(text.toString());
+    assertEquals(Arrays.asList("x", "y"), formula.getVariables());
+    // 50000 * x - 25000 * y
+    assertEquals(BigFraction.valueOf("35000/3"), formula.evaluate(BigFraction.valueOf("1/3"), BigFraction.valueOf("1/5")));
+  }
+
+  @Test
+  public void testSyntaxErrors() {
+    assertSyntaxError("", "number, variable or '(' expected at position 0");
+    assertSyntaxError("1 +", "number, variable or '(' expected at position 3");
+    assertSyntaxError("(1 + 2", "')' expected at position 6");
+    assertSyntaxError("1 2", "unexpected '2' at position 2");
+    assertSyntaxError("x^y", "integer exponent expected at position 2");
+    assertSyntaxError("1.2.3", "illegal number '1.2.3' at position 0");
+    assertSyntaxError("a # b", "unexpected '#' at position 2");
+  }
+
+  @Test
+  public void testEvaluationErrors() {
+    BigFractionFormula formula = BigFractionFormula.compile("1 / (a - b)");
+    try {
+      formula.evaluate(BigFraction.ONE);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("expected 2 values, but got 1.", iae.getMessage());
+    }
+    try {
+      formula.evaluate(new HashMap<>());
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("no value for variable 'a'.", iae.getMessage());
+    }
+    try {
+      formula.evaluate(BigFraction.ONE, BigFraction.ONE);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("division by zero"));
+    }
+    try {
+      BigFractionFormula.compile("x + 1/0");
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("division by zero"));
+    }
+  }
+
+  private static BigFraction constant(String formula) {
+    BigFractionFormula compiled = BigFractionFormula.compile(formula);
+    assertTrue(compiled.getVariables().isEmpty());
+    return compiled.evaluate();
+  }
+
+  private static void assertSyntaxError(String formula, String expectedMessagePart) {
+    try {
+      BigFractionFormula.compile(formula);
+      fail("IllegalArgumentException expected for " + formula);
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage(), iae.getMessage().contains(expectedMessagePart));
+    }
+  }
+
+}
@@ -0,0 +1,103 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class BigFractionInternerTest {
+
+  @Test
+  public void testIntern() {
+    BigFractionInterner interner = new BigFractionInterner();
+    BigFraction first = BigFraction.valueOf("1000/3");
+    BigFraction second = BigFraction.valueOf("2000/6");
+    assertNotSame(first, second);
+    assertSame(first, interner.intern(first));
+    assertSame(first, interner.intern(second));
+    assertSame(first, interner.intern(first));
+    assertEquals(1, interner.size());
+    interner.clear();
+    assertEquals(0, interner.size());
+    assertSame(second, interner.intern(second));
+  }
+
+  @Test
+  public void testIntern_smallValues() {
+    BigFractionInterner interner = new BigFractionInterner(1);
+    assertSame(BigFraction.ONE, interner.intern(new BigFraction(BigInteger.TEN, BigInteger.TEN)));
+    assertSame(BigFraction.valueOf("3/4"), interner.intern(new BigFraction("-9", "-12")));
+    assertEquals(0, interner.size());
+  }
+
+  @Test
+  public void testIntern_many() {
+    BigFractionInterner interner = new BigFractionInterner(4);
+    List<BigFraction> pooled = new ArrayList<>();
+    for (int i = 1; i <= 5_000; i++) {
+      pooled.add(interner.intern(new BigFraction(BigInteger.valueOf(i), BigInteger.valueOf(1_000_003))));
+    }
+    for (int i = 1; i <= 5_000; i++) {
+      assertSame(pooled.get(i - 1), interner.intern(new BigFraction(BigInteger.valueOf(i), BigInteger.valueOf(1_000_003))));
+    }
+    assertEquals(5_000, interner.size());
+  }
+
+  @Test
+  public void testIntern_concurrent() {
+    BigFractionInterner interner = new BigFractionInterner();
+    BigFraction[] results = IntStream.range(0, 20_000).parallel()
+        .mapToObj(i -> interner.intern(new BigFraction(BigInteger.valueOf(i % 100), BigInteger.valueOf(997))))
+        .toArray(BigFraction[]::new);
+    for (int i = 100; i < results.length; i++) {
+      assertSame(results[i % 100], results[i]);
+    }
+    assertEquals(99, interner.size()); // 0/997 is cached as zero
+  }
+
+  @Test
+  public void testIntern_garbageCollected() throws InterruptedException {
+    BigFractionInterner interner = new BigFractionInterner(1);
+    for (int i = 0; i < 1_000; i++) {
+      interner.intern(new BigFraction(BigInteger.valueOf(i), BigInteger.valueOf(1_000_003)));
+    }
+    for (int attempt = 0; attempt < 50 && interner.size() > 0; attempt++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertTrue(interner.size() < 1_000);
+  }
+
+  @Test
+  public void testIntern_shared() {
+    BigFraction first = new BigFraction("12345678901234567890", "7");
+    BigFraction second = new BigFraction("12345678901234567890", "7");
+    assertSame(first.intern(), second.intern());
+    assertSame(BigFraction.ZERO, new BigFraction("0", "5").intern());
+  }
+
+  @Test
+  public void testIllegalArguments() {
+    try {
+      new BigFractionInterner(0);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the concurrency level has to be positive.", iae.getMessage());
+    }
+    try {
+      new BigFractionInterner().intern(null);
+      fail("NullPointerException expected");
+    } catch (NullPointerException npe) {
+      assertEquals("value", npe.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,124 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BigFractionParseCacheTest {
+
+  @After
+  public void tearDown() {
+    SizePolicy.install(SizePolicy.UNLIMITED);
+  }
+
+  @Test
+  public void testParse() {
+    BigFractionParseCache parser = new BigFractionParseCache(100);
+    BigFraction price = parser.parse("99.95");
+    assertEquals(BigFraction.valueOf("1999/20"), price);
+    assertSame(price, parser.parse("99.95"));
+    assertSame(price, parser.parse(new StringBuilder("99.95")));
+    assertEquals(BigFraction.valueOf("1/3"), parser.parse("2/6"));
+    assertEquals(BigFraction.valueOf("-1.5E3"), parser.parse("-1.5E3"));
+    CacheStatistics statistics = parser.getStatistics();
+    assertEquals(2, statistics.getHitCount());
+    assertEquals(3, statistics.getMissCount());
+    assertEquals(3, statistics.getSize());
+    parser.clear();
+    assertEquals(0, parser.getStatistics().getSize());
+  }
+
+  @Test
+  public void testParse_invalid() {
+    BigFractionParseCache parser = new BigFractionParseCache(100);
+    for (int i = 0; i < 2; i++) {
+      try {
+        parser.parse("1/x");
+        fail("NumberFormatException expected");
+      } catch (NumberFormatException nfe) {
+        assertTrue(nfe.getMessage().contains("1/x"));
+      }
+    }
+    assertEquals(0, parser.getStatistics().getSize());
+    try {
+      parser.parse(null);
+      fail("NullPointerException expected");
+    } catch (NullPointerException npe) {
+      assertEquals("text", npe.getMessage());
+    }
+    try {
+      new BigFractionParseCache(0);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the maximum size has to be positive.", iae.getMessage());
+    }
+  }
+
+  @Test
+  public void testUniqueStringsDoNotThrash() {
+    BigFractionParseCache parser = new BigFractionParseCache(200);
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        parser.parse(i + ".95");
+      }
+    }
+    for (int i = 0; i < 2_000; i++) {
+      parser.parse("0." + i);
+    }
+    long misses = parser.getStatistics().getMissCount();
+    for (int i = 0; i < 50; i++) {
+      parser.parse(i + ".95");
+    }
+    assertTrue(parser.getStatistics().getMissCount() - misses < 5);
+    assertTrue(parser.getStatistics().getSize() <= 200);
+  }
+
+  @Test
+  public void testSizePolicy() {
+    BigFractionParseCache parser = new BigFractionParseCache(100);
+    String text = "123456789012345678901234567890/7";
+    BigFraction exact = parser.parse(text);
+    SizePolicy.install(SizePolicy.of(20, SizePolicy.Action.THROW));
+    try {
+      parser.parse(text);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("size limit of 20 bits exceeded"));
+    }
+    SizePolicy.install(SizePolicy.UNLIMITED);
+    assertEquals(exact, parser.parse(text));
+  }
+
+  @Test
+  public void testSizePolicy_keyed() {
+    BigFractionParseCache parser = new BigFractionParseCache(100);
+    String text = "131071/3";
+    BigFraction exact = parser.parse(text);
+    SizePolicy.install(SizePolicy.of(16, SizePolicy.Action.APPROXIMATE));
+    BigFraction approximated = parser.parse(text);
+    assertEquals(BigFraction.valueOf(43690), approximated);
+    assertSame(approximated, parser.parse(text));
+    // the values of both policies are cached side by side
+    SizePolicy.install(SizePolicy.UNLIMITED);
+    assertSame(exact, parser.parse(text));
+    assertEquals(2, parser.getStatistics().getSize());
+  }
+
+  @Test
+  public void testConcurrent() {
+    BigFractionParseCache parser = new BigFractionParseCache(1_000);
+    BigFraction[] values = IntStream.range(0, 20_000).parallel().mapToObj(i -> parser.parse((i % 100) + "/3"))
+        .toArray(BigFraction[]::new);
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(BigFraction.valueOf((i % 100) + "/3"), values[i]);
+    }
+    assertEquals(100, parser.getStatistics().getSize());
+  }
+
+}
@@ -0,0 +1,79 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class BigFractionRangeTest {
+
+  @Test
+  public void testRange() {
+    assertEquals("[0, 1/3, 2/3, 1, 4/3, 5/3]", toString(BigFraction.range(BigFraction.ZERO, BigFraction.valueOf(2), third())));
+    assertEquals("[1/2, 5/6, 7/6, 3/2, 11/6]", toString(BigFraction.range(BigFraction.valueOf("1/2"), BigFraction.valueOf(2), third())));
+  }
+
+  @Test
+  public void testRangeClosed() {
+    assertEquals("[0, 1/3, 2/3, 1, 4/3, 5/3, 2]", toString(BigFraction.rangeClosed(BigFraction.ZERO, BigFraction.valueOf(2), third())));
+    // the end is not reached exactly
+    assertEquals("[0, 3/4, 3/2]", toString(BigFraction.rangeClosed(BigFraction.ZERO, BigFraction.valueOf(2), BigFraction.valueOf("3/4"))));
+  }
+
+  @Test
+  public void testRange_negativeStep() {
+    assertEquals("[1, 2/3, 1/3]", toString(BigFraction.range(BigFraction.ONE, BigFraction.ZERO, third().negate())));
+    assertEquals("[1, 2/3, 1/3, 0]", toString(BigFraction.rangeClosed(BigFraction.ONE, BigFraction.ZERO, third().negate())));
+  }
+
+  @Test
+  public void testRange_empty() {
+    assertEquals(0, BigFraction.range(BigFraction.ONE, BigFraction.ONE, third()).count());
+    assertEquals(0, BigFraction.range(BigFraction.ONE, BigFraction.ZERO, third()).count());
+    assertEquals(1, BigFraction.rangeClosed(BigFraction.ONE, BigFraction.ONE, third()).count());
+  }
+
+  @Test
+  public void testRange_zeroStep() {
+    try {
+      BigFraction.range(BigFraction.ZERO, BigFraction.ONE, BigFraction.ZERO);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the step must not be zero.", iae.getMessage());
+    }
+  }
+
+  @Test
+  public void testRange_parallel() {
+    BigFraction end = BigFraction.valueOf(10_000);
+    BigFraction sum = BigFraction.range(BigFraction.ZERO, end, third()).parallel().collect(BigFractionCollectors.summing());
+    // 30000 values i/3, i in [0, 30000)
+    assertEquals(BigFraction.valueOf(30_000L * 29_999 / 2).divide(BigFraction.valueOf(3)), sum);
+    assertEquals(30_000, BigFraction.range(BigFraction.ZERO, end, third()).parallel().collect(Collectors.toList()).size());
+  }
+
+  @Test
+  public void testSpliterator() {
+    Spliterator<BigFraction> spliterator = BigFraction.range(BigFraction.ZERO, BigFraction.valueOf(3), third()).spliterator();
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+    assertEquals(9, spliterator.getExactSizeIfKnown());
+    Spliterator<BigFraction> prefix = spliterator.trySplit();
+    assertEquals(4, prefix.getExactSizeIfKnown());
+    assertEquals(5, spliterator.getExactSizeIfKnown());
+    spliterator.tryAdvance(value -> assertEquals(BigFraction.valueOf("4/3"), value));
+  }
+
+  private static BigFraction third() {
+    return BigFraction.valueOf("1/3");
+  }
+
+  private static String toString(Stream<BigFraction> stream) {
+    return stream.map(BigFraction::toString).collect(Collectors.toList()).toString();
+  }
+
+}
@@ -0,0 +1,66 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BigFractionSegmentTreeTest {
+
+  @Test
+  public void testMinMax() {
+    BigFraction[] values = { BigFraction.valueOf("1/2"), BigFraction.valueOf("-1/3"), BigFraction.valueOf("1/6"), BigFraction.valueOf(2) };
+    BigFractionSegmentTree min = BigFractionSegmentTree.min(values);
+    BigFractionSegmentTree max = BigFractionSegmentTree.max(values);
+    assertEquals(4, min.size());
+    assertEquals("-1/3", min.query(0, 4).toString());
+    assertEquals("1/6", min.query(2, 4).toString());
+    assertEquals("2", max.query(0, 4).toString());
+    assertEquals("1/2", max.query(0, 3).toString());
+    min.set(3, BigFraction.valueOf(-5));
+    assertEquals("-5", min.query(2, 4).toString());
+    assertEquals("-5", min.get(3).toString());
+  }
+
+  @Test
+  public void testRandomUpdates() {
+    Random random = new Random(4711);
+    BigFraction[] values = new BigFraction[57];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = new BigFraction(String.valueOf(random.nextInt(201) - 100), String.valueOf(random.nextInt(20) + 1));
+    }
+    BigFractionSegmentTree min = BigFractionSegmentTree.min(values);
+    BigFractionSegmentTree max = BigFractionSegmentTree.max(values);
+    for (int round = 0; round < 300; round++) {
+      int index = random.nextInt(values.length);
+      values[index] = new BigFraction(String.valueOf(random.nextInt(201) - 100), String.valueOf(random.nextInt(20) + 1));
+      min.set(index, values[index]);
+      max.set(index, values[index]);
+      int fromIndex = random.nextInt(values.length);
+      int toIndex = fromIndex + 1 + random.nextInt(values.length - fromIndex);
+      BigFraction expectedMin = values[fromIndex];
+      BigFraction expectedMax = values[fromIndex];
+      for (int i = fromIndex + 1; i < toIndex; i++) {
+        expectedMin = values[i].compareTo(expectedMin) < 0 ? values[i] : expectedMin;
+        expectedMax = values[i].compareTo(expectedMax) > 0 ? values[i] : expectedMax;
+      }
+      assertEquals(expectedMin, min.query(fromIndex, toIndex));
+      assertEquals(expectedMax, max.query(fromIndex, toIndex));
+    }
+  }
+
+  @Test
+  public void testEmptyRange() {
+    BigFractionSegmentTree min = BigFractionSegmentTree.min(new BigFraction[] { BigFraction.ONE });
+    try {
+      min.query(1, 1);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("empty"));
+    }
+  }
+
+}
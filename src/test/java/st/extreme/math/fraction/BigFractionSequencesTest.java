@@ -0,0 +1,117 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class BigFractionSequencesTest {
+
+  @Test
+  public void testFarey() {
+    assertEquals("[0, 1]", toString(BigFractionSequences.farey(1)));
+    assertEquals("[0, 1/5, 1/4, 1/3, 2/5, 1/2, 3/5, 2/3, 3/4, 4/5, 1]", toString(BigFractionSequences.farey(5)));
+  }
+
+  @Test
+  public void testFarey_complete() {
+    int n = 60;
+    List<BigFraction> expected = new ArrayList<>();
+    for (int denominator = 1; denominator <= n; denominator++) {
+      for (int numerator = 0; numerator <= denominator; numerator++) {
+        if (BigInteger.valueOf(numerator).gcd(BigInteger.valueOf(denominator)).equals(BigInteger.ONE)) {
+          expected.add(new BigFraction(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator)));
+        }
+      }
+    }
+    expected.sort(null);
+    assertEquals(expected, BigFractionSequences.farey(n).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testFarey_parallel() {
+    List<BigFraction> sequential = BigFractionSequences.farey(300).collect(Collectors.toList());
+    assertEquals(27_399, sequential.size());
+    assertEquals(sequential, BigFractionSequences.farey(300).parallel().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testFarey_split() {
+    Spliterator<BigFraction> spliterator = BigFractionSequences.farey(100).spliterator();
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT));
+    Spliterator<BigFraction> prefix = spliterator.trySplit();
+    List<BigFraction> values = new ArrayList<>();
+    prefix.forEachRemaining(values::add);
+    int prefixSize = values.size();
+    spliterator.forEachRemaining(values::add);
+    assertEquals(BigFractionSequences.farey(100).collect(Collectors.toList()), values);
+    assertTrue(prefixSize > values.size() / 4 && prefixSize < values.size() * 3 / 4);
+  }
+
+  @Test
+  public void testFarey_illegalArgument() {
+    try {
+      BigFractionSequences.farey(0);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the maximum denominator has to be positive.", iae.getMessage());
+    }
+  }
+
+  @Test
+  public void testCalkinWilf() {
+    assertEquals("[]", toString(BigFractionSequences.calkinWilf(0)));
+    assertEquals("[1, 1/2, 2, 1/3, 3/2, 2/3, 3, 1/4, 4/3, 3/5]", toString(BigFractionSequences.calkinWilf(10)));
+    // every positive rational exactly once
+    assertEquals(100_000, BigFractionSequences.calkinWilf(100_000).parallel().distinct().count());
+  }
+
+  @Test
+  public void testCalkinWilf_illegalArgument() {
+    try {
+      BigFractionSequences.calkinWilf(-1);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("-1"));
+    }
+  }
+
+  @Test
+  public void testSternBrocot() {
+    assertEquals("[]", toString(BigFractionSequences.sternBrocot(0)));
+    assertEquals("[1]", toString(BigFractionSequences.sternBrocot(1)));
+    assertEquals("[1/3, 1/2, 2/3, 1, 3/2, 2, 3]", toString(BigFractionSequences.sternBrocot(3)));
+    List<BigFraction> nodes = BigFractionSequences.sternBrocot(12).parallel().collect(Collectors.toList());
+    assertEquals(4095, nodes.size());
+    for (int i = 1; i < nodes.size(); i++) {
+      assertTrue(nodes.get(i - 1).compareTo(nodes.get(i)) < 0);
+    }
+  }
+
+  @Test
+  public void testSimplestBetween() {
+    assertEquals("[1, 2]", simplestBetween(0, 1, 1, 1));
+    assertEquals("[2, 5]", simplestBetween(1, 3, 1, 2));
+    assertEquals("[3, 1]", simplestBetween(5, 2, 7, 2));
+    assertEquals("[1, 1]", simplestBetween(0, 1, 1, 0));
+  }
+
+  private static String simplestBetween(long xNumerator, long xDenominator, long yNumerator, long yDenominator) {
+    BigInteger[] simplest = BigFractionSequences.simplestBetween(BigInteger.valueOf(xNumerator), BigInteger.valueOf(xDenominator),
+        BigInteger.valueOf(yNumerator), BigInteger.valueOf(yDenominator));
+    return "[" + simplest[0] + ", " + simplest[1] + "]";
+  }
+
+  private static String toString(Stream<BigFraction> stream) {
+    return stream.map(BigFraction::toString).collect(Collectors.toList()).toString();
+  }
+
+}
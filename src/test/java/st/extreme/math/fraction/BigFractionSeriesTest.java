@@ -0,0 +1,90 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class BigFractionSeriesTest {
+
+  @Test
+  public void testHarmonic() {
+    BigFractionSeries harmonic = harmonic();
+    assertEquals(BigFraction.ZERO, harmonic.sum(0));
+    assertEquals(BigFraction.ONE, harmonic.sum(1));
+    assertEquals("7381/2520", harmonic.sum(10).toString());
+  }
+
+  @Test
+  public void testHarmonic_parallel() {
+    int n = 5000;
+    BigFractionAccumulator expected = new BigFractionAccumulator();
+    for (int k = 1; k <= n; k++) {
+      expected.add(new BigFraction(BigInteger.ONE, BigInteger.valueOf(k)));
+    }
+    assertEquals(expected.toBigFraction(), harmonic().sum(n));
+    assertEquals(expected.toBigFraction(), harmonic().sum(n, new ForkJoinPool(3)));
+  }
+
+  @Test
+  public void testExponential() {
+    BigFractionSeries e = BigFractionSeries.of(k -> BigInteger.ONE, k -> BigInteger.valueOf(Math.max(k, 1)), k -> BigInteger.ONE);
+    BigFraction expected = BigFraction.ZERO;
+    BigInteger factorial = BigInteger.ONE;
+    for (int k = 0; k < 30; k++) {
+      if (k > 0) {
+        factorial = factorial.multiply(BigInteger.valueOf(k));
+      }
+      expected = expected.add(new BigFraction(BigInteger.ONE, factorial));
+    }
+    assertEquals(expected, e.sum(30));
+    assertEquals(Math.E, e.sum(2000).doubleValue(), 1e-15);
+  }
+
+  @Test
+  public void testGeometric() {
+    // 1/2 + 1/4 + ... + 1/2^n
+    BigFractionSeries geometric = BigFractionSeries.of(k -> BigInteger.ONE, k -> BigInteger.valueOf(2), k -> BigInteger.ONE);
+    assertEquals("1023/1024", geometric.sum(10).toString());
+  }
+
+  @Test
+  public void testAlternating() {
+    // Leibniz series 1 - 1/3 + 1/5 - ...
+    BigFractionSeries leibniz = BigFractionSeries.of(k -> BigInteger.ONE, k -> BigInteger.ONE,
+        k -> BigInteger.valueOf(k % 2 == 0 ? 1 : -1), k -> BigInteger.valueOf(2 * k + 1));
+    assertEquals("263/315", leibniz.sum(5).toString());
+    assertEquals(Math.PI / 4, leibniz.sum(10_000).doubleValue(), 1e-4);
+  }
+
+  @Test
+  public void testIllegalArguments() {
+    try {
+      harmonic().sum(-1);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the number of terms must not be negative.", iae.getMessage());
+    }
+    try {
+      BigFractionSeries.of(null, k -> BigInteger.ONE, k -> BigInteger.ONE);
+      fail("NullPointerException expected");
+    } catch (NullPointerException npe) {
+      assertEquals("p", npe.getMessage());
+    }
+    try {
+      BigFractionSeries.of(k -> BigInteger.ONE, k -> BigInteger.valueOf(k), k -> BigInteger.ONE).sum(3);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("division by zero"));
+    }
+  }
+
+  private static BigFractionSeries harmonic() {
+    return BigFractionSeries.of(k -> BigInteger.ONE, k -> BigInteger.ONE, k -> BigInteger.ONE, k -> BigInteger.valueOf(k + 1));
+  }
+
+}
@@ -0,0 +1,159 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.junit.Test;
+
+public class BigFractionSheetTest {
+
+  @Test
+  public void testIncrementalRecalculation() {
+    BigFractionSheet sheet = new BigFractionSheet();
+    sheet.setValue("price", BigFraction.valueOf("19.99"));
+    sheet.setValue("quantity", BigFraction.valueOf(3));
+    sheet.setValue("shipping", BigFraction.valueOf("4.5"));
+    sheet.setFormula("net", "price * quantity");
+    sheet.setFormula("gross", "net * 119/100");
+    sheet.setFormula("freight", "shipping * 2");
+    assertEquals(BigFraction.valueOf("71.3643"), sheet.get("gross"));
+    assertEquals(BigFraction.valueOf(9), sheet.get("freight"));
+    assertEquals(3, sheet.getEvaluationCount());
+
+    sheet.setValue("quantity", BigFraction.valueOf(4));
+    assertEquals(BigFraction.valueOf("95.1524"), sheet.get("gross"));
+    // only the cone of quantity is recalculated
+    assertEquals(5, sheet.getEvaluationCount());
+    assertEquals(BigFraction.valueOf(9), sheet.get("freight"));
+    assertEquals(5, sheet.getEvaluationCount());
+  }
+
+  @Test
+  public void testForwardReferenceAndRedefinition() {
+    BigFractionSheet sheet = new BigFractionSheet();
+    sheet.setFormula("b", "a + 1");
+    try {
+      sheet.get("b");
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException ise) {
+      assertEquals("cell 'a' referred to by 'b' is not defined.", ise.getMessage());
+    }
+    sheet.setValue("a", BigFraction.valueOf("1/2"));
+    assertEquals(BigFraction.valueOf("3/2"), sheet.get("b"));
+    sheet.setFormula("a", "c * 2");
+    sheet.setValue("c", BigFraction.valueOf(5));
+    assertEquals(BigFraction.valueOf(11), sheet.get("b"));
+    // replacing a formula by a value drops its dependencies
+    sheet.setValue("a", BigFraction.ZERO);
+    assertEquals(new LinkedHashSet<>(Arrays.asList()), sheet.getDependents("c"));
+    assertEquals(BigFraction.ONE, sheet.get("b"));
+  }
+
+  @Test
+  public void testCycle() {
+    BigFractionSheet sheet = new BigFractionSheet();
+    sheet.setFormula("b", "a + 1");
+    sheet.setFormula("c", "b * 2");
+    try {
+      sheet.setFormula("a", "c - 1");
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("cell 'a' would depend on itself through 'c'.", iae.getMessage());
+    }
+    try {
+      sheet.setFormula("d", "d + 1");
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("cell 'd' would depend on itself through 'd'.", iae.getMessage());
+    }
+    sheet.setValue("a", BigFraction.ONE);
+    assertEquals(BigFraction.valueOf(4), sheet.get("c"));
+  }
+
+  @Test
+  public void testUndefinedCell() {
+    BigFractionSheet sheet = new BigFractionSheet();
+    sheet.setFormula("b", "a + 1");
+    try {
+      sheet.get("a");
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("cell 'a' is not defined.", iae.getMessage());
+    }
+  }
+
+  @Test
+  public void testUnrelatedDirtyCell() {
+    BigFractionSheet sheet = new BigFractionSheet();
+    sheet.setValue("x", BigFraction.ONE);
+    sheet.setFormula("y", "x + 1");
+    sheet.setFormula("z", "undefinedCell + 1");
+    // only the dirty dependencies of y are recalculated
+    assertEquals(BigFraction.valueOf(2), sheet.get("y"));
+    assertEquals(1, sheet.getEvaluationCount());
+    sheet.setValue("x", BigFraction.valueOf(5));
+    assertEquals(BigFraction.valueOf(6), sheet.get("y"));
+    try {
+      sheet.get("z");
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException ise) {
+      assertEquals("cell 'undefinedCell' referred to by 'z' is not defined.", ise.getMessage());
+    }
+    try {
+      sheet.recalculate();
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException ise) {
+      assertEquals("cell 'undefinedCell' referred to by 'z' is not defined.", ise.getMessage());
+    }
+  }
+
+  @Test
+  public void testDivisionByZero() {
+    BigFractionSheet sheet = new BigFractionSheet();
+    sheet.setValue("a", BigFraction.ZERO);
+    sheet.setFormula("b", "1 / a");
+    sheet.setFormula("c", "b + 1");
+    try {
+      sheet.get("c");
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("division by zero"));
+    }
+    sheet.setValue("a", BigFraction.valueOf(2));
+    assertEquals(BigFraction.valueOf("3/2"), sheet.get("c"));
+  }
+
+  @Test
+  public void testWideSheet() {
+    // a layered sheet: 200 inputs, 200 cells per layer, each depending on two cells of the layer before
+    BigFractionSheet sheet = new BigFractionSheet();
+    int width = 200;
+    for (int i = 0; i < width; i++) {
+      sheet.setValue("l0_" + i, BigFraction.valueOf(i + 1));
+    }
+    for (int layer = 1; layer <= 5; layer++) {
+      for (int i = 0; i < width; i++) {
+        sheet.setFormula("l" + layer + "_" + i, "l" + (layer - 1) + "_" + i + " + l" + (layer - 1) + "_" + ((i + 1) % width) + " / 3");
+      }
+    }
+    BigFraction before = sheet.get("l5_0");
+    // only the cells l5_0 depends on: 5 + 4 + 3 + 2 + 1 cells
+    assertEquals(15, sheet.getEvaluationCount());
+    sheet.recalculate();
+    assertEquals(5 * width, sheet.getEvaluationCount());
+    // the cone of one input: 2 + 3 + 4 + 5 + 6 cells
+    sheet.setValue("l0_7", BigFraction.valueOf("1/7"));
+    sheet.recalculate();
+    assertEquals(5 * width + 20, sheet.getEvaluationCount());
+    assertEquals(20, sheet.getDependents("l0_7").size());
+    assertEquals(before, sheet.get("l5_0"));
+    BigFraction changed = sheet.get("l5_3");
+    sheet.setValue("l0_7", BigFraction.valueOf(8));
+    assertTrue(!changed.equals(sheet.get("l5_3")));
+  }
+
+}
@@ -0,0 +1,108 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class BigFractionStatisticsTest {
+
+  @Test
+  public void testEmpty() {
+    BigFractionStatistics statistics = new BigFractionStatistics();
+    assertEquals(0, statistics.getCount());
+    assertEquals(BigFraction.ZERO, statistics.getMean());
+    assertEquals(BigFraction.ZERO, statistics.getVariance());
+    assertEquals(BigFraction.ZERO, statistics.getCovariance());
+    try {
+      statistics.getSampleVariance();
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException ise) {
+      assertTrue(ise.getMessage().contains("at least 2 observations"));
+    }
+  }
+
+  @Test
+  public void testUnivariate() {
+    BigFractionStatistics statistics = Stream.of("2", "4", "4", "4", "5", "5", "7", "9").map(BigFraction::valueOf)
+        .collect(BigFractionCollectors.statistics());
+    assertEquals(8, statistics.getCount());
+    assertEquals(BigFraction.valueOf(40), statistics.getSum());
+    assertEquals(BigFraction.valueOf(232), statistics.getSumOfSquares());
+    assertEquals(BigFraction.valueOf(5), statistics.getMean());
+    assertEquals(BigFraction.valueOf(4), statistics.getVariance());
+    assertEquals("32/7", statistics.getSampleVariance().toString());
+    assertEquals("BigFractionStatistics{count=8, mean=5, variance=4}", statistics.toString());
+  }
+
+  @Test
+  public void testUnivariate_twoPass() {
+    Random random = new Random(4711);
+    List<BigFraction> values = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      values.add(new BigFraction(String.valueOf(random.nextInt(20001) - 10000), String.valueOf(random.nextInt(100) + 1)));
+    }
+    BigFraction mean = values.stream().collect(BigFractionCollectors.averaging());
+    BigFraction squaredDeviations = BigFraction.ZERO;
+    for (BigFraction value : values) {
+      squaredDeviations = squaredDeviations.add(value.subtract(mean).pow(2));
+    }
+    BigFractionStatistics statistics = values.parallelStream().collect(BigFractionCollectors.statistics());
+    assertEquals(mean, statistics.getMean());
+    assertEquals(squaredDeviations.divide(BigFraction.valueOf(values.size())), statistics.getVariance());
+    assertEquals(squaredDeviations.divide(BigFraction.valueOf(values.size() - 1)), statistics.getSampleVariance());
+  }
+
+  @Test
+  public void testRegression() {
+    BigFractionStatistics statistics = new BigFractionStatistics();
+    // y = 1/3 + 2/5 x
+    for (int x = 0; x < 10; x++) {
+      BigFraction bx = BigFraction.valueOf(x);
+      statistics.accept(bx, BigFraction.valueOf("1/3").add(BigFraction.valueOf("2/5").multiply(bx)));
+    }
+    assertEquals("2/5", statistics.getSlope().toString());
+    assertEquals("1/3", statistics.getIntercept().toString());
+    assertEquals("33/10", statistics.getCovariance().toString());
+    assertEquals("11/3", statistics.getSampleCovariance().toString());
+    assertEquals("33/25", statistics.getVarianceY().toString());
+    assertEquals("32/15", statistics.getMeanY().toString());
+  }
+
+  @Test
+  public void testRegression_parallel() {
+    List<BigFraction[]> points = new ArrayList<>();
+    Random random = new Random(4711);
+    for (int i = 0; i < 1_000; i++) {
+      points.add(new BigFraction[] { BigFraction.valueOf(random.nextInt(1000)), new BigFraction(String.valueOf(random.nextInt(1000)), "7") });
+    }
+    BigFractionStatistics sequential = new BigFractionStatistics();
+    for (BigFraction[] point : points) {
+      sequential.accept(point[0], point[1]);
+    }
+    BigFractionStatistics parallel = points.parallelStream().collect(BigFractionCollectors.statistics(p -> p[0], p -> p[1]));
+    assertEquals(sequential.getSlope(), parallel.getSlope());
+    assertEquals(sequential.getIntercept(), parallel.getIntercept());
+    assertEquals(sequential.getCovariance(), parallel.getCovariance());
+  }
+
+  @Test
+  public void testRegression_notPaired() {
+    BigFractionStatistics statistics = new BigFractionStatistics();
+    statistics.accept(BigFraction.ONE, BigFraction.ONE);
+    statistics.accept(BigFraction.ZERO);
+    try {
+      statistics.getSlope();
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException ise) {
+      assertEquals("only 1 of 2 observations are pairs.", ise.getMessage());
+    }
+  }
+
+}
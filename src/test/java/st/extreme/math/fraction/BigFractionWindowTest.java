@@ -0,0 +1,168 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BigFractionWindowTest {
+
+  @Test
+  public void testSlidingCount() {
+    BigFractionWindow window = BigFractionWindow.slidingCount(3);
+    assertEquals(BigFraction.ZERO, window.sum());
+    assertEquals(BigFraction.ZERO, window.average());
+    window.add(BigFraction.valueOf("1/2"));
+    window.add(BigFraction.valueOf("1/3"));
+    window.add(BigFraction.valueOf("1/6"));
+    assertEquals(3, window.size());
+    assertEquals(BigFraction.ONE, window.sum());
+    assertEquals("1/3", window.average().toString());
+    window.add(BigFraction.valueOf("2"));
+    assertEquals(3, window.size());
+    assertEquals("5/2", window.sum().toString());
+  }
+
+  @Test
+  public void testSlidingCount_sameAsResumming() {
+    Random random = new Random(4711);
+    int size = 17;
+    BigFractionWindow window = BigFractionWindow.slidingCount(size);
+    List<BigFraction> values = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      BigFraction value = new BigFraction(String.valueOf(random.nextInt(2001) - 1000), String.valueOf(random.nextInt(40) + 1));
+      values.add(value);
+      window.add(i, value);
+      BigFraction expected = BigFraction.ZERO;
+      for (BigFraction v : values.subList(Math.max(0, values.size() - size), values.size())) {
+        expected = expected.add(v);
+      }
+      assertEquals(expected, window.sum());
+    }
+  }
+
+  @Test
+  public void testSlidingTime() {
+    BigFractionWindow window = BigFractionWindow.slidingTime(10);
+    window.add(0, BigFraction.valueOf(1));
+    window.add(5, BigFraction.valueOf(2));
+    window.add(9, BigFraction.valueOf(4));
+    assertEquals(BigFraction.valueOf(7), window.sum());
+    window.add(10, BigFraction.valueOf(8));
+    assertEquals(BigFraction.valueOf(14), window.sum());
+    window.advanceTo(19);
+    assertEquals(BigFraction.valueOf(8), window.sum());
+    assertEquals(10, window.summary().getStart());
+    window.advanceTo(20);
+    assertEquals(0, window.size());
+    assertEquals(BigFraction.ZERO, window.sum());
+  }
+
+  @Test
+  public void testWeightedAverage() {
+    BigFractionWindow window = BigFractionWindow.slidingCount(2);
+    window.add(1, BigFraction.valueOf("10.5"), BigFraction.valueOf(100));
+    window.add(2, BigFraction.valueOf("10.2"), BigFraction.valueOf(300));
+    assertEquals("10.275", window.weightedAverage().toPlainString());
+    window.add(3, BigFraction.valueOf("10"), BigFraction.valueOf(100));
+    assertEquals("10.15", window.weightedAverage().toPlainString());
+    assertEquals("101/10", window.average().toString());
+  }
+
+  @Test
+  public void testTumblingCount() {
+    List<BigFractionWindow.Summary> closed = new ArrayList<>();
+    BigFractionWindow window = BigFractionWindow.tumblingCount(2).onClose(closed::add);
+    for (int i = 1; i <= 5; i++) {
+      window.add(i, BigFraction.valueOf(i));
+    }
+    assertEquals(2, closed.size());
+    assertEquals(BigFraction.valueOf(3), closed.get(0).getSum());
+    assertEquals(1, closed.get(0).getStart());
+    assertEquals(2, closed.get(0).getEnd());
+    assertEquals(BigFraction.valueOf(7), closed.get(1).getSum());
+    assertEquals(1, window.size());
+    assertEquals(BigFraction.valueOf(5), window.sum());
+  }
+
+  @Test
+  public void testTumblingTime() {
+    List<BigFractionWindow.Summary> closed = new ArrayList<>();
+    BigFractionWindow window = BigFractionWindow.tumblingTime(10).onClose(closed::add);
+    window.add(3, BigFraction.valueOf("1/2"));
+    window.add(9, BigFraction.valueOf("1/2"));
+    window.add(10, BigFraction.valueOf("1/3"));
+    assertEquals(1, closed.size());
+    assertEquals(BigFraction.ONE, closed.get(0).getSum());
+    assertEquals(2, closed.get(0).getCount());
+    window.advanceTo(25);
+    assertEquals(2, closed.size());
+    assertEquals("1/3", closed.get(1).getSum().toString());
+    assertEquals(0, window.size());
+  }
+
+  @Test
+  public void testSession() {
+    List<BigFractionWindow.Summary> closed = new ArrayList<>();
+    BigFractionWindow window = BigFractionWindow.session(5).onClose(closed::add);
+    window.add(0, BigFraction.valueOf(1));
+    window.add(5, BigFraction.valueOf(2));
+    window.advanceTo(8);
+    window.add(10, BigFraction.valueOf(3));
+    assertEquals(0, closed.size());
+    window.add(16, BigFraction.valueOf(4));
+    assertEquals(1, closed.size());
+    assertEquals(BigFraction.valueOf(6), closed.get(0).getSum());
+    assertEquals(0, closed.get(0).getStart());
+    assertEquals(10, closed.get(0).getEnd());
+    assertEquals(BigFraction.valueOf(4), window.sum());
+  }
+
+  @Test
+  public void testExtremeTimestamps() {
+    BigFractionWindow sliding = BigFractionWindow.slidingTime(10);
+    sliding.add(Long.MIN_VALUE, BigFraction.ONE);
+    sliding.add(Long.MIN_VALUE + 5, BigFraction.ONE);
+    sliding.advanceTo(Long.MIN_VALUE + 10);
+    assertEquals(1, sliding.size());
+    sliding.advanceTo(Long.MAX_VALUE);
+    assertEquals(0, sliding.size());
+
+    List<BigFractionWindow.Summary> closed = new ArrayList<>();
+    BigFractionWindow session = BigFractionWindow.session(Long.MAX_VALUE).onClose(closed::add);
+    session.add(Long.MIN_VALUE, BigFraction.ONE);
+    session.add(-1, BigFraction.ONE);
+    assertEquals(0, closed.size());
+    session.add(Long.MAX_VALUE, BigFraction.ONE);
+    assertEquals(1, closed.size());
+    assertEquals(BigFraction.valueOf(2), closed.get(0).getSum());
+  }
+
+  @Test
+  public void testDecreasingTimestamp() {
+    BigFractionWindow window = BigFractionWindow.slidingTime(10);
+    window.add(5, BigFraction.ONE);
+    try {
+      window.add(4, BigFraction.ONE);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("non-decreasing"));
+    }
+  }
+
+  @Test
+  public void testIllegalExtent() {
+    try {
+      BigFractionWindow.slidingCount(0);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("positive"));
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+  @Test
+  public void testGet() {
+    BoundedCache<Integer, String> cache = new BoundedCache<>(100, 1, (key, value) -> 1);
+    AtomicInteger loads = new AtomicInteger();
+    assertEquals("1", cache.get(1, key -> Integer.toString(key + loads.getAndIncrement())));
+    assertEquals("1", cache.get(1, key -> Integer.toString(key + loads.getAndIncrement())));
+    assertEquals(1, loads.get());
+    assertNull(cache.get(2, key -> null));
+    CacheStatistics statistics = cache.statistics();
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(2, statistics.getMissCount());
+    assertEquals(1, statistics.getSize());
+  }
+
+  @Test
+  public void testMaximumWeight() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, 1, (key, value) -> 1);
+    for (int i = 0; i < 1_000; i++) {
+      cache.get(i, key -> key);
+    }
+    CacheStatistics statistics = cache.statistics();
+    assertTrue(statistics.getSize() <= 100);
+    assertEquals(statistics.getSize(), statistics.getWeight());
+    assertEquals(1_000, statistics.getSize() + statistics.getEvictionCount());
+  }
+
+  @Test
+  public void testOversizedEntry() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, 1, (key, value) -> value);
+    assertEquals(Integer.valueOf(1_000), cache.get(1, key -> 1_000));
+    assertEquals(0, cache.statistics().getSize());
+    assertEquals(1, cache.statistics().getEvictionCount());
+  }
+
+  @Test
+  public void testRejectedCandidateEvictsNothing() {
+    BoundedCache<String, Integer> cache = new BoundedCache<>(100, 1, (key, value) -> value);
+    for (int i = 0; i < 99; i++) {
+      cache.get("key" + i, key -> 1);
+    }
+    // the eldest keys are rare, the younger ones frequent
+    for (int round = 0; round < 4; round++) {
+      for (int i = 10; i < 99; i++) {
+        cache.get("key" + i, key -> 1);
+      }
+    }
+    cache.get("heavy", key -> null);
+    CacheStatistics before = cache.statistics();
+    // the heavy candidate is more frequent than the rare keys, but not than the frequent keys it would also replace
+    cache.get("heavy", key -> 20);
+    CacheStatistics after = cache.statistics();
+    assertEquals(before.getEvictionCount() + 1, after.getEvictionCount());
+    assertEquals(before.getSize(), after.getSize());
+    assertEquals(before.getWeight(), after.getWeight());
+    assertEquals(Integer.valueOf(1), cache.get("key0", key -> null));
+  }
+
+  @Test
+  public void testAdmission() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(200, 1, (key, value) -> 1);
+    // make the first keys frequent
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 100; i++) {
+        cache.get(i, key -> key);
+      }
+    }
+    // a scan of keys requested only once
+    for (int i = 1_000; i < 3_000; i++) {
+      cache.get(i, key -> key);
+    }
+    long misses = cache.statistics().getMissCount();
+    for (int i = 0; i < 100; i++) {
+      cache.get(i, key -> key);
+    }
+    assertTrue(cache.statistics().getMissCount() - misses < 10);
+  }
+
+}
@@ -0,0 +1,106 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+public class FixedDenominatorTest {
+
+  private static final FixedDenominator CENTS = FixedDenominator.of(100);
+
+  @Test
+  public void testOf() {
+    assertEquals(BigInteger.valueOf(100), CENTS.getDenominator());
+    assertEquals(CENTS, FixedDenominator.of(BigInteger.valueOf(100)));
+    assertEquals(CENTS.hashCode(), FixedDenominator.of(100).hashCode());
+    assertEquals("FixedDenominator[100]", CENTS.toString());
+    try {
+      FixedDenominator.of(0);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the denominator has to be positive.", iae.getMessage());
+    }
+  }
+
+  @Test
+  public void testValueOf() {
+    assertEquals(BigInteger.valueOf(1999), CENTS.valueOf(BigFraction.valueOf("19.99")).getScaledNumerator());
+    assertEquals(BigInteger.valueOf(-50), CENTS.valueOf(BigFraction.valueOf("-1/2")).getScaledNumerator());
+    assertEquals(BigInteger.valueOf(33), CENTS.valueOf(BigFraction.valueOf("1/3"), RoundingMode.HALF_EVEN).getScaledNumerator());
+    assertEquals(BigInteger.valueOf(-34), CENTS.valueOf(BigFraction.valueOf("-1/3"), RoundingMode.FLOOR).getScaledNumerator());
+    try {
+      CENTS.valueOf(BigFraction.valueOf("1/3"));
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testAddSubtract() {
+    FixedDenominator.Value price = CENTS.valueOf(BigFraction.valueOf("19.99"));
+    FixedDenominator.Value shipping = CENTS.ofScaled(450);
+    assertEquals(BigFraction.valueOf("64.47"), price.multiply(3).add(shipping).toBigFraction());
+    assertEquals(BigFraction.valueOf("15.49"), price.subtract(shipping).toBigFraction());
+    assertEquals(CENTS.ofScaled(-450), shipping.negate());
+    assertEquals(CENTS.zero(), shipping.subtract(shipping));
+    assertEquals("1549/100", price.subtract(shipping).toString());
+  }
+
+  @Test
+  public void testMultiplyDivide() {
+    FixedDenominator.Value total = CENTS.valueOf(BigFraction.valueOf("64.47"));
+    FixedDenominator.Value rate = CENTS.valueOf(BigFraction.valueOf("0.85"));
+    // 54.7995
+    assertEquals(CENTS.ofScaled(5480), total.multiply(rate, RoundingMode.HALF_EVEN));
+    assertEquals(CENTS.ofScaled(5479), total.multiply(rate, RoundingMode.DOWN));
+    assertEquals(BigFraction.valueOf("54.7995"), total.multiplyExact(BigFraction.valueOf("0.85")));
+    // 64.47 / 3 = 21.49
+    assertEquals(CENTS.ofScaled(2149), total.divide(3, RoundingMode.UNNECESSARY));
+    // 64.47 / 0.85 = 75.847...
+    assertEquals(CENTS.ofScaled(7585), total.divide(rate, RoundingMode.HALF_UP));
+    assertEquals(CENTS.ofScaled(-7584), total.negate().divide(rate, RoundingMode.CEILING));
+    try {
+      total.divide(CENTS.zero(), RoundingMode.HALF_UP);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("division by zero"));
+    }
+    try {
+      total.multiply(rate, RoundingMode.UNNECESSARY);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCompare() {
+    FixedDenominator.Value small = CENTS.ofScaled(1);
+    FixedDenominator.Value big = CENTS.ofScaled(2);
+    assertTrue(small.compareTo(big) < 0);
+    assertTrue(big.compareTo(small) > 0);
+    assertEquals(0, small.compareTo(CENTS.ofScaled(1)));
+    assertEquals(-1, small.negate().signum());
+    assertNotEquals(small, FixedDenominator.of(1000).ofScaled(1));
+  }
+
+  @Test
+  public void testDifferentContexts() {
+    try {
+      CENTS.ofScaled(1).add(FixedDenominator.of(1000).ofScaled(1));
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the denominators 100 and 1000 differ.", iae.getMessage());
+    }
+    // equal contexts can be combined
+    assertEquals(CENTS.ofScaled(2), CENTS.ofScaled(1).add(FixedDenominator.of(100).ofScaled(1)));
+  }
+
+}
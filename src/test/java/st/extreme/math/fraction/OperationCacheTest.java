@@ -0,0 +1,150 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class OperationCacheTest {
+
+  private static final BigFraction RATE = new BigFraction("123456789012345678901234567", "98765432109876543");
+
+  private static final BigFraction AMOUNT = new BigFraction(new BigInteger("3141592653589793238462643383279"), BigInteger.valueOf(100));
+
+  @After
+  public void tearDown() {
+    SizePolicy.install(SizePolicy.UNLIMITED);
+  }
+
+  @Test
+  public void testOperations() {
+    OperationCache cache = new OperationCache(1 << 20);
+    assertEquals(AMOUNT.add(RATE), cache.add(AMOUNT, RATE));
+    assertEquals(AMOUNT.subtract(RATE), cache.subtract(AMOUNT, RATE));
+    assertEquals(AMOUNT.multiply(RATE), cache.multiply(AMOUNT, RATE));
+    assertEquals(AMOUNT.divide(RATE), cache.divide(AMOUNT, RATE));
+    assertEquals(RATE.reciprocal(), cache.reciprocal(RATE));
+    assertEquals(RATE.pow(3), cache.pow(RATE, 3));
+    assertEquals(RATE.pow(-2), cache.pow(RATE, -2));
+    CacheStatistics statistics = cache.getStatistics();
+    assertEquals(0, statistics.getHitCount());
+    assertEquals(7, statistics.getMissCount());
+    assertEquals(7, statistics.getSize());
+  }
+
+  @Test
+  public void testHits() {
+    OperationCache cache = new OperationCache(1 << 20);
+    BigFraction product = cache.multiply(AMOUNT, RATE);
+    // equal operands hit, even if they are other instances
+    BigFraction rate = new BigFraction(RATE.getNumerator().negate(), RATE.getDenominator().negate());
+    for (int i = 0; i < 9; i++) {
+      assertSame(product, cache.multiply(AMOUNT, rate));
+    }
+    assertEquals(RATE.reciprocal(), cache.reciprocal(rate));
+    // the operation and the order of the operands are part of the key
+    assertEquals(RATE.multiply(AMOUNT), cache.multiply(RATE, AMOUNT));
+    assertEquals(AMOUNT.divide(RATE), cache.divide(AMOUNT, RATE));
+    CacheStatistics statistics = cache.getStatistics();
+    assertEquals(9, statistics.getHitCount());
+    assertEquals(4, statistics.getMissCount());
+    assertEquals(13, statistics.getRequestCount());
+    assertEquals(9.0 / 13, statistics.getHitRate(), 1e-12);
+    assertTrue(statistics.getWeight() > 0);
+    assertTrue(statistics.toString().startsWith("CacheStatistics[hits=9, misses=4, evictions=0, size=4, weight="));
+    cache.clear();
+    assertEquals(0, cache.getStatistics().getSize());
+    assertEquals(9, cache.getStatistics().getHitCount());
+  }
+
+  @Test
+  public void testSmallOperands() {
+    OperationCache cache = new OperationCache(1 << 20);
+    assertEquals(BigFraction.valueOf("3/4"), cache.multiply(BigFraction.valueOf("1/2"), BigFraction.valueOf("3/2")));
+    CacheStatistics statistics = cache.getStatistics();
+    assertEquals(0, statistics.getRequestCount());
+    assertEquals(0, statistics.getSize());
+    assertEquals(1.0, statistics.getHitRate(), 0.0);
+  }
+
+  @Test
+  public void testMaximumWeight() {
+    OperationCache cache = new OperationCache(10_000);
+    for (int i = 0; i < 1_000; i++) {
+      cache.add(AMOUNT, RATE.add(BigFraction.valueOf(i)));
+    }
+    CacheStatistics statistics = cache.getStatistics();
+    assertTrue(statistics.getWeight() <= 10_000);
+    assertTrue(statistics.getEvictionCount() > 0);
+    assertEquals(1_000, statistics.getMissCount());
+  }
+
+  @Test
+  public void testFrequentEntriesSurvive() {
+    OperationCache cache = new OperationCache(20_000);
+    BigFraction frequent = cache.reciprocal(RATE);
+    for (int i = 0; i < 20; i++) {
+      cache.reciprocal(RATE);
+    }
+    // a burst of values requested only once
+    for (int i = 0; i < 2_000; i++) {
+      cache.multiply(AMOUNT, RATE.add(BigFraction.valueOf(i)));
+    }
+    long hits = cache.getStatistics().getHitCount();
+    assertSame(frequent, cache.reciprocal(RATE));
+    assertEquals(hits + 1, cache.getStatistics().getHitCount());
+  }
+
+  @Test
+  public void testSizePolicy() {
+    OperationCache cache = new OperationCache(1 << 20);
+    BigFraction exact = cache.pow(RATE, 20);
+    SizePolicy.install(SizePolicy.of(1000, SizePolicy.Action.APPROXIMATE));
+    BigFraction approximated = cache.pow(RATE, 20);
+    assertTrue(approximated.getNumerator().bitLength() <= 1000);
+    SizePolicy.install(SizePolicy.UNLIMITED);
+    assertSame(exact, cache.pow(RATE, 20));
+  }
+
+  @Test
+  public void testConcurrent() {
+    OperationCache cache = new OperationCache(1 << 20);
+    BigFraction[] results = IntStream.range(0, 10_000).parallel()
+        .mapToObj(i -> cache.multiply(AMOUNT, RATE.add(BigFraction.valueOf(i % 10))))
+        .toArray(BigFraction[]::new);
+    for (int i = 0; i < results.length; i++) {
+      assertEquals(AMOUNT.multiply(RATE.add(BigFraction.valueOf(i % 10))), results[i]);
+    }
+    assertEquals(10_000, cache.getStatistics().getRequestCount());
+    assertEquals(10, cache.getStatistics().getSize());
+  }
+
+  @Test
+  public void testIllegalArguments() {
+    try {
+      new OperationCache(0);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the maximum weight has to be positive.", iae.getMessage());
+    }
+    try {
+      new OperationCache(100).add(RATE, null);
+      fail("NullPointerException expected");
+    } catch (NullPointerException npe) {
+      assertEquals("second operand", npe.getMessage());
+    }
+    try {
+      new OperationCache(100).divide(RATE, BigFraction.ZERO);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertEquals("division by zero is not allowed.", ae.getMessage());
+    }
+  }
+
+}
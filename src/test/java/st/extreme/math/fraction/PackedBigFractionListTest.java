@@ -0,0 +1,156 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PackedBigFractionListTest {
+
+  private static final List<BigFraction> VALUES = Arrays.asList(BigFraction.valueOf("1/3"), BigFraction.valueOf(42),
+      BigFraction.ZERO, BigFraction.valueOf("-7/2"), BigFraction.valueOf("4294967295/4294967294"),
+      BigFraction.valueOf("-4294967296/3"), new BigFraction("-123456789012345678901234567890", "98765432109876543210987"),
+      BigFraction.valueOf("9223372036854775807/2"), BigFraction.valueOf("18446744073709551616/18446744073709551617"));
+
+  @Test
+  public void testAddAndGet() {
+    PackedBigFractionList list = new PackedBigFractionList(0);
+    assertTrue(list.isEmpty());
+    list.addAll(VALUES);
+    assertEquals(VALUES.size(), list.size());
+    assertEquals(VALUES, list);
+    assertEquals(VALUES, new ArrayList<>(list));
+    for (int i = 0; i < VALUES.size(); i++) {
+      assertEquals(VALUES.get(i), list.get(i));
+      assertEquals(VALUES.get(i).signum(), list.signum(i));
+    }
+    list.clear();
+    assertTrue(list.isEmpty());
+    list.add(BigFraction.ONE);
+    assertEquals(Arrays.asList(BigFraction.ONE), list);
+  }
+
+  @Test
+  public void testFootprint() {
+    PackedBigFractionList list = new PackedBigFractionList();
+    list.add(BigFraction.valueOf("1/3"));
+    assertEquals(4, list.getUsedInts());
+    list.add(BigFraction.valueOf(42));
+    assertEquals(7, list.getUsedInts());
+    list.add(BigFraction.ZERO);
+    assertEquals(9, list.getUsedInts());
+    list.trimToSize();
+    assertEquals(BigFraction.valueOf("1/3"), list.get(0));
+  }
+
+  @Test
+  public void testCompare() {
+    PackedBigFractionList list = new PackedBigFractionList();
+    list.addAll(VALUES);
+    list.add(BigFraction.valueOf("2/6"));
+    list.add(new BigFraction("-123456789012345678901234567891", "98765432109876543210987"));
+    for (int i = 0; i < list.size(); i++) {
+      for (int j = 0; j < list.size(); j++) {
+        BigFraction value1 = list.get(i);
+        BigFraction value2 = list.get(j);
+        assertEquals(value1 + " <=> " + value2, Integer.signum(value1.compareTo(value2)), Integer.signum(list.compare(i, j)));
+      }
+    }
+  }
+
+  @Test
+  public void testSumMinMax() {
+    PackedBigFractionList list = new PackedBigFractionList();
+    assertEquals(BigFraction.ZERO, list.sum());
+    assertFalse(list.min().isPresent());
+    assertFalse(list.max().isPresent());
+    list.addAll(VALUES);
+    assertEquals(VALUES.stream().reduce(BigFraction.ZERO, BigFraction::add), list.sum());
+    assertEquals(BigFraction.valueOf("9223372036854775807/2"), list.max().get());
+    assertEquals(BigFraction.valueOf("-4294967296/3"), list.min().get());
+  }
+
+  @Test
+  public void testSum_longRuns() {
+    PackedBigFractionList list = new PackedBigFractionList();
+    BigFraction large = BigFraction.valueOf(Integer.toUnsignedString(-1) + "/100");
+    BigFraction expected = BigFraction.ZERO;
+    for (int i = 0; i < 10_000; i++) {
+      // the running numerator overflows a long several times
+      BigFraction value = i % 3 == 0 ? large : BigFraction.valueOf(i + "/100");
+      list.add(value);
+      expected = expected.add(value);
+    }
+    assertEquals(expected, list.sum());
+  }
+
+  @Test
+  public void testParallel() {
+    Random random = new Random(4711);
+    PackedBigFractionList list = new PackedBigFractionList();
+    List<BigFraction> values = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      BigInteger numerator = new BigInteger(1 + random.nextInt(60), random).subtract(BigInteger.ONE.shiftLeft(40));
+      BigFraction value = new BigFraction(numerator, BigInteger.valueOf(1 + random.nextInt(100)));
+      values.add(value);
+      list.add(value);
+    }
+    BigFractionAccumulator accumulator = new BigFractionAccumulator();
+    values.forEach(accumulator::add);
+    assertEquals(accumulator.toBigFraction(), list.sum());
+    assertEquals(values.stream().min(BigFraction::compareTo).get(), list.min().get());
+    assertEquals(values.stream().max(BigFraction::compareTo).get(), list.max().get());
+    double[] doubles = list.toDoubleArray();
+    for (int i = 0; i < doubles.length; i += 97) {
+      assertEquals(values.get(i).doubleValue(), doubles[i], 0.0);
+    }
+  }
+
+  @Test
+  public void testToDoubleArray() {
+    PackedBigFractionList list = new PackedBigFractionList();
+    list.addAll(VALUES);
+    double[] expected = VALUES.stream().mapToDouble(BigFraction::doubleValue).toArray();
+    assertArrayEquals(expected, list.toDoubleArray(), 0.0);
+  }
+
+  @Test
+  public void testIllegalArguments() {
+    PackedBigFractionList list = new PackedBigFractionList();
+    list.add(BigFraction.ONE);
+    try {
+      list.get(1);
+      fail("IndexOutOfBoundsException expected");
+    } catch (IndexOutOfBoundsException ioobe) {
+      assertEquals("index: 1, size: 1", ioobe.getMessage());
+    }
+    try {
+      list.set(0, BigFraction.ZERO);
+      fail("UnsupportedOperationException expected");
+    } catch (UnsupportedOperationException uoe) {
+      assertEquals(1, list.size());
+    }
+    try {
+      list.add(new BigFraction(BigInteger.ONE.shiftLeft(32 * PackedBigFractionList.MAX_LIMBS), BigInteger.ONE));
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the value is too large to be packed.", iae.getMessage());
+    }
+    try {
+      new PackedBigFractionList(-1);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("the capacity must not be negative.", iae.getMessage());
+    }
+  }
+
+}
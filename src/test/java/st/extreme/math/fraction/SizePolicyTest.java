@@ -0,0 +1,174 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SizePolicyTest {
+
+  @After
+  public void tearDown() {
+    SizePolicy.install(SizePolicy.UNLIMITED);
+  }
+
+  @Test
+  public void testDefault() {
+    assertSame(SizePolicy.UNLIMITED, SizePolicy.current());
+    assertEquals("1024/3125", BigFraction.valueOf("4/5").pow(5).toString());
+  }
+
+  @Test
+  public void testOf_illegalArguments() {
+    try {
+      SizePolicy.of(0, SizePolicy.Action.THROW);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("positive"));
+    }
+    try {
+      SizePolicy.of(10, null);
+      fail("NullPointerException expected");
+    } catch (NullPointerException npe) {
+      assertEquals("action", npe.getMessage());
+    }
+  }
+
+  @Test
+  public void testThrow_construction() {
+    SizePolicy policy = SizePolicy.of(8, SizePolicy.Action.THROW);
+    SizePolicy.install(policy);
+    assertEquals("255/254", new BigFraction("255", "254").toString());
+    // cancelled first, then checked
+    assertEquals("1/2", new BigFraction("512", "1024").toString());
+    try {
+      new BigFraction("256", "3");
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("size limit of 8 bits exceeded"));
+    }
+    assertEquals(1, policy.getViolationCount());
+  }
+
+  @Test
+  public void testThrow_pow() {
+    SizePolicy policy = SizePolicy.of(1000, SizePolicy.Action.THROW);
+    SizePolicy.install(policy);
+    try {
+      BigFraction.valueOf("2/3").pow(Integer.MAX_VALUE);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("pow"));
+    }
+    assertEquals(1, policy.getViolationCount());
+  }
+
+  @Test
+  public void testThrow_multiply() {
+    SizePolicy policy = SizePolicy.of(100, SizePolicy.Action.THROW);
+    SizePolicy.install(policy);
+    BigFraction big = new BigFraction(BigInteger.ONE.shiftLeft(80), BigInteger.valueOf(3));
+    try {
+      big.multiply(big);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("multiply"));
+    }
+  }
+
+  @Test
+  public void testApproximate_construction() {
+    SizePolicy policy = SizePolicy.of(16, SizePolicy.Action.APPROXIMATE);
+    SizePolicy.install(policy);
+    BigFraction approximated = new BigFraction("1000000001", "3000000000");
+    assertTrue(approximated.getNumerator().bitLength() <= 16);
+    assertTrue(approximated.getDenominator().bitLength() <= 16);
+    assertEquals(1.0 / 3.0, approximated.doubleValue(), 1e-4);
+    assertEquals(1, policy.getViolationCount());
+
+    approximated = new BigFraction("-1000000001", "3000000000");
+    assertEquals(-1.0 / 3.0, approximated.doubleValue(), 1e-4);
+  }
+
+  @Test
+  public void testApproximate_closest() {
+    SizePolicy.install(SizePolicy.of(4, SizePolicy.Action.APPROXIMATE));
+    assertEquals(BigFraction.valueOf(15), new BigFraction("31", "2"));
+    assertEquals(BigFraction.valueOf(-15), new BigFraction("-31", "2"));
+    SizePolicy.install(SizePolicy.of(16, SizePolicy.Action.APPROXIMATE));
+    assertEquals(BigFraction.valueOf(43690), new BigFraction("131071", "3"));
+    // the best approximations of pi with small numerators and denominators
+    SizePolicy.install(SizePolicy.of(9, SizePolicy.Action.APPROXIMATE));
+    BigFraction pi = new BigFraction("3141592653589793238", "1000000000000000000");
+    assertEquals(BigFraction.valueOf("355/113"), pi);
+    SizePolicy.install(SizePolicy.of(6, SizePolicy.Action.APPROXIMATE));
+    assertEquals(BigFraction.valueOf("22/7"), new BigFraction("3141592653589793238", "1000000000000000000"));
+    SizePolicy.install(SizePolicy.of(16, SizePolicy.Action.APPROXIMATE));
+    assertEquals(BigFraction.valueOf("1/65535"), new BigFraction("1", "65536"));
+  }
+
+  @Test
+  public void testApproximate_random() {
+    Random random = new Random(4711);
+    SizePolicy policy = SizePolicy.of(8, SizePolicy.Action.APPROXIMATE);
+    for (int i = 0; i < 100; i++) {
+      BigInteger numerator = new BigInteger(24, random).subtract(BigInteger.ONE.shiftLeft(23));
+      // |numerator| < denominator, so that the integer part fits
+      BigInteger denominator = new BigInteger(23, random).add(BigInteger.ONE.shiftLeft(23));
+      BigInteger[] approximated = policy.approximate(numerator, denominator);
+      assertTrue(approximated[0].bitLength() <= 8 && approximated[1].bitLength() <= 8);
+      // no fraction within the limit is closer, checked by brute force over all denominators
+      BigFraction exact = new BigFraction(numerator, denominator);
+      BigFraction error = new BigFraction(approximated[0], approximated[1]).subtract(exact).abs();
+      for (int q = 1; q < 1 << 8; q++) {
+        BigInteger p = numerator.multiply(BigInteger.valueOf(q)).divide(denominator);
+        for (BigInteger candidate : new BigInteger[] { p.subtract(BigInteger.ONE), p, p.add(BigInteger.ONE) }) {
+          if (candidate.bitLength() <= 8) {
+            BigFraction other = new BigFraction(candidate, BigInteger.valueOf(q)).subtract(exact).abs();
+            assertTrue(other.compareTo(error) >= 0);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testApproximate_integerPartTooBig() {
+    SizePolicy.install(SizePolicy.of(16, SizePolicy.Action.APPROXIMATE));
+    try {
+      new BigFraction("1000000000000", "3");
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("approximation"));
+    }
+  }
+
+  @Test
+  public void testApproximate_pow() {
+    SizePolicy policy = SizePolicy.of(64, SizePolicy.Action.APPROXIMATE);
+    SizePolicy.install(policy);
+    BigFraction base = BigFraction.valueOf("1000001/1000000");
+    BigFraction approximated = base.pow(1_000_000);
+    assertTrue(approximated.getNumerator().bitLength() <= 64);
+    assertTrue(approximated.getDenominator().bitLength() <= 64);
+    // (1 + 1/n)^n is close to e
+    assertEquals(Math.E, approximated.doubleValue(), 1e-5);
+    assertEquals(1, policy.getViolationCount());
+  }
+
+  @Test
+  public void testRecord() {
+    SizePolicy policy = SizePolicy.of(8, SizePolicy.Action.RECORD);
+    SizePolicy.install(policy);
+    assertEquals("1024/3125", BigFraction.valueOf("4/5").pow(5).toString());
+    assertEquals("1/1024", BigFraction.valueOf("1/32").multiply(BigFraction.valueOf("1/32")).toString());
+    assertEquals(2, policy.getViolationCount());
+  }
+
+}
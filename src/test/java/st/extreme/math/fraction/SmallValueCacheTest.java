@@ -0,0 +1,100 @@
+package st.extreme.math.fraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SmallValueCacheTest {
+
+  @After
+  public void tearDown() {
+    SizePolicy.install(SizePolicy.UNLIMITED);
+  }
+
+  @Test
+  public void testValueOf_integers() {
+    assertSame(BigFraction.ZERO, BigFraction.valueOf(0));
+    assertSame(BigFraction.ONE, BigFraction.valueOf(1));
+    assertSame(BigFraction.ONE, BigFraction.valueOf(1L));
+    assertSame(BigFraction.valueOf(5), BigFraction.valueOf(5));
+    assertSame(BigFraction.valueOf(-128), BigFraction.valueOf(Long.valueOf(-128)));
+    assertSame(BigFraction.valueOf(127), BigFraction.valueOf("127"));
+    assertNotSame(BigFraction.valueOf(128), BigFraction.valueOf(128));
+    assertNotSame(BigFraction.valueOf(-129L), BigFraction.valueOf(-129L));
+    assertEquals(BigFraction.valueOf(Long.MIN_VALUE), BigFraction.valueOf(Long.MIN_VALUE));
+  }
+
+  @Test
+  public void testValueOf_fractions() {
+    assertSame(BigFraction.valueOf("1/2"), BigFraction.valueOf("2/4"));
+    assertSame(BigFraction.valueOf("-3/16"), BigFraction.valueOf("3/-16"));
+    assertSame(BigFraction.valueOf("1/4"), BigFraction.valueOf("0.25"));
+    assertNotSame(BigFraction.valueOf("1/17"), BigFraction.valueOf("1/17"));
+    assertNotSame(BigFraction.valueOf("3/2"), BigFraction.valueOf("3/2"));
+    assertEquals("3/2", BigFraction.valueOf("3/2").toString());
+  }
+
+  @Test
+  public void testArithmetic() {
+    BigFraction half = BigFraction.valueOf("1/2");
+    assertSame(BigFraction.ONE, half.add(half));
+    assertSame(BigFraction.ZERO, half.subtract(half));
+    assertSame(BigFraction.valueOf("1/4"), half.multiply(half));
+    assertSame(BigFraction.valueOf(2), half.reciprocal());
+    assertSame(BigFraction.valueOf("-1/2"), half.negate());
+    assertSame(half, half.negate().abs());
+    assertSame(BigFraction.valueOf("1/8"), half.pow(3));
+  }
+
+  @Test
+  public void testLookup() {
+    assertNull(SmallValueCache.lookup(1, 0));
+    assertNull(SmallValueCache.lookup(BigInteger.ONE.shiftLeft(40), BigInteger.ONE));
+    assertSame(SmallValueCache.lookup(6, 8), SmallValueCache.lookup(-3, -4));
+    assertEquals("3/4", SmallValueCache.lookup(6, 8).toString());
+    assertSame(BigFraction.valueOf(-7), SmallValueCache.lookup(14, -2));
+  }
+
+  @Test
+  public void testValueOf() {
+    assertSame(SmallValueCache.lookup(3, 4), SmallValueCache.valueOf(6, 8));
+    assertSame(SmallValueCache.lookup(-3, 4), SmallValueCache.valueOf(6, -8));
+    BigFraction uncached = SmallValueCache.valueOf(-60, -680);
+    assertEquals("3/34", uncached.toString());
+    assertEquals(BigFraction.valueOf("3/34"), uncached);
+    assertEquals("-100000", SmallValueCache.valueOf(200_000, -2).toString());
+    try {
+      SmallValueCache.valueOf(1, 0);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertEquals("division by zero is not allowed.", ae.getMessage());
+    }
+    assertTrue(SmallValueCache.HIGH <= 1 << 16);
+  }
+
+  @Test
+  public void testSizePolicy() {
+    BigFraction hundred = BigFraction.valueOf(100);
+    SizePolicy policy = SizePolicy.of(4, SizePolicy.Action.THROW);
+    SizePolicy.install(policy);
+    assertSame(BigFraction.valueOf(7), BigFraction.valueOf(7));
+    try {
+      BigFraction.valueOf(100);
+      fail("ArithmeticException expected");
+    } catch (ArithmeticException ae) {
+      assertTrue(ae.getMessage().contains("size limit of 4 bits exceeded"));
+    }
+    assertEquals(1, policy.getViolationCount());
+    SizePolicy.install(SizePolicy.UNLIMITED);
+    assertSame(hundred, BigFraction.valueOf(100));
+  }
+
+}